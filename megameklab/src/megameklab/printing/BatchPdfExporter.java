@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.awt.print.PageFormat;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import megamek.client.Client;
+import megamek.common.equipment.GunEmplacement;
+import megamek.common.loaders.MekSummary;
+import megamek.common.units.Entity;
+import megamek.logging.MMLogger;
+import megameklab.util.UnitPrintManager;
+import megameklab.util.UnitUtil;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * Exports a PDF record sheet for each of a list of units without any user interface. Units are exported by a fixed
+ * number of worker threads, each of which holds only the unit it is working on; the sheets of a unit are released as
+ * soon as its pages are written.
+ *
+ * <p>Each finished unit is recorded in a journal in the output folder, and each PDF is written to a temporary file
+ * that is only moved into place once complete. A run that was interrupted can be resumed: units whose file is
+ * unchanged and whose PDF exists are skipped. At the end a report of failures and timings is written.</p>
+ */
+final class BatchPdfExporter {
+    private static final MMLogger logger = MMLogger.create(BatchPdfExporter.class);
+
+    static final String JOURNAL_FILE = "batch-journal.tsv";
+    static final String REPORT_FILE = "batch-report.json";
+    private static final int SLOWEST_UNITS = 10;
+
+    enum Status {
+        EXPORTED,
+        SKIPPED,
+        FAILED
+    }
+
+    /**
+     * The outcome of exporting one unit.
+     *
+     * @param unit   The name of the unit
+     * @param status Whether the unit was exported
+     * @param millis The time spent on the unit
+     * @param detail The written file, or the reason the unit failed
+     */
+    record Result(String unit, Status status, long millis, String detail) {}
+
+    /**
+     * The summary of a run, as written to the report file.
+     */
+    record Report(int units, int exported, int skipped, int failed, long wallMillis, long busyMillis,
+          double averageMillis, List<Result> slowest, List<Result> failures) {}
+
+    private final File outputFolder;
+    private final int threads;
+    private final boolean resume;
+    private final RecordSheetOptions options;
+    private final Function<Entity, List<Entity>> printableUnits;
+    private final BiFunction<MekSummary, Entity, File> outputFile;
+    private final Object mkdirLock = new Object();
+    // Each worker adds its units to its own game, so fixing up loaded units needs no locking
+    private final ThreadLocal<Client> workerClient = ThreadLocal.withInitial(UnitUtil::createDummyClient);
+
+    /**
+     * @param outputFolder   The folder for the journal and the report
+     * @param threads        The number of worker threads
+     * @param resume         Whether to skip the units that a previous run has already exported
+     * @param options        The record sheet options
+     * @param printableUnits Gives the units to put on the sheets of a unit, for example several copies of small units
+     * @param outputFile     Gives the PDF file of a unit
+     */
+    BatchPdfExporter(File outputFolder, int threads, boolean resume, RecordSheetOptions options,
+          Function<Entity, List<Entity>> printableUnits, BiFunction<MekSummary, Entity, File> outputFile) {
+        this.outputFolder = outputFolder;
+        this.threads = Math.max(1, threads);
+        this.resume = resume;
+        this.options = options;
+        this.printableUnits = printableUnits;
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * Exports the units and writes the report.
+     *
+     * @param units The units to export
+     *
+     * @return The summary of the run
+     *
+     * @throws IOException if the journal could not be opened
+     */
+    Report run(List<MekSummary> units) throws IOException {
+        final long start = System.nanoTime();
+        final Map<String, String> finished = resume ? readJournal() : new HashMap<>();
+        if (resume) {
+            logger.info("Resuming; {} units were exported by the previous run", finished.size());
+        }
+        // The tables shared by the unit parsers are built up front, so workers only read them
+        UnitUtil.prepareParallelLoading();
+
+        final List<Result> results = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (Journal journal = new Journal(new File(outputFolder, JOURNAL_FILE), !resume)) {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (MekSummary unit : units) {
+                futures.add(executor.submit(() -> export(unit, finished, journal)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Result result;
+                try {
+                    result = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    result = new Result(units.get(i).getName(), Status.FAILED, 0,
+                          Objects.toString(e.getCause(), "Unknown error"));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while exporting", e);
+                }
+                if (result != null) {
+                    results.add(result);
+                }
+                if ((i + 1) % 100 == 0) {
+                    logger.info("{} of {} units done", i + 1, units.size());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Report report = report(results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        try {
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(outputFolder, REPORT_FILE), report);
+        } catch (IOException e) {
+            logger.error(e, "Failed to write the export report");
+        }
+        return report;
+    }
+
+    /**
+     * Exports one unit. This runs on a worker thread.
+     *
+     * @return The result, or {@code null} for units that have no record sheet
+     */
+    private Result export(MekSummary unit, Map<String, String> finished, Journal journal) {
+        final long start = System.nanoTime();
+        final String unitKey = SVGExportManifest.unitKey(unit);
+        final String unitHash = Objects.requireNonNullElse(SVGExportManifest.hashUnit(unit), "");
+        final String previousFile = unitHash.isEmpty() ? null : finished.get(unitKey + '\t' + unitHash);
+        if ((previousFile != null) && new File(previousFile).isFile()) {
+            journal.record(Status.EXPORTED, unitKey, unitHash, 0, previousFile);
+            return new Result(unit.getName(), Status.SKIPPED, 0, previousFile);
+        }
+
+        File file = null;
+        try {
+            Entity entity = unit.loadEntity();
+            if (entity instanceof GunEmplacement) {
+                return null;
+            } else if (entity == null) {
+                throw new IOException("The unit could not be loaded");
+            }
+            UnitUtil.updateLoadedUnit(entity, workerClient.get());
+            file = outputFile.apply(unit, entity);
+            File folder = file.getAbsoluteFile().getParentFile();
+            synchronized (mkdirLock) {
+                if (!folder.isDirectory() && !folder.mkdirs()) {
+                    throw new IOException("Couldn't create folder " + folder);
+                }
+            }
+            // The unit was loaded for this export only, so its damage can be cleared in place
+            List<PlannedSheet> sheets = UnitPrintManager.planSheets(printableUnits.apply(entity), true,
+                  options, true, true);
+            if (sheets.isEmpty()) {
+                throw new IOException("No record sheets were created");
+            }
+            writePdf(sheets, file.toPath());
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            journal.record(Status.EXPORTED, unitKey, unitHash, millis, file.getPath());
+            return new Result(unit.getName(), Status.EXPORTED, millis, file.getPath());
+        } catch (Exception e) {
+            logger.error(e, "Printing Error for " + unit.getName());
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            String detail = Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName());
+            journal.record(Status.FAILED, unitKey, unitHash, millis, detail);
+            return new Result(unit.getName(), Status.FAILED, millis, detail);
+        }
+    }
+
+    /**
+     * Writes the sheets to a temporary file next to the output and moves it into place when complete. Each sheet is
+     * built just before its pages are written and removed from the list afterward.
+     */
+    private void writePdf(List<PlannedSheet> sheets, Path outputFile) throws Exception {
+        PageFormat pageFormat = new PageFormat();
+        pageFormat.setPaper(options.getPaperSize().createPaper());
+        Path folder = outputFile.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(folder, "mml-batch", ".pdf");
+        Path bookmarkedFile = null;
+        try {
+            Map<Integer, List<String>> bookmarkNames = new TreeMap<>();
+            try (OutputStream out = Files.newOutputStream(tempFile);
+                  RecordSheetPdfWriter writer = new RecordSheetPdfWriter(out, pageFormat)) {
+                Iterator<PlannedSheet> iter = sheets.iterator();
+                while (iter.hasNext()) {
+                    PlannedSheet plannedSheet = iter.next();
+                    PrintRecordSheet sheet = plannedSheet.create();
+                    try {
+                        List<String> names = sheet.getBookmarkNames();
+                        if ((names != null) && !names.isEmpty()) {
+                            bookmarkNames.put(writer.getPageCount(), names);
+                        }
+                        for (int i = 0; i < sheet.getPageCount(); i++) {
+                            sheet.exportPDF(i, pageFormat, writer);
+                        }
+                    } finally {
+                        plannedSheet.release();
+                    }
+                    iter.remove();
+                }
+            }
+            if (!bookmarkNames.isEmpty()) {
+                bookmarkedFile = Files.createTempFile(folder, "mml-batch", ".pdf");
+                try (PDDocument document = Loader.loadPDF(tempFile.toFile())) {
+                    RecordSheetTask.addBookmarks(document, bookmarkNames);
+                    document.save(bookmarkedFile.toFile());
+                }
+                moveIntoPlace(bookmarkedFile, outputFile);
+            } else {
+                moveIntoPlace(tempFile, outputFile);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+            if (bookmarkedFile != null) {
+                Files.deleteIfExists(bookmarkedFile);
+            }
+        }
+    }
+
+    /**
+     * Replaces the output file with a complete temporary file in the same folder, atomically where the file system
+     * supports it, so the output is never left truncated.
+     */
+    private static void moveIntoPlace(Path tempFile, Path outputFile) throws IOException {
+        try {
+            Files.move(tempFile, outputFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the journal of the previous run.
+     *
+     * @return The file written for each unit key and hash, separated by a tab, that the previous run exported
+     */
+    private Map<String, String> readJournal() {
+        Map<String, String> finished = new HashMap<>();
+        File file = new File(outputFolder, JOURNAL_FILE);
+        if (!file.isFile()) {
+            return finished;
+        }
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                // A line cut short by a crash has fewer fields and is ignored
+                String[] fields = line.split("\t", 5);
+                if (fields.length == 5) {
+                    String key = fields[1] + '\t' + fields[2];
+                    if (Status.EXPORTED.name().equals(fields[0])) {
+                        finished.put(key, fields[4]);
+                    } else {
+                        finished.remove(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read the export journal {}; all units will be exported", file);
+            finished.clear();
+        }
+        return finished;
+    }
+
+    private static Report report(List<Result> results, long wallMillis) {
+        List<Result> exported = results.stream().filter(result -> result.status() == Status.EXPORTED).toList();
+        List<Result> failures = results.stream().filter(result -> result.status() == Status.FAILED).toList();
+        long busyMillis = results.stream().mapToLong(Result::millis).sum();
+        List<Result> slowest = exported.stream()
+              .sorted(Comparator.comparingLong(Result::millis).reversed())
+              .limit(SLOWEST_UNITS)
+              .toList();
+        int skipped = results.size() - exported.size() - failures.size();
+        double average = exported.isEmpty() ? 0 :
+              exported.stream().mapToLong(Result::millis).average().orElse(0);
+        return new Report(results.size(), exported.size(), skipped, failures.size(), wallMillis, busyMillis,
+              Math.round(average * 10) / 10.0, slowest, failures);
+    }
+
+    /**
+     * The record of finished units. Each line is flushed as it is written, so the journal is complete up to the last
+     * unit finished before a crash.
+     */
+    private static class Journal implements AutoCloseable {
+        private final BufferedWriter writer;
+
+        Journal(File file, boolean truncate) throws IOException {
+            writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                  truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND,
+                  StandardOpenOption.WRITE);
+        }
+
+        synchronized void record(Status status, String unitKey, String unitHash, long millis, String detail) {
+            try {
+                writer.write(String.join("\t", status.name(), unitKey, unitHash, Long.toString(millis),
+                      detail.replace('\t', ' ').replace('\n', ' ')));
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                logger.error(e, "Failed to write the export journal");
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -34,25 +34,53 @@
 package megameklab.printing;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
 import megamek.client.ui.util.FluffImageHelper;
 import megamek.common.equipment.EquipmentType;
-import megamek.common.equipment.GunEmplacement;
 import megamek.common.loaders.MekSummary;
 import megamek.common.loaders.MekSummaryCache;
 import megamek.common.units.Entity;
 import megamek.logging.MMLogger;
 import megameklab.MMLOptions;
 import megameklab.util.CConfig;
-import megameklab.util.UnitPrintManager;
 
+/**
+ * Exports a PDF record sheet for every unit in the unit cache to the sheets folder. This runs without a user
+ * interface; see {@link BatchPdfExporter}.
+ *
+ * <p>Options: {@code --threads <n>} sets the number of worker threads, and {@code --resume} skips the units that
+ * an interrupted run has already exported.</p>
+ */
 public class CGLMassPrinter {
     private static final MMLogger LOGGER = MMLogger.create(CGLMassPrinter.class);
 
+    private static final String SHEETS_FOLDER = "sheets";
+
     public static void main(String[] args) {
-        File sheetsDir = new File("sheets");
+        System.setProperty("java.awt.headless", "true");
+        boolean resume = false;
+        int threads = 0;
+        for (int i = 0; i < args.length; i++) {
+            if ("--resume".equals(args[i])) {
+                resume = true;
+            } else if ("--threads".equals(args[i]) && (i + 1 < args.length)) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    LOGGER.error("--threads expects a number, not {}", args[i]);
+                    System.exit(1);
+                }
+            } else {
+                LOGGER.error("Unknown argument {}; the options are --threads <n> and --resume", args[i]);
+                System.exit(1);
+            }
+        }
+
+        File sheetsDir = new File(SHEETS_FOLDER);
 
         if (!sheetsDir.exists() || !sheetsDir.isDirectory()) {
             sheetsDir.mkdirs();
@@ -63,55 +91,30 @@ public class CGLMassPrinter {
         EquipmentType.initializeTypes();
         CConfig.load();
         MekSummaryCache cache = MekSummaryCache.getInstance(true);
+        if (threads < 1) {
+            threads = CConfig.exportThreads();
+        }
 
-        for (MekSummary mekSummary : cache.getAllMeks()) {
-            LOGGER.info("Looking at {}", mekSummary.getName());
-
-            /*
-             * if (!mekSummary.isProtoMek() && !mekSummary.isCombatVehicle()) {
-             * continue;
-             * }
-             *
-             * // 1 - uncomment this block and cycle all the start characters A-Z (only
-             * // uppercase)
-             * if (!mekSummary.getName().toUpperCase().startsWith("C")) {
-             * continue;
-             * }
-             *
-             * // 2 - uncomment this block, comment the above block, run once more
-             * if (mekSummary.getName().toUpperCase().charAt(0) <= 'Z' &&
-             * mekSummary.getName().toUpperCase().charAt(0) >= 'A') {
-             * continue;
-             * }
-             *
-             */
-            Entity entity = mekSummary.loadEntity();
-
-            if (entity != null && !(entity instanceof GunEmplacement)) {
-                File sheetPath = new File("sheets", FluffImageHelper.getFluffPath(entity));
-
-                if (!sheetPath.exists() && !sheetPath.mkdirs()) {
-                    LOGGER.error("Couldn't create folder {}", sheetPath);
-                    System.exit(1);
-                }
-
-                File file = normalizePath(sheetPath, mekSummary);
-
-                try {
-                    List<Entity> units = printableListOfUnits(entity);
-                    UnitPrintManager.exportUnits(units, file, true);
-                    LOGGER.info("Printed: {}", file);
-                } catch (Exception e) {
-                    LOGGER.error(e, "Printing Error");
-                }
-
-                // Added to keep memory usage from ballooning during processing.
-                System.gc();
-            }
+        BatchPdfExporter exporter = new BatchPdfExporter(sheetsDir, threads, resume, new RecordSheetOptions(),
+              CGLMassPrinter::printableListOfUnits,
+              (mekSummary, entity) -> normalizePath(new File(SHEETS_FOLDER, FluffImageHelper.getFluffPath(entity)),
+                    mekSummary));
+        BatchPdfExporter.Report report;
+        try {
+            report = exporter.run(Arrays.asList(cache.getAllMeks()));
+        } catch (IOException e) {
+            LOGGER.error(e, "Export failed");
+            System.exit(1);
+            return;
         }
 
-        LOGGER.info("Done.");
-        System.exit(0);
+        LOGGER.info("Done. {} exported, {} skipped, {} failed in {} s ({} ms per unit on average).",
+              report.exported(), report.skipped(), report.failed(), report.wallMillis() / 1000,
+              report.averageMillis());
+        for (BatchPdfExporter.Result failure : report.failures()) {
+            LOGGER.warn("Failed: {}: {}", failure.unit(), failure.detail());
+        }
+        System.exit(report.failed() > 0 ? 1 : 0);
     }
 
     private static List<Entity> printableListOfUnits(Entity entity) {
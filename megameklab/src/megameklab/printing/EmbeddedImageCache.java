@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.imageio.ImageIO;
+
+import megamek.common.annotations.Nullable;
+import megamek.common.util.ImageUtil;
+
+/**
+ * Caches images embedded in record sheets as base64 encoded data URIs. PNG encoding large fluff images is slow, and
+ * the same image is embedded every time a sheet is rendered or the preview is refreshed. Images are scaled down to
+ * the resolution needed for their bounding box before encoding, so the sheets also carry much smaller images.
+ *
+ * <p>Entries are found by image file path and modification time or by the content of the scaled image, in each case
+ * together with the size of the bounding box. The cache is bounded by the total length of the encoded images and
+ * evicts the least recently used ones. Source images are never held, so the encoded images are all the memory the
+ * cache takes. Image objects are only remembered weakly, to skip scaling and hashing an image that is embedded
+ * again while it is still in use.</p>
+ */
+final class EmbeddedImageCache {
+
+    /** Resolution that images are scaled down to, in pixels per inch. Sheet units are points (1/72 inch). */
+    static final double TARGET_DPI = 300.0;
+
+    /** Maximum total length of the cached data URIs */
+    static final long MAX_CACHED_CHARS = 32L * 1024 * 1024;
+
+    /**
+     * An encoded image and the size of the source image, which determines the aspect ratio of the embedded image.
+     */
+    record EncodedImage(String dataUri, int sourceWidth, int sourceHeight) {}
+
+    private record FileKey(Path path, long lastModified, double width, double height) {}
+
+    private record BoxSize(double width, double height) {}
+
+    private record ContentKey(String digest, int sourceWidth, int sourceHeight) {}
+
+    private static final Map<Object, EncodedImage> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedChars = 0;
+    /** The content keys of the images embedded so far, for each bounding box size; guarded by the cache */
+    private static final Map<Image, Map<BoxSize, ContentKey>> imageContentKeys = new WeakHashMap<>();
+
+    private EmbeddedImageCache() {}
+
+    /**
+     * Provides the encoded image file scaled to fit into the bounding box.
+     *
+     * @return The encoded image, or {@code null} if the file does not contain a readable image
+     *
+     * @throws IOException if the file cannot be read
+     */
+    static @Nullable EncodedImage get(Path filePath, Rectangle2D bbox) throws IOException {
+        FileKey key = new FileKey(filePath.toAbsolutePath(), Files.getLastModifiedTime(filePath).toMillis(),
+              bbox.getWidth(), bbox.getHeight());
+        EncodedImage encoded = lookup(key);
+        if (encoded == null) {
+            BufferedImage image;
+            try (InputStream is = Files.newInputStream(filePath)) {
+                image = ImageIO.read(is);
+            }
+            if (image == null) {
+                return null;
+            }
+            BufferedImage scaled = scaleToTarget(image, bbox);
+            encoded = encode(scaled, new ContentKey(digest(scaled), image.getWidth(), image.getHeight()));
+            store(key, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Provides the encoded image scaled to fit into the bounding box.
+     *
+     * @throws IOException if the image cannot be encoded
+     */
+    static EncodedImage get(Image image, Rectangle2D bbox) throws IOException {
+        BoxSize boxSize = new BoxSize(bbox.getWidth(), bbox.getHeight());
+        ContentKey contentKey;
+        synchronized (cache) {
+            Map<BoxSize, ContentKey> keys = imageContentKeys.get(image);
+            contentKey = (keys == null) ? null : keys.get(boxSize);
+        }
+        EncodedImage encoded = (contentKey == null) ? null : lookup(contentKey);
+        if (encoded == null) {
+            // Images loaded separately from the same file are different objects, so they are found by content
+            BufferedImage source = ImageUtil.convertToBufferedImage(image);
+            BufferedImage scaled = scaleToTarget(source, bbox);
+            contentKey = new ContentKey(digest(scaled), source.getWidth(), source.getHeight());
+            encoded = encode(scaled, contentKey);
+            synchronized (cache) {
+                imageContentKeys.computeIfAbsent(image, i -> new HashMap<>()).put(boxSize, contentKey);
+            }
+        }
+        return encoded;
+    }
+
+    private static EncodedImage encode(BufferedImage scaled, ContentKey contentKey) throws IOException {
+        EncodedImage encoded = lookup(contentKey);
+        if (encoded == null) {
+            try (ByteArrayOutputStream bytes = new ByteArrayOutputStream()) {
+                ImageIO.write(scaled, "png", bytes);
+                encoded = new EncodedImage("data:image/png;base64,"
+                      + Base64.getEncoder().encodeToString(bytes.toByteArray()), contentKey.sourceWidth(),
+                      contentKey.sourceHeight());
+            }
+            store(contentKey, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Scales the image down to the resolution needed to print it at {@link #TARGET_DPI} in the bounding box. Images
+     * that are already small enough are returned unchanged. The size is halved in steps, which gives a much better
+     * result than scaling down in a single bilinear step.
+     */
+    static BufferedImage scaleToTarget(BufferedImage image, Rectangle2D bbox) {
+        double scale = Math.min(bbox.getWidth() / image.getWidth(), bbox.getHeight() / image.getHeight())
+              * TARGET_DPI / 72.0;
+        if (!(scale < 1.0)) {
+            return image;
+        }
+        int targetWidth = Math.max(1, (int) Math.ceil(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.ceil(image.getHeight() * scale));
+        BufferedImage result = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = step.createGraphics();
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(result, 0, 0, width, height, null);
+            g.dispose();
+            result = step;
+        } while ((width > targetWidth) || (height > targetHeight));
+        return result;
+    }
+
+    private static String digest(BufferedImage image) {
+        MessageDigest digest = SVGExportManifest.newDigest();
+        int[] row = new int[image.getWidth()];
+        ByteBuffer buffer = ByteBuffer.allocate(row.length * Integer.BYTES);
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, row.length, 1, row, 0, row.length);
+            buffer.clear();
+            buffer.asIntBuffer().put(row);
+            digest.update(buffer.array());
+        }
+        return SVGExportManifest.toHex(digest.digest());
+    }
+
+    private static @Nullable EncodedImage lookup(Object key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private static void store(Object key, EncodedImage encoded) {
+        synchronized (cache) {
+            EncodedImage previous = cache.put(key, encoded);
+            if (previous != null) {
+                cachedChars -= previous.dataUri().length();
+            }
+            cachedChars += encoded.dataUri().length();
+            Iterator<EncodedImage> iterator = cache.values().iterator();
+            while ((cachedChars > MAX_CACHED_CHARS) && (cache.size() > 1) && iterator.hasNext()) {
+                cachedChars -= iterator.next().dataUri().length();
+                iterator.remove();
+            }
+        }
+    }
+}
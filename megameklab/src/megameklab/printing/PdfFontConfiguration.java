@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import megamek.logging.MMLogger;
+import megameklab.util.CConfig;
+import org.apache.fop.apps.io.InternalResourceResolver;
+import org.apache.fop.apps.io.ResourceResolverFactory;
+import org.apache.fop.configuration.Configuration;
+import org.apache.fop.configuration.DefaultConfigurationBuilder;
+import org.apache.fop.fonts.DefaultFontConfig;
+import org.apache.fop.fonts.DefaultFontConfigurator;
+import org.apache.fop.fonts.EmbedFontInfo;
+import org.apache.fop.fonts.FontCacheManagerFactory;
+import org.apache.fop.fonts.FontDetectorFactory;
+import org.apache.fop.fonts.FontManager;
+import org.apache.fop.fonts.FontTriplet;
+
+/**
+ * Provides the FOP configuration used by the PDF transcoder when exporting record sheets.
+ *
+ * <p>Given a configuration with font directories or auto-detection, the PDF transcoder scans every font directory
+ * each time it transcodes a page. This class performs the scan once per JVM and builds a configuration that lists
+ * the fonts that were found explicitly, so the transcoder only has to register them. The metrics read during the
+ * scan are kept in a font cache file that persists between runs, so later scans only parse fonts that have been
+ * added or changed.</p>
+ */
+public final class PdfFontConfiguration {
+    private static final MMLogger logger = MMLogger.create(PdfFontConfiguration.class);
+
+    /** The font cache shared with later runs */
+    public static final String FONT_CACHE_FILE = CConfig.CONFIG_DIR + "/fop-fonts.cache";
+
+    private static final String DEFAULT_CONFIG = "<fop version=\"1.0\"><fonts><auto-detect/></fonts></fop>";
+
+    private static Configuration configuration;
+
+    private PdfFontConfiguration() {}
+
+    /**
+     * @return The FOP configuration for the PDF transcoder. This is built on first use and then reused.
+     *
+     * @throws Exception if the configuration could not be parsed
+     */
+    public static synchronized Configuration getConfiguration() throws Exception {
+        if (configuration == null) {
+            long start = System.currentTimeMillis();
+            configuration = buildConfiguration();
+            logger.info("Built PDF font configuration in {} ms", System.currentTimeMillis() - start);
+        }
+        return configuration;
+    }
+
+    /**
+     * Discards the configuration so the next export scans the font directories again, e.g. after fonts have been
+     * installed.
+     */
+    public static synchronized void reset() {
+        configuration = null;
+    }
+
+    private static Configuration buildConfiguration() throws Exception {
+        Configuration directoryConfig = parse(injectSystemFontDirectories(loadBaseConfig()));
+        try {
+            return parse(resolveFonts(directoryConfig));
+        } catch (Exception ex) {
+            logger.error("Failed to resolve fonts for PDF export; fonts will be detected for each page", ex);
+            return directoryConfig;
+        }
+    }
+
+    private static Configuration parse(String configXml) throws Exception {
+        DefaultConfigurationBuilder cfgBuilder = new DefaultConfigurationBuilder();
+        return cfgBuilder.build(new ByteArrayInputStream(configXml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String loadBaseConfig() {
+        String configXml = DEFAULT_CONFIG;
+        try (InputStream configStream = PrintRecordSheet.class.getResourceAsStream("fop-config.xml")) {
+            if (configStream != null) {
+                configXml = new String(configStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException ignored) {
+            logger.warn("Failed to load fop-config.xml");
+        }
+        return configXml;
+    }
+
+    private static String injectSystemFontDirectories(String configXml) {
+        // Define font directories based on OS
+        String osName = System.getProperty("os.name").toLowerCase();
+        StringBuilder systemFontDirectories = new StringBuilder();
+        List<String> directories = new ArrayList<>();
+        if (osName.contains("windows")) {
+            String winDir = System.getenv("WINDIR");
+            if (winDir == null) {
+                winDir = System.getenv("SystemRoot");
+            }
+            if (winDir == null) {
+                winDir = "C:\\Windows";
+            }
+            directories.add(winDir + "\\Fonts");
+            directories.add(System.getenv("LOCALAPPDATA") + "\\Microsoft\\Windows\\Fonts");
+        } else if (osName.contains("mac")) {
+            directories.add("/System/Library/Fonts");
+            directories.add("/Library/Fonts");
+            directories.add("~/Library/Fonts");
+        } else {
+            directories.add("/usr/share/fonts");
+            directories.add("/usr/local/share/fonts");
+            directories.add("~/.local/share/fonts");
+        }
+        // Add only directories that exist
+        for (String path : directories) {
+            File fontDir = new File(path);
+            if (fontDir.exists() && fontDir.isDirectory()) {
+                systemFontDirectories.append("<directory recursive=\"true\">").append(path).append("</directory>");
+            }
+        }
+        int insertPoint = configXml.indexOf("</fonts>");
+        if (insertPoint > 0) {
+            return configXml.substring(0, insertPoint) + systemFontDirectories + configXml.substring(insertPoint);
+        } else {
+            logger.warn("Failed to inject system font directories into fop-config.xml");
+            return configXml;
+        }
+    }
+
+    /**
+     * Runs FOP's font detection for the given configuration, using the persistent font cache, and writes a
+     * configuration listing each detected font with its triplets.
+     */
+    private static String resolveFonts(Configuration directoryConfig) throws Exception {
+        InternalResourceResolver resourceResolver = ResourceResolverFactory.createDefaultInternalResourceResolver(
+              new File(".").getAbsoluteFile().toURI());
+        FontManager fontManager = new FontManager(resourceResolver, FontDetectorFactory.createDefault(),
+              FontCacheManagerFactory.createDefault());
+        fontManager.setCacheFile(new File(FONT_CACHE_FILE).getAbsoluteFile().toURI());
+        DefaultFontConfig fontConfig = new DefaultFontConfig.DefaultFontConfigParser().parse(directoryConfig, false);
+        List<EmbedFontInfo> fonts = new DefaultFontConfigurator(fontManager, null, false).configure(fontConfig);
+        fontManager.saveCache();
+
+        StringBuilder configXml = new StringBuilder("<fop version=\"1.0\"><fonts>");
+        for (EmbedFontInfo font : fonts) {
+            if ((font.getEmbedURI() == null) || font.getFontTriplets().isEmpty()) {
+                continue;
+            }
+            configXml.append("<font kerning=\"").append(font.getKerning() ? "yes" : "no")
+                  .append("\" embed-url=\"").append(escape(font.getEmbedURI().toString())).append('"');
+            if (font.getSubFontName() != null) {
+                configXml.append(" sub-font=\"").append(escape(font.getSubFontName())).append('"');
+            }
+            configXml.append('>');
+            for (FontTriplet triplet : font.getFontTriplets()) {
+                configXml.append("<font-triplet name=\"").append(escape(triplet.getName()))
+                      .append("\" style=\"").append(escape(triplet.getStyle()))
+                      .append("\" weight=\"").append(triplet.getWeight()).append("\"/>");
+            }
+            configXml.append("</font>");
+        }
+        configXml.append("</fonts></fop>");
+        logger.info("Resolved {} fonts for PDF export", fonts.size());
+        return configXml.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;")
+              .replace("<", "&lt;")
+              .replace(">", "&gt;")
+              .replace("\"", "&quot;");
+    }
+}
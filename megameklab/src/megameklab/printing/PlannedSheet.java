@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.util.function.Supplier;
+
+/**
+ * A record sheet of a print or export job that has not been built yet. The position and page count of each sheet in
+ * the job are known up front, so a job can be laid out and report its progress, but each sheet is only built just
+ * before its pages are rendered and can be released right after. This keeps the memory used by a job independent of
+ * the number of units in it.
+ */
+public final class PlannedSheet {
+    private final int firstPage;
+    private final int pageCount;
+    private final Supplier<PrintRecordSheet> factory;
+    private final Runnable releaser;
+
+    /**
+     * @param firstPage The index of the first page of the sheet within the job
+     * @param pageCount The number of pages of the sheet
+     * @param factory   Builds the sheet; it is called once for each time the sheet is needed
+     */
+    public PlannedSheet(int firstPage, int pageCount, Supplier<PrintRecordSheet> factory) {
+        this(firstPage, pageCount, factory, () -> {});
+    }
+
+    /**
+     * @param firstPage The index of the first page of the sheet within the job
+     * @param pageCount The number of pages of the sheet
+     * @param factory   Builds the sheet; it is called once for each time the sheet is needed
+     * @param releaser  Undoes any changes the factory made to the units of the sheet
+     */
+    public PlannedSheet(int firstPage, int pageCount, Supplier<PrintRecordSheet> factory, Runnable releaser) {
+        this.firstPage = firstPage;
+        this.pageCount = pageCount;
+        this.factory = factory;
+        this.releaser = releaser;
+    }
+
+    /**
+     * Creates a plan for a sheet that has already been built.
+     */
+    public static PlannedSheet of(PrintRecordSheet sheet) {
+        return new PlannedSheet(sheet.getFirstPage(), sheet.getPageCount(), () -> sheet);
+    }
+
+    /**
+     * @return The index of the first page of the sheet within the job
+     */
+    public int getFirstPage() {
+        return firstPage;
+    }
+
+    /**
+     * @return The number of pages of the sheet
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Builds the record sheet. Once its pages are rendered, the caller should call {@link #release()} and drop its
+     * reference to the sheet.
+     *
+     * @return The record sheet
+     */
+    public PrintRecordSheet create() {
+        return factory.get();
+    }
+
+    /**
+     * Undoes any changes made to the units of the sheet while it was built, such as clearing the damage of units
+     * printed without damage. The sheet can't be rendered afterward.
+     */
+    public void release() {
+        releaser.run();
+    }
+}
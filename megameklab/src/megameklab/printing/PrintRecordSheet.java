@@ -39,62 +39,38 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Printable;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
-import javax.imageio.ImageIO;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import megamek.common.annotations.Nullable;
-import megamek.common.util.ImageUtil;
 import megamek.logging.MMLogger;
 import megameklab.printing.reference.ReferenceTable;
 import megameklab.util.CConfig;
 import org.apache.batik.anim.dom.SVGDOMImplementation;
 import org.apache.batik.anim.dom.SVGLocatableSupport;
 import org.apache.batik.anim.dom.SVGOMElement;
-import org.apache.batik.bridge.BridgeContext;
-import org.apache.batik.bridge.GVTBuilder;
-import org.apache.batik.bridge.UserAgentAdapter;
 import org.apache.batik.dom.util.SAXDocumentFactory;
 import org.apache.batik.gvt.GraphicsNode;
 import org.apache.batik.svggen.SVGGeneratorContext;
 import org.apache.batik.svggen.SVGGraphics2D;
-import org.apache.batik.transcoder.TranscoderInput;
-import org.apache.batik.transcoder.TranscoderOutput;
 import org.apache.batik.util.SVGConstants;
 import org.apache.batik.util.XMLResourceDescriptor;
-import org.apache.fop.configuration.Configuration;
-import org.apache.fop.configuration.DefaultConfigurationBuilder;
-import org.apache.fop.svg.PDFTranscoder;
-import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.svg.SVGDocument;
 import org.w3c.dom.svg.SVGRectElement;
 
 /**
@@ -121,7 +97,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
     /** Scale factor for record sheets with reference tables */
     public static final double TABLE_RATIO = 0.8;
 
-    private static final String TEMPLATE_DIRECTORY = "data/images/recordsheets/";
+    static final String TEMPLATE_DIRECTORY = "data/images/recordsheets/";
     private static final String UNIT_TEST_TEMPLATE_DIRECTORY = "testresources/" + TEMPLATE_DIRECTORY;
 
     public static final String svgNS = SVGDOMImplementation.SVG_NAMESPACE_URI;
@@ -132,11 +108,11 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
     // Used to update progress bar
     private Consumer<Integer> callback;
 
-    private Font normalFont = null;
-    private Font boldFont = null;
-    private Font italicFont = null;
-    private Font boldItalicFont = null;
-    private String typeface = null;
+    private RecordSheetRenderContext renderContext = null;
+    // Set when the template came from the cache with fonts and colors already substituted
+    private boolean templatePreprocessed = false;
+    // Index of the cached template, or of the document itself when it did not come from the cache
+    private SVGTemplateIndex templateIndex = null;
 
     /**
      * Creates an SVG object for the record sheet
@@ -178,10 +154,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
      * @return The name of the typeface to use when printing record sheets.
      */
     protected final String getTypeface() {
-        if (null == typeface) {
-            assignFonts();
-        }
-        return typeface;
+        return getRenderContext().getTypeface();
     }
 
     /**
@@ -192,10 +165,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
      * @return A font derived from the default
      */
     protected final Font getNormalFont(float size) {
-        if (null == normalFont) {
-            assignFonts();
-        }
-        return normalFont.deriveFont(size);
+        return getRenderContext().getFont(Font.PLAIN, size);
     }
 
     /**
@@ -206,10 +176,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
      * @return A font derived from the default bold
      */
     protected final Font getBoldFont(float size) {
-        if (null == boldFont) {
-            assignFonts();
-        }
-        return boldFont.deriveFont(size);
+        return getRenderContext().getFont(Font.BOLD, size);
     }
 
     /**
@@ -220,10 +187,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
      * @return A font derived from the default italic
      */
     protected final Font getItalicFont(float size) {
-        if (null == italicFont) {
-            assignFonts();
-        }
-        return italicFont.deriveFont(size);
+        return getRenderContext().getFont(Font.ITALIC, size);
     }
 
     /**
@@ -234,81 +198,84 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
      * @return A font derived from the default italic
      */
     protected final Font getBoldItalicFont(float size) {
-        if (null == boldItalicFont) {
-            assignFonts();
-        }
-        return boldItalicFont.deriveFont(size);
+        return getRenderContext().getFont(Font.ITALIC | Font.BOLD, size);
     }
 
-    private void assignFonts() {
-        typeface = CConfig.getParam(CConfig.RS_FONT, DEFAULT_TYPEFACE);
-        Font font = Font.decode(typeface);
-        normalFont = font.deriveFont(Font.PLAIN, 8);
-        boldFont = font.deriveFont(Font.BOLD, 8);
-        italicFont = font.deriveFont(Font.ITALIC, 8);
-        boldItalicFont = font.deriveFont(Font.ITALIC | Font.BOLD, 8);
+    private RecordSheetRenderContext getRenderContext() {
+        if (null == renderContext) {
+            renderContext = RecordSheetRenderContext.forTypeface(CConfig.getParam(CConfig.RS_FONT, DEFAULT_TYPEFACE));
+        }
+        return renderContext;
     }
 
     /**
      * Finds all text elements in the SVG document and replaces the font-family attribute.
      *
-     * @param doc The document to perform replacement in.
+     * @param doc      The document to perform replacement in.
+     * @param typeface The name of the typeface to substitute
      */
-    private void subFonts(SVGDocument doc) {
-        NodeList list = doc.getElementsByTagName("*");
-        if (list != null) {
-            for (int i = 0; i < list.getLength(); i++) {
-                Node node = list.item(i);
-                if (node instanceof Element elem) {
-                    // First we check if it has the font-family in the style attribute
-                    if (elem.hasAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE)) {
-                        String style = elem.getAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE);
-                        if (style.contains("font-family:")) {
-                            String newStyle = style.replaceAll(
-                                  "font-family\\s*:\\s*[^;]+",
-                                  "font-family:" + getTypeface()
-                            );
-                            newStyle = newStyle.replaceAll(";;+", ";").replaceAll("^;+|;+$", "").trim();
-                            if (newStyle.isEmpty()) {
-                                elem.removeAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE);
-                            } else {
-                                elem.setAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE, newStyle);
-                            }
-                            if (elem.hasAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)) {
-                                elem.removeAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE);
-                            }
-                            continue;
-                        }
-                    }
-                    if (elem.hasAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)) {
-                        elem.setAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE, getTypeface());
-                    }
+    static void subFonts(Document doc, String typeface) {
+        subFonts(SVGTemplateIndex.build(doc), typeface);
+    }
+
+    /**
+     * Replaces the font-family of all the elements in the index that set one.
+     *
+     * @param index    The index of the document to perform replacement in.
+     * @param typeface The name of the typeface to substitute
+     */
+    static void subFonts(SVGTemplateIndex index, String typeface) {
+        for (Element elem : index.getFontElements()) {
+            // First we check if it has the font-family in the style attribute
+            String style = elem.getAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE);
+            if (style.contains("font-family:")) {
+                String newStyle = style.replaceAll(
+                      "font-family\\s*:\\s*[^;]+",
+                      "font-family:" + typeface
+                );
+                newStyle = newStyle.replaceAll(";;+", ";").replaceAll("^;+|;+$", "").trim();
+                if (newStyle.isEmpty()) {
+                    elem.removeAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE);
+                } else {
+                    elem.setAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE, newStyle);
+                }
+                if (elem.hasAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)) {
+                    elem.removeAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE);
                 }
+            } else if (elem.hasAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)) {
+                elem.setAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE, typeface);
             }
         }
     }
 
-    private void subColorElements() {
-        Element element = getSVGDocument().getElementById(RS_TEMPLATE);
+    /**
+     * Selects either the color or the black and white version of each element listed in the template's color
+     * elements field, removing the other.
+     *
+     * @param doc       The document to perform replacement in.
+     * @param colorMode The color mode selected in the options
+     */
+    static void subColorElements(Document doc, RecordSheetOptions.ColorMode colorMode) {
+        Element element = doc.getElementById(RS_TEMPLATE);
         if (element != null) {
             String style = element.getAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE);
             for (String field : style.split(";")) {
                 if (field.startsWith(MML_COLOR_ELEMENTS + ":")) {
                     String[] ids = field.substring(field.indexOf(":") + 1).split(",");
                     for (String id : ids) {
-                        if (options.useColor() == RecordSheetOptions.ColorMode.LOGO_ONLY) {
+                        if (colorMode == RecordSheetOptions.ColorMode.LOGO_ONLY) {
                             if (id.contains("btLogo")) {
-                                hideElement(id + "Color", false);
-                                removeElement(id + "BW");
+                                showElement(doc, id + "Color");
+                                removeElement(doc, id + "BW");
                                 continue;
                             }
                         }
-                        if (options.useColor() == RecordSheetOptions.ColorMode.ALL) {
-                            removeElement(id + "BW");
-                            hideElement(id + "Color", false);
+                        if (colorMode == RecordSheetOptions.ColorMode.ALL) {
+                            removeElement(doc, id + "BW");
+                            showElement(doc, id + "Color");
                         } else {
-                            removeElement(id + "Color");
-                            hideElement(id + "BW", false);
+                            removeElement(doc, id + "Color");
+                            showElement(doc, id + "BW");
                         }
                     }
                 }
@@ -316,47 +283,41 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
         }
     }
 
+    private static void showElement(Document doc, String id) {
+        Element element = doc.getElementById(id);
+        if (null != element) {
+            element.setAttributeNS(null, SVGConstants.CSS_VISIBILITY_PROPERTY, SVGConstants.CSS_VISIBLE_VALUE);
+        }
+    }
+
+    private static void removeElement(Document doc, String id) {
+        Element element = doc.getElementById(id);
+        if (null != element) {
+            element.getParentNode().removeChild(element);
+        }
+    }
+
     /**
-     * Finds elements by class name (using XPath).
+     * Finds elements by class name. The index of the template is used when the document came from the template
+     * cache. Otherwise the document is indexed on the first lookup.
      *
      * @param className The class name to search for.
      *
-     * @return A list of matching elements.
+     * @return The ids of the matching elements.
      */
-    private ArrayList<Element> getElementsByClass(String className) {
-        ArrayList<Element> ret = new ArrayList<>();
+    private List<String> getIdsByClass(String className) {
         if (className == null || className.isEmpty() || getSVGDocument() == null) {
-            return ret;
+            return Collections.emptyList();
         }
-
-        try {
-            XPathFactory xPathfactory = XPathFactory.newInstance();
-            XPath xpath = xPathfactory.newXPath();
-            String expressionStr = "//*[contains(concat(' ', normalize-space(@class), ' '), ' " + className + " ')]";
-            XPathExpression expr = xpath.compile(expressionStr);
-
-            NodeList nodeList = (NodeList) expr.evaluate(getSVGDocument(), XPathConstants.NODESET);
-            for (int i = 0; i < nodeList.getLength(); i++) {
-                if (nodeList.item(i) instanceof Element element) {
-                    ret.add(element);
-                }
-            }
-
-        } catch (XPathExpressionException e) {
-            logger.error("XPath error finding elements by class '{}': {}", className, e.getMessage(), e);
-        } catch (Exception e) {
-            logger.error("Unexpected error finding elements by class '{}' using XPath: {}",
-                  className,
-                  e.getMessage(),
-                  e);
+        if (templateIndex == null) {
+            templateIndex = SVGTemplateIndex.build(getSVGDocument());
         }
-
-        return ret;
+        return templateIndex.getIdsByClass(className);
     }
 
     private void shadeTableRows() {
-        for (Element e : getElementsByClass(ROW_SHADING)) {
-            hideElement(e.getAttributes().getNamedItem("id").getNodeValue(), !options.useRowShading());
+        for (String id : getIdsByClass(ROW_SHADING)) {
+            hideElement(id, !options.useRowShading());
         }
     }
 
@@ -378,45 +339,16 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
         }
     }
 
-    /**
-     * Fixes the lack of unit in font-size attributes in the SVG document.
-     */
-    private void fixFontSize() {
-        if (getSVGDocument() == null) {
-            return;
-        }
-        NodeList allElements = getSVGDocument().getElementsByTagName("*");
-        for (int i = 0; i < allElements.getLength(); i++) {
-            Element el = (Element) allElements.item(i);
-
-            // Fix font-size in style attribute
-            String style = el.getAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE);
-            if (!style.isEmpty()) {
-                String fixed = style.replaceAll(
-                      "font-size:\\s*(\\d+(?:\\.\\d+)?)(?!px)(;?)", "font-size:$1px$2"
-                );
-                if (!fixed.equals(style)) {
-                    el.setAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE, fixed);
-                }
-            }
-
-            // Fix font-size attribute directly
-            String fontSize = el.getAttributeNS(null, SVGConstants.SVG_FONT_SIZE_ATTRIBUTE);
-            if (!fontSize.isEmpty() && !fontSize.endsWith("px")) {
-                // Only add px if it's a number (not e.g. 'small')
-                if (fontSize.matches("\\d+(\\.\\d+)?")) {
-                    el.setAttributeNS(null, SVGConstants.SVG_FONT_SIZE_ATTRIBUTE, fontSize + "px");
-                }
-            }
-        }
-    }
-
     private void makeFrameless() {
         if (!options.isFrameless()) {
             return;
         }
-        for (Element e : getElementsByClass(FRAME)) {
-            hideElement(e.getAttributes().getNamedItem("id").getNodeValue());
+        for (String id : getIdsByClass(FRAME)) {
+            Element e = getSVGDocument().getElementById(id);
+            if (e == null) {
+                continue;
+            }
+            hideElement(e);
 
             // I have no idea with this loop is necessary
             // Hiding a parent should hide its children
@@ -435,18 +367,35 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
     }
 
     /**
-     * Creates a {@link Document} from a svg image file
+     * Creates a {@link Document} from a svg image file. The template is taken from the
+     * {@link RecordSheetTemplateCache}, with fonts and color elements already substituted.
      *
      * @param filename The name of the SVG file
      *
      * @return The document object
      */
     private @Nullable Document loadSVG(String directoryPath, String filename) {
-        final Path filePath = Paths.get(directoryPath, filename);
+        RecordSheetTemplateCache.Template template = RecordSheetTemplateCache.getTemplate(directoryPath, filename,
+              getTypeface(), options.useColor());
+        if (template == null) {
+            return null;
+        }
+        templatePreprocessed = true;
+        templateIndex = template.index();
+        return template.document();
+    }
+
+    /**
+     * Parses an svg image file.
+     *
+     * @param filePath The path to the SVG file
+     *
+     * @return The document object, or {@code null} if the file could not be parsed
+     */
+    static @Nullable Document parseTemplate(Path filePath) {
         if (!Files.exists(filePath)) {
-            logger
-                  .error("SVG file does not exist at path: {}/{}", directoryPath, filename);
-            System.out.println("SVG file does not exist at path: " + directoryPath + "/" + filename);
+            logger.error("SVG file does not exist at path: {}", filePath);
+            System.out.println("SVG file does not exist at path: " + filePath);
             return null;
         }
 
@@ -464,7 +413,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
         }
 
         if (document == null) {
-            logger.error("Failed to open SVG file! Path: {}/{}", directoryPath, filename);
+            logger.error("Failed to open SVG file! Path: {}", filePath);
             return null;
         }
 
@@ -482,10 +431,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
      */
     static @Nullable String parseStyle(Element element, String property) {
         final String style = element.getAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE);
-        return Arrays.stream(style.split(";"))
-              .filter(field -> field.startsWith(property + ':'))
-              .findFirst()
-              .map(field -> field.substring(field.indexOf(':') + 1)).orElse(null);
+        return RecordSheetRenderContext.parseStyle(style).get(property);
     }
 
     /**
@@ -525,12 +471,16 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
      */
     public boolean createDocument(int pageIndex, PageFormat pageFormat, boolean addMargin,
           boolean useUnitTestTemplateDirectory) {
+        templatePreprocessed = false;
+        templateIndex = null;
         setSVGDocument(loadTemplate(pageIndex, pageFormat, useUnitTestTemplateDirectory));
         if (getSVGDocument() == null) {
             return false;
         }
-        subFonts((SVGDocument) getSVGDocument());
-        subColorElements();
+        if (!templatePreprocessed) {
+            subFonts(getSVGDocument(), getTypeface());
+            subColorElements(getSVGDocument(), options.useColor());
+        }
         SVGGeneratorContext context = SVGGeneratorContext.createDefault(getSVGDocument());
         svgGenerator = new SVGGraphics2D(context, false);
         double ratio = Math.min(pageFormat.getImageableWidth() / (options.getPaperSize().pxWidth - 36),
@@ -617,74 +567,26 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
         return PAGE_EXISTS;
     }
 
-    public @Nullable InputStream exportPDF(int pageNumber, PageFormat pageFormat) throws Exception {
+    /**
+     * Renders a page of this record sheet as the next page of a shared PDF document.
+     *
+     * @param pageNumber The index of the page within this record sheet
+     * @param pageFormat The page format selected by the user
+     * @param writer     The PDF document to add the page to
+     *
+     * @return true if the page was written, false if the page could not be created
+     *
+     * @throws IOException if the page could not be written
+     */
+    public boolean exportPDF(int pageNumber, PageFormat pageFormat, RecordSheetPdfWriter writer) throws IOException {
         if (!createDocument(pageNumber + firstPage, pageFormat, true)) {
-            return null;
-        }
-        PDFTranscoder transcoder = new PDFTranscoder();
-        transcoder.addTranscodingHint(PDFTranscoder.KEY_AUTO_FONTS, true);
-
-        String configXml = "<fop version=\"1.0\"><fonts><auto-detect/></fonts></fop>";
-        try (InputStream configStream = PrintRecordSheet.class.getResourceAsStream("fop-config.xml")) {
-            if (configStream != null) {
-                configXml = new String(configStream.readAllBytes(), StandardCharsets.UTF_8);
-            }
-        } catch (IOException ignored) {
-            logger.warn("Failed to load fop-config.xml");
-        }
-
-        // Define font directories based on OS
-        String osName = System.getProperty("os.name").toLowerCase();
-        StringBuilder systemFontDirectories = new StringBuilder();
-        List<String> directories = new ArrayList<>();
-        if (osName.contains("windows")) {
-            String winDir = System.getenv("WINDIR");
-            if (winDir == null) {
-                winDir = System.getenv("SystemRoot");
-            }
-            if (winDir == null) {
-                winDir = "C:\\Windows";
-            }
-            directories.add(winDir + "\\Fonts");
-            directories.add(System.getenv("LOCALAPPDATA") + "\\Microsoft\\Windows\\Fonts");
-        } else if (osName.contains("mac")) {
-            directories.add("/System/Library/Fonts");
-            directories.add("/Library/Fonts");
-            directories.add("~/Library/Fonts");
-        } else {
-            directories.add("/usr/share/fonts");
-            directories.add("/usr/local/share/fonts");
-            directories.add("~/.local/share/fonts");
-        }
-        // Add only directories that exist
-        for (String path : directories) {
-            File fontDir = new File(path);
-            if (fontDir.exists() && fontDir.isDirectory()) {
-                systemFontDirectories.append("<directory recursive=\"true\">").append(path).append("</directory>");
-            }
-        }
-        int insertPoint = configXml.indexOf("</fonts>");
-        if (insertPoint > 0) {
-            configXml = configXml.substring(0, insertPoint) + systemFontDirectories + configXml.substring(insertPoint);
-        } else {
-            logger.warn("Failed to inject system font directories into fop-config.xml");
+            return false;
         }
-        DefaultConfigurationBuilder cfgBuilder = new DefaultConfigurationBuilder();
-        Configuration config = cfgBuilder.build(
-              new ByteArrayInputStream(configXml.getBytes(StandardCharsets.UTF_8)));
-        transcoder.configure(config);
-
-        TranscoderInput input = new TranscoderInput(getSVGDocument());
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        TranscoderOutput transOutput = new TranscoderOutput(output);
-        // The default for the transcoder is 96 dpi, but the source document is 72 dpi.
-        transcoder.addTranscodingHint(PDFTranscoder.KEY_PIXEL_UNIT_TO_MILLIMETER, 0.352778f);
-        transcoder.transcode(input, transOutput);
-
+        writer.writePage(getSVGDocument());
         if (callback != null) {
             callback.accept(pageNumber + firstPage);
         }
-        return new ByteArrayInputStream(output.toByteArray());
+        return true;
     }
 
     public GraphicsNode build() {
@@ -692,23 +594,7 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
             logger.error("Attempted to build graphics node with null SVG document");
             return null;
         }
-        GVTBuilder builder = new GVTBuilder();
-        BridgeContext ctx = new BridgeContext(new UserAgentAdapter() {
-            @Override
-            // If an image can't be rendered we'll log it and return an empty document in
-            // its place rather than throwing an exception.
-            public SVGDocument getBrokenLinkDocument(Element e, String url, String message) {
-                logger.warn("Cannot render image: {}", message);
-                DOMImplementation impl = SVGDOMImplementation.getDOMImplementation();
-                SVGDocument doc = (SVGDocument) impl.createDocument(svgNS, SVGConstants.SVG_SVG_TAG, null);
-                Element text = doc.createElementNS(svgNS, SVGConstants.SVG_TEXT_TAG);
-                text.setTextContent("?");
-                doc.getDocumentElement().appendChild(text);
-                return doc;
-            }
-        });
-        ctx.setDynamic(true);
-        return builder.build(ctx, getSVGDocument());
+        return getRenderContext().build(getSVGDocument());
     }
 
     /**
@@ -1429,9 +1315,12 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
             return;
         }
         final Path filePath = Paths.get(imageFile.getPath());
-        try (InputStream is = Files.newInputStream(filePath)) {
-            embedImage(ImageIO.read(is), canvas, bbox, center, null);
-        } catch (FileNotFoundException e) {
+        try {
+            EmbeddedImageCache.EncodedImage encoded = EmbeddedImageCache.get(filePath, bbox);
+            if (encoded != null) {
+                embedImage(encoded, canvas, bbox, center, null);
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
             logger.error("Fluff image file not found: {}", filePath);
         } catch (IOException e) {
             logger.error("Error reading fluff image file: {}", filePath);
@@ -1452,39 +1341,38 @@ public abstract class PrintRecordSheet implements Printable, IdConstants {
             return;
         }
 
-        String mimeType = "image/png";
-        String format = "png";
-        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream()) {
-            BufferedImage bufferedImage = ImageUtil.convertToBufferedImage(image);
-            ImageIO.write(bufferedImage, format, bytes);
-
-            double width = bufferedImage.getWidth();
-            double height = bufferedImage.getHeight();
-            double scale = Math.min(bbox.getWidth() / width, bbox.getHeight() / height);
-            width *= scale;
-            height *= scale;
-            double x = bbox.getX();
-            double y = bbox.getY();
-            if (center) {
-                x += (bbox.getWidth() - width) / 2;
-                y += (bbox.getHeight() - height) / 2;
-            }
-            Element img = getSVGDocument().createElementNS(svgNS, SVGConstants.SVG_IMAGE_TAG);
-            if (className != null && !className.isEmpty()) {
-                img.setAttributeNS(null, SVGConstants.SVG_CLASS_ATTRIBUTE, className);
-            }
-            img.setAttributeNS(null, SVGConstants.SVG_X_ATTRIBUTE, Double.toString(x));
-            img.setAttributeNS(null, SVGConstants.SVG_Y_ATTRIBUTE, Double.toString(y));
-            img.setAttributeNS(null, SVGConstants.SVG_WIDTH_ATTRIBUTE, Double.toString(width));
-            img.setAttributeNS(null, SVGConstants.SVG_HEIGHT_ATTRIBUTE, Double.toString(height));
-            img.setAttributeNS(SVGConstants.XLINK_NAMESPACE_URI, SVGConstants.XLINK_HREF_QNAME,
-                  "data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(bytes.toByteArray()));
-            canvas.appendChild(img);
+        try {
+            embedImage(EmbeddedImageCache.get(image, bbox), canvas, bbox, center, className);
         } catch (IOException ex) {
             logger.error("Error embedding fluff image", ex);
         }
     }
 
+    private void embedImage(EmbeddedImageCache.EncodedImage encoded, Element canvas, Rectangle2D bbox,
+          boolean center, @Nullable String className) {
+        double width = encoded.sourceWidth();
+        double height = encoded.sourceHeight();
+        double scale = Math.min(bbox.getWidth() / width, bbox.getHeight() / height);
+        width *= scale;
+        height *= scale;
+        double x = bbox.getX();
+        double y = bbox.getY();
+        if (center) {
+            x += (bbox.getWidth() - width) / 2;
+            y += (bbox.getHeight() - height) / 2;
+        }
+        Element img = getSVGDocument().createElementNS(svgNS, SVGConstants.SVG_IMAGE_TAG);
+        if (className != null && !className.isEmpty()) {
+            img.setAttributeNS(null, SVGConstants.SVG_CLASS_ATTRIBUTE, className);
+        }
+        img.setAttributeNS(null, SVGConstants.SVG_X_ATTRIBUTE, Double.toString(x));
+        img.setAttributeNS(null, SVGConstants.SVG_Y_ATTRIBUTE, Double.toString(y));
+        img.setAttributeNS(null, SVGConstants.SVG_WIDTH_ATTRIBUTE, Double.toString(width));
+        img.setAttributeNS(null, SVGConstants.SVG_HEIGHT_ATTRIBUTE, Double.toString(height));
+        img.setAttributeNS(SVGConstants.XLINK_NAMESPACE_URI, SVGConstants.XLINK_HREF_QNAME, encoded.dataUri());
+        canvas.appendChild(img);
+    }
+
     /**
      * Used to determine whether to scale the record sheet to make room for charts. This depends both on whether the
      * option is selected and on whether the sheet supports reference charts.
@@ -427,4 +427,20 @@ public class RecordSheetOptions {
     public void setFancyPips(boolean fancyPips) {
         this.fancyPips = fancyPips;
     }
+
+    /**
+     * @return A string that is the same for two sets of options exactly when they produce the same record sheets. Used
+     *       to detect when previously generated sheets are out of date.
+     */
+    public String fingerprint() {
+        return String.join(",", paperSize.name(), color.name(), heatScaleMarker.name(),
+              String.valueOf(quirks), String.valueOf(c3bv), String.valueOf(pilotData), String.valueOf(eraIcon),
+              String.valueOf(role), String.valueOf(heatProfile), String.valueOf(tacOpsHeat),
+              String.valueOf(eraBasedProgression), String.valueOf(referenceCharts),
+              String.valueOf(condensedReferenceCharts), String.valueOf(rowShading),
+              String.valueOf(alternateArmorGrouping), String.valueOf(frameless), String.valueOf(boldType),
+              String.valueOf(damage), damageColor, weaponsOrder.name(), String.valueOf(mergeIdenticalEquipment),
+              includeHitMod.name(), intrinsicPhysicalAttacks.name(), explicitZeroModifier.name(),
+              String.valueOf(extraPhysicals), String.valueOf(fancyPips));
+    }
 }
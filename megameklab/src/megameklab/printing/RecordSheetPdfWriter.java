@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.awt.print.PageFormat;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.bridge.FontFamilyResolver;
+import org.apache.batik.bridge.GVTBuilder;
+import org.apache.batik.bridge.UserAgentAdapter;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.fop.fonts.FontInfo;
+import org.apache.fop.svg.PDFBridgeContext;
+import org.apache.fop.svg.PDFDocumentGraphics2D;
+import org.apache.fop.svg.PDFDocumentGraphics2DConfigurator;
+import org.apache.fop.svg.font.FOPFontFamilyResolverImpl;
+import org.apache.xmlgraphics.image.loader.ImageManager;
+import org.apache.xmlgraphics.image.loader.ImageSessionContext;
+import org.apache.xmlgraphics.image.loader.impl.DefaultImageContext;
+import org.apache.xmlgraphics.image.loader.impl.DefaultImageSessionContext;
+import org.apache.xmlgraphics.java2d.GraphicContext;
+import org.apache.xmlgraphics.java2d.RenderingHintsKeyExt;
+import org.w3c.dom.Document;
+
+/**
+ * Writes record sheet pages into a single PDF document. Unlike transcoding each page to its own PDF and merging the
+ * results, all pages share one set of font resources, which are subset and embedded once when the document is
+ * finished. Each page is written to the output stream as soon as it is complete, so memory use does not grow with
+ * the number of pages.
+ *
+ * <p>This class is not thread-safe. Pages must be written in order from a single thread.</p>
+ */
+public class RecordSheetPdfWriter implements AutoCloseable {
+
+    // The record sheet documents are 72 dpi
+    private static final float PIXEL_UNIT_TO_MILLIMETER = 0.352778f;
+
+    private final OutputStream output;
+    private final PDFDocumentGraphics2D graphics;
+    private final FontInfo fontInfo;
+    private final ImageManager imageManager;
+    private final ImageSessionContext imageSessionContext;
+    private final UserAgentAdapter userAgent;
+    private int pageCount = 0;
+    private boolean finished = false;
+
+    /**
+     * Starts a new PDF document.
+     *
+     * @param output     The stream to write the document to. It is not closed by this writer.
+     * @param pageFormat The page format used for all pages in the document
+     *
+     * @throws Exception if the font configuration could not be loaded or the document header could not be written
+     */
+    public RecordSheetPdfWriter(OutputStream output, PageFormat pageFormat) throws Exception {
+        this.output = (output instanceof BufferedOutputStream) ? output : new BufferedOutputStream(output);
+        graphics = new PDFDocumentGraphics2D(false);
+        fontInfo = PDFDocumentGraphics2DConfigurator.createFontInfo(PdfFontConfiguration.getConfiguration(), false);
+        graphics.setFontInfo(fontInfo);
+        imageManager = new ImageManager(new DefaultImageContext());
+        imageSessionContext = new DefaultImageSessionContext(imageManager.getImageContext(), null);
+        final FontFamilyResolver fontFamilyResolver = new FOPFontFamilyResolverImpl(fontInfo);
+        userAgent = new UserAgentAdapter() {
+            @Override
+            public float getPixelUnitToMillimeter() {
+                return PIXEL_UNIT_TO_MILLIMETER;
+            }
+
+            @Override
+            public FontFamilyResolver getFontFamilyResolver() {
+                return fontFamilyResolver;
+            }
+        };
+        graphics.setupDocument(this.output, (int) Math.round(pageFormat.getWidth()),
+              (int) Math.round(pageFormat.getHeight()));
+    }
+
+    /**
+     * Renders an SVG document as the next page of the PDF and writes it to the output stream.
+     *
+     * @param document A record sheet page, sized to the page format of this writer
+     *
+     * @throws IOException if the page could not be written
+     */
+    public void writePage(Document document) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The PDF document has already been finished");
+        }
+        BridgeContext ctx = new PDFBridgeContext(userAgent, fontInfo, imageManager, imageSessionContext);
+        try {
+            GraphicsNode node = new GVTBuilder().build(ctx, document);
+            graphics.setGraphicContext(new GraphicContext());
+            graphics.preparePainting();
+            graphics.setRenderingHint(RenderingHintsKeyExt.KEY_TRANSCODING,
+                  RenderingHintsKeyExt.VALUE_TRANSCODING_VECTOR);
+            node.paint(graphics);
+            graphics.nextPage();
+            graphics.getPDFDocument().output(output);
+            pageCount++;
+        } finally {
+            ctx.dispose();
+        }
+    }
+
+    /**
+     * @return The number of pages written so far
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Writes the shared font resources and the document trailer. No more pages can be added afterward.
+     *
+     * @throws IOException if the document could not be written
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            graphics.finish();
+            output.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.awt.Font;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import megamek.logging.MMLogger;
+import org.apache.batik.anim.dom.SVGDOMImplementation;
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.bridge.DocumentLoader;
+import org.apache.batik.bridge.GVTBuilder;
+import org.apache.batik.bridge.UserAgent;
+import org.apache.batik.bridge.UserAgentAdapter;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.util.SVGConstants;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.svg.SVGDocument;
+
+/**
+ * Resources for laying out and building record sheets that are shared by all sheets using the same typeface, so
+ * that they are not resolved again for each sheet and page. This includes the fonts used to measure text in every
+ * style and size, and the parsed declarations of the inline styles that the layout code reads. Nothing here depends
+ * on the paper size, so contexts are only keyed by typeface.
+ *
+ * <p>Sheets are built on several threads at once. The Batik user agent and document loader are not documented as
+ * thread-safe, so each thread reuses its own for all of its builds. A {@link BridgeContext} belongs to the document
+ * it builds, and it keeps the graphics tree of a dynamic document up to date, so each build still gets its own.
+ * Decoded raster images are cached by Batik's image registry, and embedded images by
+ * {@link EmbeddedImageCache}.</p>
+ */
+final class RecordSheetRenderContext {
+    private static final MMLogger logger = MMLogger.create(RecordSheetRenderContext.class);
+
+    private static final Map<String, RecordSheetRenderContext> contexts = new ConcurrentHashMap<>();
+
+    /** Generated styles are only cached up to this many distinct values */
+    private static final int MAX_PARSED_STYLES = 4096;
+    private static final Map<String, Map<String, String>> parsedStyles = new ConcurrentHashMap<>();
+
+    private record Loader(UserAgent userAgent, DocumentLoader documentLoader) {
+        Loader(UserAgent userAgent) {
+            this(userAgent, new DocumentLoader(userAgent));
+        }
+    }
+
+    private static final ThreadLocal<Loader> loaders =
+          ThreadLocal.withInitial(() -> new Loader(new RecordSheetUserAgent()));
+
+    private static final AtomicLong builds = new AtomicLong();
+    private static final AtomicLong buildNanos = new AtomicLong();
+
+    private record FontKey(int style, float size) {}
+
+    private final String typeface;
+    private final Font baseFont;
+    private final Map<FontKey, Font> fonts = new ConcurrentHashMap<>();
+
+    private RecordSheetRenderContext(String typeface) {
+        this.typeface = typeface;
+        baseFont = Font.decode(typeface);
+    }
+
+    /**
+     * @param typeface The name of the typeface used by the record sheets
+     *
+     * @return The shared context for the typeface
+     */
+    static RecordSheetRenderContext forTypeface(String typeface) {
+        return contexts.computeIfAbsent(typeface, RecordSheetRenderContext::new);
+    }
+
+    String getTypeface() {
+        return typeface;
+    }
+
+    /**
+     * @param style The font style, a combination of {@link Font#BOLD} and {@link Font#ITALIC}, or {@link Font#PLAIN}
+     * @param size  The font size
+     *
+     * @return The font of the typeface in the given style and size
+     */
+    Font getFont(int style, float size) {
+        return fonts.computeIfAbsent(new FontKey(style, size), key -> baseFont.deriveFont(key.style(), key.size()));
+    }
+
+    /**
+     * Parses the declarations of a <code>style</code> attribute. The result is shared by all elements with the same
+     * style and must not be modified.
+     *
+     * @param style The value of the style attribute
+     *
+     * @return The values of the properties declared by the style, by property name
+     */
+    static Map<String, String> parseStyle(String style) {
+        Map<String, String> declarations = parsedStyles.get(style);
+        if (declarations == null) {
+            declarations = new HashMap<>();
+            for (String field : style.split(";")) {
+                int colon = field.indexOf(':');
+                if (colon > 0) {
+                    declarations.putIfAbsent(field.substring(0, colon), field.substring(colon + 1));
+                }
+            }
+            declarations = Map.copyOf(declarations);
+            if (parsedStyles.size() < MAX_PARSED_STYLES) {
+                parsedStyles.putIfAbsent(style, declarations);
+            }
+        }
+        return declarations;
+    }
+
+    /**
+     * Builds the graphics node for a document in dynamic mode, so that changes to the document update the node.
+     *
+     * @param document The SVG document
+     *
+     * @return The root graphics node
+     */
+    GraphicsNode build(Document document) {
+        long start = System.nanoTime();
+        Loader loader = loaders.get();
+        BridgeContext ctx = new BridgeContext(loader.userAgent(), loader.documentLoader());
+        ctx.setDynamic(true);
+        GraphicsNode node = new GVTBuilder().build(ctx, document);
+        long nanos = System.nanoTime() - start;
+        long count = builds.incrementAndGet();
+        long total = buildNanos.addAndGet(nanos);
+        logger.debug("Built record sheet graphics in {} ms (average {} ms over {} builds)",
+              TimeUnit.NANOSECONDS.toMillis(nanos), TimeUnit.NANOSECONDS.toMillis(total / count), count);
+        return node;
+    }
+
+    private static class RecordSheetUserAgent extends UserAgentAdapter {
+        @Override
+        // If an image can't be rendered we'll log it and return an empty document in
+        // its place rather than throwing an exception.
+        public SVGDocument getBrokenLinkDocument(Element e, String url, String message) {
+            logger.warn("Cannot render image: {}", message);
+            DOMImplementation impl = SVGDOMImplementation.getDOMImplementation();
+            SVGDocument doc = (SVGDocument) impl.createDocument(PrintRecordSheet.svgNS, SVGConstants.SVG_SVG_TAG,
+                  null);
+            Element text = doc.createElementNS(PrintRecordSheet.svgNS, SVGConstants.SVG_TEXT_TAG);
+            text.setTextContent("?");
+            doc.getDocumentElement().appendChild(text);
+            return doc;
+        }
+    }
+}
@@ -36,7 +36,13 @@ import java.awt.print.PageFormat;
 import java.awt.print.Pageable;
 import java.awt.print.Printable;
 import java.awt.print.PrinterJob;
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -45,6 +51,11 @@ import java.util.Map.Entry;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import javax.print.attribute.PrintRequestAttributeSet;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -54,8 +65,9 @@ import javax.swing.JProgressBar;
 import javax.swing.SwingWorker;
 
 import megamek.logging.MMLogger;
+import megameklab.util.CConfig;
 import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.multipdf.PDFMergerUtility;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
@@ -72,13 +84,12 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
     private static final MMLogger logger = MMLogger.create(RecordSheetTask.class);
 
     private final ProgressPopup popup;
-    protected final List<PrintRecordSheet> sheets;
+    protected final List<PlannedSheet> sheets;
 
-    private RecordSheetTask(List<PrintRecordSheet> sheets) {
+    private RecordSheetTask(List<PlannedSheet> sheets) {
         this.sheets = sheets;
         int pages = 0;
-        for (PrintRecordSheet sheet : sheets) {
-            sheet.setCallback(this::publish);
+        for (PlannedSheet sheet : sheets) {
             pages += sheet.getPageCount();
         }
         popup = new ProgressPopup(pages, popupLabel());
@@ -87,15 +98,15 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
     /**
      * Creates a task for rendering a list of record sheets as a print job
      *
-     * @param sheets                   The sheets to render The contents are removed as each sheet is processed to avoid
-     *                                 running out of memory on large jobs.
+     * @param sheets                   The sheets to render. Each sheet is built just before its pages are printed and
+     *                                 released afterward, so memory use does not grow with the size of the job.
      * @param job                      The print job
      * @param printRequestAttributeSet A set of attributes to use for printing
      * @param pageFormat               The page format
      *
      * @return A {@link SwingWorker} task
      */
-    public static RecordSheetTask createPrintTask(List<PrintRecordSheet> sheets, PrinterJob job,
+    public static RecordSheetTask createPrintTask(List<PlannedSheet> sheets, PrinterJob job,
           PrintRequestAttributeSet printRequestAttributeSet, PageFormat pageFormat) {
         return new PrintTask(sheets, job, printRequestAttributeSet, pageFormat);
     }
@@ -103,16 +114,32 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
     /**
      * Creates a task for rendering a list of record sheets as a print job.
      *
-     * @param sheets     The sheets to render. The contents are removed as each sheet is processed to avoid running out
-     *                   of memory on large jobs.
+     * @param sheets     The sheets to render. Each sheet is built just before its pages are written and released
+     *                   afterward, so memory use does not grow with the size of the job.
      * @param pageFormat The page format
      * @param pathName   The path to the PDF output file
      *
      * @return A {@link SwingWorker} task
      */
-    public static RecordSheetTask createExportTask(List<PrintRecordSheet> sheets, PageFormat pageFormat,
+    public static RecordSheetTask createExportTask(List<PlannedSheet> sheets, PageFormat pageFormat,
           String pathName) {
-        return new ExportTask(sheets, pageFormat, pathName);
+        return createExportTask(sheets, pageFormat, pathName, CConfig.exportThreads());
+    }
+
+    /**
+     * Creates a task for rendering a list of record sheets to a PDF file with a given number of threads.
+     *
+     * @param sheets     The sheets to render. Sheets handled by different threads are built at the same time, so they
+     *                   must not build from the same unit.
+     * @param pageFormat The page format
+     * @param pathName   The path to the PDF output file
+     * @param threads    The most threads to build and render sheets with
+     *
+     * @return A {@link SwingWorker} task
+     */
+    public static RecordSheetTask createExportTask(List<PlannedSheet> sheets, PageFormat pageFormat,
+          String pathName, int threads) {
+        return new ExportTask(sheets, pageFormat, pathName, threads);
     }
 
     /**
@@ -127,6 +154,24 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
 
     protected abstract String popupLabel();
 
+    /**
+     * Builds a planned sheet and has it report its rendered pages to this task.
+     */
+    protected PrintRecordSheet createSheet(PlannedSheet plannedSheet) {
+        PrintRecordSheet sheet = plannedSheet.create();
+        sheet.setCallback(this::pageRendered);
+        return sheet;
+    }
+
+    /**
+     * Called when a page has been rendered.
+     *
+     * @param page The index of the page within the job
+     */
+    protected void pageRendered(int page) {
+        publish(page);
+    }
+
     @Override
     protected void process(List<Integer> chunks) {
         if (!chunks.isEmpty()) {
@@ -169,15 +214,16 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
     private static class PrintTask extends RecordSheetTask {
         private final PrinterJob job;
         private final PrintRequestAttributeSet printRequestAttributeSet;
+        private final RSBook book;
 
-        public PrintTask(List<PrintRecordSheet> sheets, PrinterJob job,
+        public PrintTask(List<PlannedSheet> sheets, PrinterJob job,
               PrintRequestAttributeSet printRequestAttributeSet,
               PageFormat pageFormat) {
             super(sheets);
             this.job = job;
             this.printRequestAttributeSet = printRequestAttributeSet;
 
-            RSBook book = new RSBook(sheets, pageFormat);
+            book = new RSBook(sheets, pageFormat, this::createSheet);
             sheets.clear();
             job.setPageable(book);
         }
@@ -190,19 +236,42 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
 
         @Override
         public Void doInBackground() throws Exception {
-            job.print(printRequestAttributeSet);
+            try {
+                job.print(printRequestAttributeSet);
+            } finally {
+                book.release();
+            }
             return null;
         }
     }
 
+    /**
+     * Exports the sheets to a PDF file. The sheets are split into contiguous segments that are built and rendered by
+     * their own threads into their own PDF files, which are joined once all are written.
+     *
+     * <p>Sheets in different segments are built at the same time. Building a sheet reads its units, and building the
+     * sheet of a Mek also changes its mounts, so no unit may be on sheets in two segments. Damaged units are copied
+     * before damage is cleared for their sheet, see
+     * {@link megameklab.util.UnitPrintManager#planSheets(List, boolean, RecordSheetOptions, boolean)}. The number of
+     * threads is limited by the {@link CConfig#RS_EXPORT_THREADS} setting.</p>
+     */
     private static class ExportTask extends RecordSheetTask {
         private final PageFormat pageFormat;
         private final String fileName;
+        private final int threads;
+        // Pages may complete out of order when rendered in parallel, so progress reports the number completed
+        private final AtomicInteger completedPages = new AtomicInteger();
 
-        public ExportTask(List<PrintRecordSheet> sheets, PageFormat pageFormat, String fileName) {
+        public ExportTask(List<PlannedSheet> sheets, PageFormat pageFormat, String fileName, int threads) {
             super(sheets);
             this.pageFormat = pageFormat;
             this.fileName = fileName;
+            this.threads = threads;
+        }
+
+        @Override
+        protected void pageRendered(int page) {
+            publish(completedPages.incrementAndGet());
         }
 
         @Override
@@ -213,76 +282,180 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
 
         @Override
         public Void doInBackground() throws Exception {
-            Map<Integer, List<String>> bookmarkNames = new HashMap<>();
-            PDDocument mergedDocument = new PDDocument();
+            Path outputFile = Paths.get(fileName).toAbsolutePath();
+            List<Segment> segments = createSegments();
+            sheets.clear();
+
+            try {
+                if (segments.size() == 1) {
+                    writeSegment(segments.get(0));
+                } else {
+                    writeSegmentsInParallel(segments);
+                }
+                assemble(segments, outputFile);
+            } catch (Exception e) {
+                logger.error("Error during PDF export", e);
+                throw e;
+            } finally {
+                for (Segment segment : segments) {
+                    if (segment.file != null) {
+                        Files.deleteIfExists(segment.file);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Splits the sheets into contiguous runs of roughly equal page count, one for each worker thread.
+         */
+        private List<Segment> createSegments() throws IOException {
+            int totalPages = sheets.stream().mapToInt(PlannedSheet::getPageCount).sum();
+            int segmentCount = Math.max(1, Math.min(threads, sheets.size()));
+            int pagesPerSegment = (totalPages + segmentCount - 1) / segmentCount;
+            List<Segment> segments = new ArrayList<>();
+            Segment current = new Segment();
+            for (PlannedSheet sheet : sheets) {
+                if ((current.pages >= pagesPerSegment) && (segments.size() < segmentCount - 1)) {
+                    segments.add(current);
+                    current = new Segment();
+                }
+                current.sheets.add(sheet);
+                current.pages += sheet.getPageCount();
+            }
+            segments.add(current);
+            Path directory = Paths.get(fileName).toAbsolutePath().getParent();
+            for (Segment segment : segments) {
+                // Pages are streamed to files next to the output; they are assembled once all pages are written
+                segment.file = Files.createTempFile(directory, "mml-export", ".pdf");
+            }
+            return segments;
+        }
 
+        private void writeSegmentsInParallel(List<Segment> segments) throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(segments.size());
             try {
-                int currentPageOffset = 0;
-                Iterator<PrintRecordSheet> iter = sheets.iterator();
+                List<Future<Void>> futures = new ArrayList<>();
+                for (Segment segment : segments) {
+                    futures.add(executor.submit(() -> {
+                        writeSegment(segment);
+                        return null;
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception cause) {
+                            throw cause;
+                        }
+                        throw e;
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private void writeSegment(Segment segment) throws Exception {
+            try (OutputStream out = Files.newOutputStream(segment.file);
+                  RecordSheetPdfWriter writer = new RecordSheetPdfWriter(out, pageFormat)) {
+                Iterator<PlannedSheet> iter = segment.sheets.iterator();
 
                 while (iter.hasNext()) {
-                    final PrintRecordSheet rs = iter.next();
-                    bookmarkNames.put(currentPageOffset, rs.getBookmarkNames());
-
-                    for (int i = 0; i < rs.getPageCount(); i++) {
-                        final InputStream is = rs.exportPDF(i, pageFormat);
-                        if (is != null) {
-                            try {
-                                // Load PDF document from InputStream and append to merged document
-                                PDDocument pageDocument = Loader.loadPDF(new RandomAccessReadBuffer(is));
-
-                                // Count pages for bookmark offset
-                                currentPageOffset += pageDocument.getNumberOfPages();
-
-                                // Append the document
-                                PDFMergerUtility merger = new PDFMergerUtility();
-                                merger.appendDocument(mergedDocument, pageDocument);
-                                pageDocument.close();
-
-                            } finally {
-                                is.close();
-                            }
+                    final PlannedSheet plannedSheet = iter.next();
+                    final PrintRecordSheet rs = createSheet(plannedSheet);
+                    try {
+                        segment.bookmarkNames.put(writer.getPageCount(), rs.getBookmarkNames());
+
+                        for (int i = 0; i < rs.getPageCount(); i++) {
+                            rs.exportPDF(i, pageFormat, writer);
                         }
+                    } finally {
+                        plannedSheet.release();
                     }
                     iter.remove();
                 }
+                writer.finish();
+                segment.pages = writer.getPageCount();
+            }
+        }
 
-                // Add bookmarks before saving
-                if (!bookmarkNames.isEmpty()) {
-                    addBookmarks(mergedDocument, bookmarkNames);
+        /**
+         * Joins the segment files in order and adds the bookmarks. A single segment without bookmarks is moved into
+         * place as it is. Only one segment is open at a time while they are joined, and page content is buffered in
+         * temporary files rather than in memory, so memory use does not grow with the number of pages.
+         */
+        private void assemble(List<Segment> segments, Path outputFile) throws IOException {
+            Map<Integer, List<String>> bookmarkNames = new TreeMap<>();
+            int pageOffset = 0;
+            for (Segment segment : segments) {
+                for (Entry<Integer, List<String>> entry : segment.bookmarkNames.entrySet()) {
+                    bookmarkNames.put(pageOffset + entry.getKey(), entry.getValue());
                 }
+                pageOffset += segment.pages;
+            }
 
-                // Save the merged document
-                mergedDocument.save(fileName);
-                mergedDocument.close();
-
-            } catch (Exception e) {
-                logger.error("Error during PDF export", e);
-                throw e;
+            if ((segments.size() == 1) && bookmarkNames.isEmpty()) {
+                Files.move(segments.get(0).file, outputFile, StandardCopyOption.REPLACE_EXISTING);
+                return;
             }
-            return null;
+            Path joinedFile = null;
+            try {
+                if (segments.size() == 1) {
+                    joinedFile = segments.get(0).file;
+                } else {
+                    joinedFile = Files.createTempFile(outputFile.getParent(), "mml-export", ".pdf");
+                    joinSegments(segments, joinedFile);
+                }
+                if (bookmarkNames.isEmpty()) {
+                    Files.move(joinedFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    try (PDDocument document = Loader.loadPDF(joinedFile.toFile(),
+                          IOUtils.createTempFileOnlyStreamCache())) {
+                        addBookmarks(document, bookmarkNames);
+                        document.save(outputFile.toFile());
+                    }
+                }
+            } finally {
+                if (joinedFile != null) {
+                    Files.deleteIfExists(joinedFile);
+                }
+            }
+        }
 
+        private void joinSegments(List<Segment> segments, Path joinedFile) throws IOException {
+            PDFMergerUtility merger = new PDFMergerUtility();
+            merger.setDocumentMergeMode(PDFMergerUtility.DocumentMergeMode.OPTIMIZE_RESOURCES_MODE);
+            merger.setDestinationFileName(joinedFile.toString());
+            for (Segment segment : segments) {
+                merger.addSource(segment.file.toFile());
+            }
+            merger.mergeDocuments(IOUtils.createTempFileOnlyStreamCache());
         }
+    }
 
-        /**
-         * Adds bookmarks to the PDF document based on the bookmark names map
-         */
-        private void addBookmarks(PDDocument document, Map<Integer, List<String>> bookmarkNames) {
-            PDDocumentOutline outline = new PDDocumentOutline();
-            document.getDocumentCatalog().setDocumentOutline(outline);
-            for (Entry<Integer, List<String>> entry : bookmarkNames.entrySet()) {
-                int pageNumber = entry.getKey();
-                List<String> names = entry.getValue();
-                if (names != null && !names.isEmpty() && pageNumber < document.getNumberOfPages()) {
-                    for (String name : names) {
-                        PDOutlineItem bookmark = new PDOutlineItem();
-                        bookmark.setTitle(name);
-                        try {
-                            bookmark.setDestination(document.getPage(pageNumber));
-                            outline.addLast(bookmark);
-                        } catch (Exception e) {
-                            logger.warn("Failed to create bookmark for page {}: {}", pageNumber, name, e);
-                        }
+    /**
+     * Adds bookmarks to the PDF document based on the bookmark names map
+     *
+     * @param document      The PDF document
+     * @param bookmarkNames The bookmark names for each page index that starts a record sheet
+     */
+    static void addBookmarks(PDDocument document, Map<Integer, List<String>> bookmarkNames) {
+        PDDocumentOutline outline = new PDDocumentOutline();
+        document.getDocumentCatalog().setDocumentOutline(outline);
+        for (Entry<Integer, List<String>> entry : bookmarkNames.entrySet()) {
+            int pageNumber = entry.getKey();
+            List<String> names = entry.getValue();
+            if (names != null && !names.isEmpty() && pageNumber < document.getNumberOfPages()) {
+                for (String name : names) {
+                    PDOutlineItem bookmark = new PDOutlineItem();
+                    bookmark.setTitle(name);
+                    try {
+                        bookmark.setDestination(document.getPage(pageNumber));
+                        outline.addLast(bookmark);
+                    } catch (Exception e) {
+                        logger.warn("Failed to create bookmark for page {}: {}", pageNumber, name, e);
                     }
                 }
             }
@@ -290,25 +463,43 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
     }
 
     /**
-     * Implementation of Pageable that removes the record sheet objects as they are processed (when the next one is
-     * accessed) to conserve memory.
+     * A contiguous run of record sheets that is rendered by one worker into its own PDF file
+     */
+    private static class Segment {
+        private final List<PlannedSheet> sheets = new ArrayList<>();
+        private final Map<Integer, List<String>> bookmarkNames = new HashMap<>();
+        private int pages = 0;
+        private Path file;
+    }
+
+    /**
+     * Implementation of Pageable that builds each record sheet when its first page is requested and releases it when
+     * the next one is, so only one sheet is held in memory at a time.
      */
     private static class RSBook implements Pageable {
-        private final TreeMap<Integer, PrintRecordSheet> pages = new TreeMap<>();
+        private final TreeMap<Integer, PlannedSheet> pages = new TreeMap<>();
         private final PageFormat pageFormat;
+        private final Function<PlannedSheet, PrintRecordSheet> factory;
+        private final int numberOfPages;
+        private PlannedSheet currentPlan;
+        private PrintRecordSheet current;
 
-        RSBook(List<PrintRecordSheet> sheets, PageFormat pageFormat) {
+        RSBook(List<PlannedSheet> sheets, PageFormat pageFormat, Function<PlannedSheet, PrintRecordSheet> factory) {
             this.pageFormat = pageFormat;
-            for (PrintRecordSheet rs : sheets) {
+            this.factory = factory;
+            int count = 0;
+            for (PlannedSheet rs : sheets) {
                 for (int p = rs.getFirstPage(); p < rs.getFirstPage() + rs.getPageCount(); p++) {
                     pages.put(p, rs);
                 }
+                count += rs.getPageCount();
             }
+            numberOfPages = count;
         }
 
         @Override
         public int getNumberOfPages() {
-            return pages.values().stream().mapToInt(PrintRecordSheet::getPageCount).sum();
+            return numberOfPages;
         }
 
         @Override
@@ -318,11 +509,29 @@ public abstract class RecordSheetTask extends SwingWorker<Void, Integer> {
 
         @Override
         public Printable getPrintable(int pageIndex) throws IndexOutOfBoundsException {
-            PrintRecordSheet rs = pages.get(pageIndex);
-            while (pages.firstKey() < rs.getFirstPage()) {
-                pages.remove(pages.firstKey());
+            PlannedSheet plan = pages.get(pageIndex);
+            if (plan == null) {
+                throw new IndexOutOfBoundsException(pageIndex);
+            }
+            if (plan != currentPlan) {
+                // Release the sheet of the previous pages before building the next one
+                pages.headMap(plan.getFirstPage()).clear();
+                release();
+                current = factory.apply(plan);
+                currentPlan = plan;
+            }
+            return current;
+        }
+
+        /**
+         * Releases the sheet that was built last, if any.
+         */
+        void release() {
+            if (currentPlan != null) {
+                currentPlan.release();
             }
-            return rs;
+            currentPlan = null;
+            current = null;
         }
     }
 }
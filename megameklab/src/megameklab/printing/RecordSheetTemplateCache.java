@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import megamek.common.annotations.Nullable;
+import megamek.logging.MMLogger;
+import megameklab.printing.RecordSheetOptions.ColorMode;
+import org.apache.batik.dom.util.DOMUtilities;
+import org.w3c.dom.Document;
+
+/**
+ * Caches parsed record sheet templates. Parsing a template and substituting fonts and color elements is the same
+ * work for every sheet that uses the template, so it is done once and each caller receives a deep clone of the
+ * pre-processed master document that it is free to modify. The {@link SVGTemplateIndex} of the master is built in
+ * the same pass and shared by all copies.
+ *
+ * <p>The cache is bounded and evicts the least recently used template. Entries are keyed by template path (which
+ * includes the paper size directory), typeface and color mode. A template file that changes on disk is re-parsed.
+ * Changing the paper size, typeface or color mode in {@link megameklab.util.CConfig} calls {@link #invalidate()} to
+ * release the templates prepared for the previous setting.</p>
+ */
+public final class RecordSheetTemplateCache {
+    private static final MMLogger logger = MMLogger.create(RecordSheetTemplateCache.class);
+
+    /** Maximum number of pre-processed templates to keep */
+    static final int MAX_ENTRIES = 64;
+
+    private record Key(String directoryPath, String filename, String typeface, ColorMode colorMode) {}
+
+    private record Entry(Document master, SVGTemplateIndex index, long lastModified) {}
+
+    /**
+     * A copy of a cached template together with the index of the master document.
+     */
+    public record Template(Document document, SVGTemplateIndex index) {}
+
+    private static final Map<Key, Entry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private RecordSheetTemplateCache() {}
+
+    /**
+     * Provides a copy of a record sheet template with fonts and color elements already substituted.
+     *
+     * @param directoryPath The directory containing the template, including the paper size subdirectory
+     * @param filename      The name of the SVG file
+     * @param typeface      The typeface to substitute for the template fonts
+     * @param colorMode     The color mode used to select color or black and white elements
+     *
+     * @return A new document that is not shared with any other caller, or {@code null} if the template could not be
+     *       loaded
+     */
+    public static @Nullable Template getTemplate(String directoryPath, String filename, String typeface,
+          ColorMode colorMode) {
+        final Path filePath = Paths.get(directoryPath, filename);
+        final long lastModified = lastModified(filePath);
+        final Key key = new Key(directoryPath, filename, typeface, colorMode);
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if ((entry == null) || (entry.lastModified() != lastModified)) {
+            Document master = PrintRecordSheet.parseTemplate(filePath);
+            if (master == null) {
+                return null;
+            }
+            SVGTemplateIndex index = SVGTemplateIndex.build(master);
+            PrintRecordSheet.subFonts(index, typeface);
+            PrintRecordSheet.subColorElements(master, colorMode);
+            entry = new Entry(master, index, lastModified);
+            synchronized (cache) {
+                cache.put(key, entry);
+            }
+        }
+        return new Template(copy(entry.master()), entry.index());
+    }
+
+    /**
+     * Discards all cached templates. This should be called whenever a setting that affects template pre-processing
+     * changes.
+     */
+    public static void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return The number of templates currently cached
+     */
+    static int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static Document copy(Document master) {
+        // Batik builds some DOM structures lazily on read, so copies of the same master are not made concurrently
+        synchronized (master) {
+            Document copy = DOMUtilities.deepCloneDocument(master, master.getImplementation());
+            copy.setDocumentURI(master.getDocumentURI());
+            return copy;
+        }
+    }
+
+    private static long lastModified(Path filePath) {
+        try {
+            return Files.getLastModifiedTime(filePath).toMillis();
+        } catch (IOException ex) {
+            logger.debug("Could not read modification time of {}", filePath);
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Brings a live SVG document up to date with a newly generated version of the same page by changing only the nodes
+ * that differ. When the live document was built in dynamic mode, Batik updates the graphics tree for each change,
+ * so the page does not have to be built again.
+ *
+ * <p>Children are matched by their id, or if they have none by their element name and their position among the
+ * siblings of that name without an id, so inserting or removing one child does not change the siblings after it.
+ * Children without a match are added or removed, and a matched child whose node type or element name differs is
+ * replaced along with its subtree. Attributes and text are changed in place.</p>
+ */
+public final class SVGDocumentPatcher {
+
+    private SVGDocumentPatcher() {}
+
+    /**
+     * Changes the target document to match the source document.
+     *
+     * @param target The live document to change
+     * @param source The document with the new content. It is not changed.
+     *
+     * @return The number of nodes that were changed, or -1 if the root elements are different and the target has to
+     *       be replaced as a whole
+     */
+    public static int patch(Document target, Document source) {
+        Element targetRoot = target.getDocumentElement();
+        Element sourceRoot = source.getDocumentElement();
+        if ((targetRoot == null) || (sourceRoot == null) || !isSameKind(targetRoot, sourceRoot)) {
+            return -1;
+        }
+        return patchElement(target, targetRoot, sourceRoot);
+    }
+
+    private static int patchElement(Document target, Element targetElement, Element sourceElement) {
+        int changes = patchAttributes(targetElement, sourceElement);
+        Map<String, Node> targetChildren = keyChildren(targetElement);
+        Map<String, Node> sourceChildren = keyChildren(sourceElement);
+
+        // Remove the children that are gone first, so that they do not cause the ones after them to be moved
+        for (var iter = targetChildren.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String, Node> entry = iter.next();
+            if (!sourceChildren.containsKey(entry.getKey())) {
+                targetElement.removeChild(entry.getValue());
+                iter.remove();
+                changes++;
+            }
+        }
+
+        // The first child of the target that is not in its final place yet
+        Node next = targetElement.getFirstChild();
+        for (Map.Entry<String, Node> entry : sourceChildren.entrySet()) {
+            Node sourceChild = entry.getValue();
+            Node targetChild = targetChildren.get(entry.getKey());
+            if (targetChild == null) {
+                targetElement.insertBefore(target.importNode(sourceChild, true), next);
+                changes++;
+                continue;
+            }
+            if (targetChild == next) {
+                next = next.getNextSibling();
+            } else {
+                targetElement.insertBefore(targetChild, next);
+                changes++;
+            }
+            if (!isSameKind(targetChild, sourceChild)) {
+                targetElement.replaceChild(target.importNode(sourceChild, true), targetChild);
+                changes++;
+            } else if (targetChild instanceof Element element) {
+                changes += patchElement(target, element, (Element) sourceChild);
+            } else if (!Objects.equals(targetChild.getNodeValue(), sourceChild.getNodeValue())) {
+                targetChild.setNodeValue(sourceChild.getNodeValue());
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * @return The children of the element in order, by the key they are matched with
+     */
+    private static Map<String, Node> keyChildren(Element element) {
+        Map<String, Node> children = new LinkedHashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            String id = (child instanceof Element childElement) ? childElement.getAttribute("id") : "";
+            // An id that is used more than once among the siblings falls back to the position
+            if (id.isEmpty() || children.containsKey("@" + id)) {
+                int count = counts.merge(child.getNodeName(), 1, Integer::sum);
+                children.put(child.getNodeName() + '[' + count + ']', child);
+            } else {
+                children.put("@" + id, child);
+            }
+        }
+        return children;
+    }
+
+    private static int patchAttributes(Element targetElement, Element sourceElement) {
+        int changes = 0;
+        NamedNodeMap sourceAttributes = sourceElement.getAttributes();
+        for (int i = 0; i < sourceAttributes.getLength(); i++) {
+            Attr attribute = (Attr) sourceAttributes.item(i);
+            Attr current = getAttribute(targetElement, attribute);
+            if ((current == null) || !current.getValue().equals(attribute.getValue())) {
+                targetElement.setAttributeNS(attribute.getNamespaceURI(), attribute.getName(), attribute.getValue());
+                changes++;
+            }
+        }
+        NamedNodeMap targetAttributes = targetElement.getAttributes();
+        List<Attr> removed = new ArrayList<>();
+        for (int i = 0; i < targetAttributes.getLength(); i++) {
+            Attr attribute = (Attr) targetAttributes.item(i);
+            if (getAttribute(sourceElement, attribute) == null) {
+                removed.add(attribute);
+            }
+        }
+        for (Attr attribute : removed) {
+            targetElement.removeAttributeNode(attribute);
+            changes++;
+        }
+        return changes;
+    }
+
+    private static Attr getAttribute(Element element, Attr attribute) {
+        return (attribute.getLocalName() != null)
+              ? element.getAttributeNodeNS(attribute.getNamespaceURI(), attribute.getLocalName())
+              : element.getAttributeNode(attribute.getName());
+    }
+
+    private static boolean isSameKind(Node first, Node second) {
+        if (first.getNodeType() != second.getNodeType()) {
+            return false;
+        }
+        if (first instanceof Element) {
+            return Objects.equals(first.getNamespaceURI(), second.getNamespaceURI())
+                  && Objects.equals(first.getLocalName(), second.getLocalName())
+                  && Objects.equals(first.getNodeName(), second.getNodeName());
+        }
+        return true;
+    }
+}
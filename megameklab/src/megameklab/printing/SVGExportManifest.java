@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import megamek.SuiteConstants;
+import megamek.common.Configuration;
+import megamek.common.annotations.Nullable;
+import megamek.common.loaders.MekSummary;
+import megamek.logging.MMLogger;
+
+/**
+ * Records the inputs of each unit exported by {@link SVGMassPrinter}, so that an incremental export can reuse the
+ * sheets and unit data of units whose inputs have not changed since the last run.
+ *
+ * <p>The inputs of a unit are the content of its unit file and the fluff images that may be shown on its sheets,
+ * plus a key shared by all units that covers the code version and build, the record sheet options and the content of
+ * the record sheet templates. When the shared key changes, every unit is exported again.</p>
+ */
+final class SVGExportManifest {
+    private static final MMLogger logger = MMLogger.create(SVGExportManifest.class);
+
+    static final String MANIFEST_FILE = "export-manifest.json";
+    private static final String REVISION_FILE = "docs/mml-revision.txt";
+    private static final String KEY_INPUTS = "inputs";
+    private static final String KEY_UNITS = "units";
+    private static final String KEY_UNIT_HASH = "hash";
+    private static final String KEY_SHEETS = "sheets";
+    private static final String KEY_DATA = "data";
+
+    /**
+     * The exported data of one unit.
+     *
+     * @param unitHash The hash of the unit file content
+     * @param sheets   The paths of the sheets of the unit, relative to the sheets directory
+     * @param unitData The unit data as written to the units file
+     */
+    record Entry(String unitHash, List<String> sheets, JsonNode unitData) {}
+
+    private final String inputsKey;
+    private final Map<String, Entry> previous;
+    private final Set<String> previousSheets = new HashSet<>();
+    private final Set<String> currentSheets = new HashSet<>();
+    private File outputFile;
+    private File tempFile;
+    private JsonGenerator generator;
+
+    private SVGExportManifest(String inputsKey, Map<String, Entry> previous) {
+        this.inputsKey = inputsKey;
+        this.previous = new ConcurrentHashMap<>(previous);
+        previous.values().forEach(entry -> previousSheets.addAll(entry.sheets()));
+    }
+
+    /**
+     * Loads the manifest of the previous export. Entries are only kept if the previous export used the same inputs
+     * key.
+     *
+     * @param file      The manifest file; it does not need to exist
+     * @param inputsKey The inputs key of this export, from {@link #inputsKey(RecordSheetOptions, String, String, File)}
+     * @param mapper    The mapper to read the file with
+     *
+     * @return The manifest
+     */
+    static SVGExportManifest load(File file, String inputsKey, ObjectMapper mapper) {
+        final Map<String, Entry> previous = new HashMap<>();
+        if (file.isFile()) {
+            try {
+                JsonNode root = mapper.readTree(file);
+                if (inputsKey.equals(root.path(KEY_INPUTS).asText())) {
+                    root.path(KEY_UNITS).properties().forEach(field -> {
+                        JsonNode node = field.getValue();
+                        List<String> sheets = new ArrayList<>();
+                        node.path(KEY_SHEETS).forEach(sheet -> sheets.add(sheet.asText()));
+                        previous.put(field.getKey(),
+                              new Entry(node.path(KEY_UNIT_HASH).asText(), sheets, node.path(KEY_DATA)));
+                    });
+                } else {
+                    logger.info("Export inputs have changed since the last run; all units will be exported");
+                }
+            } catch (IOException ex) {
+                logger.warn("Could not read export manifest {}; all units will be exported", file);
+            }
+        }
+        return new SVGExportManifest(inputsKey, previous);
+    }
+
+    /**
+     * @return A manifest without previous entries, so that every unit is exported
+     */
+    static SVGExportManifest empty(String inputsKey) {
+        return new SVGExportManifest(inputsKey, new HashMap<>());
+    }
+
+    /**
+     * Returns the entry of the previous export for the unit, if the unit file has not changed and all of its sheets
+     * still exist. This may be called from several threads at once.
+     *
+     * @param unitKey   The key of the unit, from {@link #unitKey(MekSummary)}
+     * @param unitHash  The hash of the unit file, from {@link #hashUnit(MekSummary)}
+     * @param sheetsDir The directory the sheet paths are relative to
+     *
+     * @return The previous entry, or {@code null} if the unit has to be exported again
+     */
+    @Nullable
+    Entry reusable(String unitKey, @Nullable String unitHash, File sheetsDir) {
+        Entry entry = previous.get(unitKey);
+        if ((entry == null) || (unitHash == null) || !unitHash.equals(entry.unitHash())
+              || !entry.unitData().isObject()) {
+            return null;
+        }
+        for (String sheet : entry.sheets()) {
+            if (!new File(sheetsDir, sheet).isFile()) {
+                return null;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Starts writing the manifest of this export. The manifest is written to a temporary file first and only replaces
+     * the previous manifest when it is closed, so an interrupted export leaves the previous manifest in place.
+     *
+     * @param file   The manifest file
+     * @param mapper The mapper to write the unit data with
+     */
+    void open(File file, ObjectMapper mapper) throws IOException {
+        outputFile = file;
+        tempFile = new File(file.getPath() + ".tmp");
+        generator = mapper.getFactory().createGenerator(tempFile, JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeStringField(KEY_INPUTS, inputsKey);
+        generator.writeObjectFieldStart(KEY_UNITS);
+    }
+
+    /**
+     * Writes the exported data of a unit to the manifest for the next run. The entry of the previous export is
+     * released.
+     */
+    void put(String unitKey, Entry entry) throws IOException {
+        previous.remove(unitKey);
+        currentSheets.addAll(entry.sheets());
+        generator.writeObjectFieldStart(unitKey);
+        generator.writeStringField(KEY_UNIT_HASH, entry.unitHash());
+        generator.writeArrayFieldStart(KEY_SHEETS);
+        for (String sheet : entry.sheets()) {
+            generator.writeString(sheet);
+        }
+        generator.writeEndArray();
+        generator.writeFieldName(KEY_DATA);
+        generator.writeTree(entry.unitData());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Completes the manifest started with {@link #open(File, ObjectMapper)} and moves it into place.
+     */
+    void close() throws IOException {
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.close();
+        Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return The paths of sheets that were written by the previous export and are not part of this one, relative to
+     *       the sheets directory
+     */
+    Collection<String> staleSheets() {
+        Set<String> stale = new HashSet<>(previousSheets);
+        stale.removeAll(currentSheets);
+        return stale;
+    }
+
+    /**
+     * @return A key that identifies the unit file of the unit, including the entry if it is in a zip file
+     */
+    static String unitKey(MekSummary mekSummary) {
+        String key = mekSummary.getSourceFile().getPath().replace('\\', '/');
+        if (mekSummary.getEntryName() != null) {
+            key += '!' + mekSummary.getEntryName();
+        }
+        return key;
+    }
+
+    /**
+     * @return The hash of the content of the unit file and of its fluff images, or {@code null} if the unit file could
+     *       not be read
+     */
+    static @Nullable String hashUnit(MekSummary mekSummary) {
+        try {
+            MessageDigest digest = newDigest();
+            digestFluffImages(digest, mekSummary);
+            if (mekSummary.getEntryName() == null) {
+                digest(digest, mekSummary.getSourceFile().toPath());
+            } else {
+                try (ZipFile zipFile = new ZipFile(mekSummary.getSourceFile())) {
+                    ZipEntry entry = zipFile.getEntry(mekSummary.getEntryName());
+                    if (entry == null) {
+                        return null;
+                    }
+                    try (InputStream in = zipFile.getInputStream(entry)) {
+                        digest(digest, in);
+                    }
+                }
+            }
+            return toHex(digest.digest());
+        } catch (IOException ex) {
+            logger.warn("Could not read unit file of {}", mekSummary.getName());
+            return null;
+        }
+    }
+
+    /**
+     * Builds the key for the inputs that are shared by all units.
+     *
+     * @param options     The record sheet options of the export
+     * @param typeface    The typeface of the export
+     * @param outputMode  The export settings, other than the options, that change the written sheets
+     * @param templateDir The directory with the record sheet templates
+     *
+     * @return The inputs key
+     */
+    static String inputsKey(RecordSheetOptions options, String typeface, String outputMode, File templateDir)
+          throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(codeRevision().getBytes(StandardCharsets.UTF_8));
+        digest.update(options.fingerprint().getBytes(StandardCharsets.UTF_8));
+        digest.update(typeface.getBytes(StandardCharsets.UTF_8));
+        digest.update(outputMode.getBytes(StandardCharsets.UTF_8));
+        if (templateDir.isDirectory()) {
+            List<Path> templates;
+            try (Stream<Path> walk = Files.walk(templateDir.toPath())) {
+                templates = walk.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path template : templates) {
+                digest.update(templateDir.toPath().relativize(template).toString().getBytes(StandardCharsets.UTF_8));
+                digest(digest, template);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Identifies the code of this run. Besides the version, this covers the git revision of the build and the size and
+     * modification time of the MegaMekLab and MegaMek code, so that development builds with the same version number
+     * do not reuse each other's results.
+     *
+     * @return The code revision
+     */
+    static String codeRevision() {
+        return CodeRevision.REVISION;
+    }
+
+    private static final class CodeRevision {
+        private static final String REVISION = compute();
+
+        private static String compute() {
+            StringBuilder revision = new StringBuilder(SuiteConstants.VERSION.toString());
+            try {
+                Path revisionFile = Path.of(REVISION_FILE);
+                if (Files.isRegularFile(revisionFile)) {
+                    revision.append('\n').append(Files.readString(revisionFile).trim());
+                }
+                for (Class<?> type : List.of(SVGExportManifest.class, SuiteConstants.class)) {
+                    Path code = Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+                    revision.append('\n').append(stamp(code));
+                }
+            } catch (Exception ex) {
+                // Without the build stamps, only the version separates the results of different builds
+                logger.warn("Could not identify the code build; only the version will be checked");
+            }
+            return revision.toString();
+        }
+
+        /**
+         * @return The size and modification time of a jar, or the file count and latest modification time of a class
+         *       directory
+         */
+        private static String stamp(Path code) throws IOException {
+            if (Files.isRegularFile(code)) {
+                return code + ":" + Files.size(code) + ":" + Files.getLastModifiedTime(code).toMillis();
+            }
+            long count = 0;
+            long latest = 0;
+            try (Stream<Path> walk = Files.walk(code)) {
+                for (Path file : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+                    count++;
+                    latest = Math.max(latest, Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+            return code + ":" + count + ":" + latest;
+        }
+    }
+
+    /**
+     * Adds the fluff images that may be shown on the sheets of the unit. Fluff images are found by the chassis name,
+     * so this covers every image in the fluff image directory whose name starts with the chassis. Images are
+     * identified by their path, size and modification time rather than their content, as hashing every image would
+     * take longer than rendering the sheets. Images embedded in the unit file are covered by the unit file.
+     */
+    private static void digestFluffImages(MessageDigest digest, MekSummary mekSummary) {
+        String chassis = mekSummary.getChassis().toLowerCase(Locale.ROOT);
+        for (String stamp : FluffImages.INDEX.subMap(chassis, true, chassis + Character.MAX_VALUE, false).values()) {
+            digest.update(stamp.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * The fluff images, keyed by their lower case file name followed by their relative path, with their path, size
+     * and modification time. The directory is read once per run.
+     */
+    private static final class FluffImages {
+        private static final NavigableMap<String, String> INDEX = index();
+
+        private static NavigableMap<String, String> index() {
+            NavigableMap<String, String> index = new TreeMap<>();
+            Path fluffDir = Configuration.fluffImagesDir().toPath();
+            if (Files.isDirectory(fluffDir)) {
+                try (Stream<Path> walk = Files.walk(fluffDir)) {
+                    for (Path image : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+                        String path = fluffDir.relativize(image).toString().replace('\\', '/');
+                        index.put(image.getFileName().toString().toLowerCase(Locale.ROOT) + '\0' + path,
+                              path + ':' + Files.size(image) + ':' + Files.getLastModifiedTime(image).toMillis()
+                                    + '\n');
+                    }
+                } catch (IOException ex) {
+                    logger.warn("Could not read fluff image directory {}; changed fluff images may be missed",
+                          fluffDir);
+                }
+            }
+            return index;
+        }
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void digest(MessageDigest digest, Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            digest(digest, in);
+        }
+    }
+
+    private static void digest(MessageDigest digest, InputStream in) throws IOException {
+        try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+            digestIn.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
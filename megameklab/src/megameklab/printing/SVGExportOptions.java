@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import megamek.common.loaders.MekSummary;
+
+/**
+ * The command line options of {@link SVGMassPrinter}. Filters and the shard options select the units to export, so
+ * that a partial export can be run or the catalog split across several machines.
+ */
+final class SVGExportOptions {
+    static final String DEFAULT_OUTPUT = "../../svgexport";
+    static final String DEFAULT_TYPEFACE = "Roboto";
+
+    static final String INCREMENTAL_ARG = "--incremental";
+    static final String SHARE_FRAGMENTS_ARG = "--share-fragments";
+
+    enum OutputFormat {
+        /** One SVG file per sheet */
+        FILES,
+        /** Sheets packed into a few files; see {@link SheetPackWriter} */
+        PACKED
+    }
+
+    static final String USAGE = """
+          Usage: SVGMassPrinter [options]
+            --output <dir>             Folder to write the export to (default %s)
+            --typeface <name>          Typeface of the sheets (default %s)
+            --paper <size>             Paper size: %s (default US_LETTER)
+            --format <format>          files: one SVG file per sheet; packed: sheets packed into a few files
+            --threads <n>              Number of worker threads (default: one per processor)
+            --types <list>             Only units of these comma-separated unit types, e.g. Mek,Tank
+            --years <from>-<to>        Only units introduced in these years; either end may be left out
+            --mul-ids <list>           Only units with these comma-separated MUL ids
+            --shard <index>/<count>    Only the units of this shard of the catalog, with index from 0 to count - 1
+            --incremental              Only render units whose inputs changed since the last export
+            --share-fragments          Write artwork that sheets have in common to shared files
+            --skip-svg                 Don't write the sheets
+            --skip-equipment           Don't write the equipment files
+            --help                     Show this help
+          """.formatted(DEFAULT_OUTPUT, DEFAULT_TYPEFACE, String.join(", ", paperSizeNames()));
+
+    private String outputFolder = DEFAULT_OUTPUT;
+    private String typeface = DEFAULT_TYPEFACE;
+    private PaperSize paperSize = PaperSize.US_LETTER;
+    private OutputFormat format = OutputFormat.FILES;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private final Set<String> unitTypes = new HashSet<>();
+    private int fromYear = Integer.MIN_VALUE;
+    private int toYear = Integer.MAX_VALUE;
+    private final Set<Integer> mulIds = new HashSet<>();
+    private int shardIndex = 0;
+    private int shardCount = 1;
+    private boolean incremental = false;
+    private boolean shareFragments = false;
+    private boolean skipSvg = false;
+    private boolean skipEquipment = false;
+    private boolean help = false;
+
+    private SVGExportOptions() {}
+
+    /**
+     * Parses the command line.
+     *
+     * @param args The command line arguments
+     *
+     * @return The options
+     *
+     * @throws IllegalArgumentException if an argument is unknown or has an invalid value
+     */
+    static SVGExportOptions parse(String... args) {
+        SVGExportOptions options = new SVGExportOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--output" -> options.outputFolder = value(args, ++i, arg);
+                case "--typeface" -> options.typeface = value(args, ++i, arg);
+                case "--paper" -> options.paperSize = parseEnum(PaperSize.class, value(args, ++i, arg), arg);
+                case "--format" -> options.format = parseEnum(OutputFormat.class, value(args, ++i, arg), arg);
+                case "--threads" -> options.threads = parsePositive(value(args, ++i, arg), arg);
+                case "--types" -> {
+                    for (String type : splitList(value(args, ++i, arg))) {
+                        options.unitTypes.add(type.toLowerCase(Locale.ROOT));
+                    }
+                }
+                case "--years" -> options.parseYears(value(args, ++i, arg));
+                case "--mul-ids" -> {
+                    for (String id : splitList(value(args, ++i, arg))) {
+                        options.mulIds.add(parseInt(id, arg));
+                    }
+                }
+                case "--shard" -> options.parseShard(value(args, ++i, arg));
+                case INCREMENTAL_ARG -> options.incremental = true;
+                case SHARE_FRAGMENTS_ARG -> options.shareFragments = true;
+                // Kept for scripts written before --format was added
+                case "--packed" -> options.format = OutputFormat.PACKED;
+                case "--skip-svg" -> options.skipSvg = true;
+                case "--skip-equipment" -> options.skipEquipment = true;
+                case "--help", "-h" -> options.help = true;
+                default -> throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+        return options;
+    }
+
+    private void parseYears(String value) {
+        int dash = value.indexOf('-');
+        if (dash < 0) {
+            fromYear = toYear = parseInt(value, "--years");
+            return;
+        }
+        String from = value.substring(0, dash).trim();
+        String to = value.substring(dash + 1).trim();
+        if (!from.isEmpty()) {
+            fromYear = parseInt(from, "--years");
+        }
+        if (!to.isEmpty()) {
+            toYear = parseInt(to, "--years");
+        }
+    }
+
+    private void parseShard(String value) {
+        String[] parts = value.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("--shard expects <index>/<count>, not " + value);
+        }
+        shardIndex = parseInt(parts[0].trim(), "--shard");
+        shardCount = parsePositive(parts[1].trim(), "--shard");
+        if ((shardIndex < 0) || (shardIndex >= shardCount)) {
+            throw new IllegalArgumentException("--shard index must be from 0 to " + (shardCount - 1));
+        }
+    }
+
+    private static String value(String[] args, int index, String arg) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(arg + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                result.add(part.trim());
+            }
+        }
+        return result;
+    }
+
+    private static int parseInt(String value, String arg) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(arg + " expects a number, not " + value);
+        }
+    }
+
+    private static int parsePositive(String value, String arg) {
+        int result = parseInt(value, arg);
+        if (result < 1) {
+            throw new IllegalArgumentException(arg + " must be at least 1");
+        }
+        return result;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String arg) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(arg + " does not accept " + value);
+        }
+    }
+
+    private static List<String> paperSizeNames() {
+        List<String> names = new ArrayList<>();
+        for (PaperSize size : PaperSize.values()) {
+            names.add(size.name());
+        }
+        return names;
+    }
+
+    /**
+     * @return Whether the unit passes the filters and belongs to the selected shard
+     */
+    boolean accepts(MekSummary mekSummary) {
+        if (!unitTypes.isEmpty() && !unitTypes.contains(mekSummary.getUnitType().toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        if ((mekSummary.getYear() < fromYear) || (mekSummary.getYear() > toYear)) {
+            return false;
+        }
+        if (!mulIds.isEmpty() && !mulIds.contains(mekSummary.getMulId())) {
+            return false;
+        }
+        // The shard is picked from the name, which is the same on every machine, unlike the position in the cache
+        return Math.floorMod(mekSummary.getName().hashCode(), shardCount) == shardIndex;
+    }
+
+    /**
+     * @return Whether only part of the catalog is exported
+     */
+    boolean isFiltered() {
+        return !unitTypes.isEmpty() || (fromYear != Integer.MIN_VALUE) || (toYear != Integer.MAX_VALUE)
+              || !mulIds.isEmpty() || (shardCount > 1);
+    }
+
+    /**
+     * Gives the name of an index file of the export, such as the units file. A filtered export only covers part of
+     * the catalog, so it writes its index files under names of its own, and the index files of the whole catalog are
+     * left alone. The name is the same for every run with the same filters, so incremental runs find their manifest.
+     *
+     * @param fileName The name of the file for an export of the whole catalog, e.g. {@code units.json}
+     *
+     * @return The name of the file for this export, e.g. {@code units.shard-0-of-4.json}
+     */
+    String indexFileName(String fileName) {
+        if (!isFiltered()) {
+            return fileName;
+        }
+        String suffix;
+        if (unitTypes.isEmpty() && (fromYear == Integer.MIN_VALUE) && (toYear == Integer.MAX_VALUE)
+              && mulIds.isEmpty()) {
+            suffix = "shard-" + shardIndex + "-of-" + shardCount;
+        } else {
+            String filters = "types=" + new TreeSet<>(unitTypes) + ";years=" + fromYear + '-' + toYear
+                  + ";mulIds=" + new TreeSet<>(mulIds) + ";shard=" + shardIndex + '/' + shardCount;
+            MessageDigest digest = SVGExportManifest.newDigest();
+            suffix = "filtered-" + SVGExportManifest.toHex(digest.digest(filters.getBytes(StandardCharsets.UTF_8)))
+                  .substring(0, 8);
+        }
+        int extension = fileName.lastIndexOf('.');
+        return (extension < 0) ? fileName + '.' + suffix
+              : fileName.substring(0, extension) + '.' + suffix + fileName.substring(extension);
+    }
+
+    String getOutputFolder() {
+        return outputFolder;
+    }
+
+    String getTypeface() {
+        return typeface;
+    }
+
+    PaperSize getPaperSize() {
+        return paperSize;
+    }
+
+    OutputFormat getFormat() {
+        return format;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    boolean isIncremental() {
+        return incremental;
+    }
+
+    boolean isShareFragments() {
+        return shareFragments;
+    }
+
+    boolean isSkipSvg() {
+        return skipSvg;
+    }
+
+    boolean isSkipEquipment() {
+        return skipEquipment;
+    }
+
+    boolean isHelp() {
+        return help;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import megamek.logging.MMLogger;
+import org.apache.batik.anim.dom.SVGDOMImplementation;
+import org.apache.batik.util.SVGConstants;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Moves artwork that many sheets of a mass export have in common into shared SVG files, and replaces it in the sheets
+ * with a {@code <use>} element that references the shared file.
+ *
+ * <p>Fragments are identified by a hash of their content. The first sheet that contains a fragment keeps it inline;
+ * from the second sheet on, the fragment is written to the shared folder once and referenced, so artwork that only
+ * appears on a single sheet never gets a file of its own.</p>
+ *
+ * <p>Only self-contained fragments are shared: they must not contain ids, which the sheet may refer to, classes,
+ * which depend on the style sheet of the sheet, or references to definitions in the sheet. Definitions such as
+ * patterns and gradients are not shared, as browsers do not resolve paint servers in other documents.</p>
+ */
+final class SVGFragmentSharer {
+    private static final MMLogger logger = MMLogger.create(SVGFragmentSharer.class);
+
+    static final String SHARED_DIR = "shared";
+    // Sheets are written one folder below the sheets folder
+    private static final String HREF_PREFIX = "../" + SHARED_DIR + "/";
+    private static final String FRAGMENT_ID = "f";
+    private static final int MIN_FRAGMENT_SIZE = 1024;
+    private static final int HASH_BYTES = 16;
+    private static final Pattern SHARED_REFERENCE = Pattern.compile(Pattern.quote(HREF_PREFIX)
+          + "([0-9a-f]{" + (2 * HASH_BYTES) + "})\\.svg");
+    private static final Set<String> EXCLUDED_TAGS = Set.of(
+          SVGConstants.SVG_DEFS_TAG, SVGConstants.SVG_STYLE_TAG, SVGConstants.SVG_SCRIPT_TAG,
+          SVGConstants.SVG_SYMBOL_TAG, SVGConstants.SVG_CLIP_PATH_TAG, SVGConstants.SVG_MASK_TAG,
+          SVGConstants.SVG_PATTERN_TAG, SVGConstants.SVG_LINEAR_GRADIENT_TAG, SVGConstants.SVG_RADIAL_GRADIENT_TAG,
+          SVGConstants.SVG_FILTER_TAG, SVGConstants.SVG_FONT_TAG, SVGConstants.SVG_FONT_FACE_TAG,
+          SVGConstants.SVG_FOREIGN_OBJECT_TAG);
+
+    private record Summary(long size, byte[] hash, boolean shareable) {}
+
+    private final File sharedDir;
+    private final Map<String, AtomicInteger> sightings = new ConcurrentHashMap<>();
+    private final Set<String> written = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param sheetsDir The folder the sheets are written to. The shared fragments are written to a folder inside it.
+     */
+    SVGFragmentSharer(File sheetsDir) {
+        sharedDir = new File(sheetsDir, SHARED_DIR);
+        if (!sharedDir.isDirectory() && !sharedDir.mkdirs()) {
+            logger.error("Couldn't create folder {}", sharedDir);
+        }
+    }
+
+    /**
+     * Replaces the fragments of the document that have been seen in an earlier sheet with references to shared
+     * files, writing the shared files as needed. This may be called from several threads at once.
+     *
+     * @param document    The optimized sheet
+     * @param transformer The transformer used to write shared files
+     */
+    void share(Document document, Transformer transformer) {
+        Element root = document.getDocumentElement();
+        Map<Element, Summary> summaries = new IdentityHashMap<>();
+        summarize(root, summaries);
+        List<Element> candidates = new ArrayList<>();
+        for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element element) {
+                collectCandidates(element, summaries, candidates);
+            }
+        }
+
+        for (Element fragment : candidates) {
+            String hash = HexFormat.of().formatHex(summaries.get(fragment).hash(), 0, HASH_BYTES);
+            AtomicInteger sightingCount = sightings.computeIfAbsent(hash, k -> new AtomicInteger());
+            if ((sightingCount.incrementAndGet() < 2) || !ensureShared(hash, sightingCount, fragment, transformer)) {
+                continue;
+            }
+            Element use = document.createElementNS(SVGConstants.SVG_NAMESPACE_URI, SVGConstants.SVG_USE_TAG);
+            use.setAttributeNS(SVGConstants.XLINK_NAMESPACE_URI, SVGConstants.XLINK_HREF_QNAME,
+                  HREF_PREFIX + hash + ".svg#" + FRAGMENT_ID);
+            fragment.getParentNode().replaceChild(use, fragment);
+        }
+    }
+
+    /**
+     * Writes the shared file of a fragment unless it has been written already. Other sheets with the same fragment
+     * wait until the file is in place. If it cannot be written, the fragment is kept inline and a later sheet tries
+     * again.
+     *
+     * @param lock The sighting counter of the fragment, which is used to write its file only once
+     *
+     * @return Whether the shared file exists
+     */
+    private boolean ensureShared(String hash, Object lock, Element fragment, Transformer transformer) {
+        if (written.contains(hash)) {
+            return true;
+        }
+        synchronized (lock) {
+            if (!written.contains(hash)) {
+                try {
+                    writeShared(fragment, new File(sharedDir, hash + ".svg"), transformer);
+                } catch (IOException | TransformerException ex) {
+                    logger.warn("Could not write shared fragment {}; it is kept in the sheet", hash);
+                    return false;
+                }
+                written.add(hash);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the shared fragment files that no sheet in the sheets folder refers to any more, such as the fragments
+     * of sheets that an incremental export deleted or wrote again. Must only be called once all sheets are written.
+     *
+     * @return The number of deleted files
+     */
+    int removeUnreferenced() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        Path sharedPath = sharedDir.toPath();
+        try (Stream<Path> walk = Files.walk(sharedDir.getParentFile().toPath())) {
+            for (Path sheet : (Iterable<Path>) walk.filter(path -> !path.startsWith(sharedPath)
+                  && path.toString().endsWith(".svg") && Files.isRegularFile(path))::iterator) {
+                Matcher matcher = SHARED_REFERENCE.matcher(Files.readString(sheet));
+                while (matcher.find()) {
+                    referenced.add(matcher.group(1));
+                }
+            }
+        }
+        int removed = 0;
+        File[] files = sharedDir.listFiles();
+        for (File file : (files != null) ? files : new File[0]) {
+            String name = file.getName();
+            if (name.endsWith(".svg") && !referenced.contains(name.substring(0, name.length() - 4))) {
+                if (file.delete()) {
+                    removed++;
+                } else {
+                    logger.warn("Failed to delete file: {}", file.getPath());
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return The number of shared fragment files written so far
+     */
+    int getSharedCount() {
+        return written.size();
+    }
+
+    private void collectCandidates(Element element, Map<Element, Summary> summaries, List<Element> candidates) {
+        Summary summary = summaries.get(element);
+        if (summary.shareable() && (summary.size() >= MIN_FRAGMENT_SIZE)) {
+            candidates.add(element);
+            return;
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                collectCandidates(childElement, summaries, candidates);
+            }
+        }
+    }
+
+    /**
+     * Computes the approximate serialized size, the content hash and whether the subtree can be shared for the
+     * element and all of its descendants.
+     */
+    private static Summary summarize(Element element, Map<Element, Summary> summaries) {
+        MessageDigest digest = newDigest();
+        String tag = element.getNodeName();
+        String localName = element.getLocalName();
+        boolean shareable = !EXCLUDED_TAGS.contains((localName != null) ? localName : tag);
+        long size = 2L * tag.length() + 5;
+        update(digest, tag);
+
+        NamedNodeMap attributes = element.getAttributes();
+        Attr[] sorted = new Attr[attributes.getLength()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = (Attr) attributes.item(i);
+        }
+        Arrays.sort(sorted, (a, b) -> a.getName().compareTo(b.getName()));
+        for (Attr attr : sorted) {
+            String name = attr.getName();
+            String value = attr.getValue();
+            if (SVGConstants.SVG_ID_ATTRIBUTE.equals(name) || SVGConstants.SVG_CLASS_ATTRIBUTE.equals(name)
+                  || value.contains("url(#") || (name.endsWith("href") && value.startsWith("#"))) {
+                shareable = false;
+            }
+            size += name.length() + value.length() + 4;
+            update(digest, name);
+            update(digest, value);
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                Summary childSummary = summarize(childElement, summaries);
+                shareable &= childSummary.shareable();
+                size += childSummary.size();
+                digest.update(childSummary.hash());
+            } else if ((child.getNodeType() == Node.TEXT_NODE) || (child.getNodeType() == Node.CDATA_SECTION_NODE)) {
+                String text = child.getNodeValue();
+                size += text.length();
+                update(digest, text);
+            }
+        }
+        Summary summary = new Summary(size, digest.digest(), shareable);
+        summaries.put(element, summary);
+        return summary;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        // Separate the values, so that different splits of the same characters hash differently
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void writeShared(Element fragment, File file, Transformer transformer)
+          throws IOException, TransformerException {
+        Document shared = SVGDOMImplementation.getDOMImplementation()
+              .createDocument(SVGConstants.SVG_NAMESPACE_URI, SVGConstants.SVG_SVG_TAG, null);
+        Element defs = shared.createElementNS(SVGConstants.SVG_NAMESPACE_URI, SVGConstants.SVG_DEFS_TAG);
+        shared.getDocumentElement().appendChild(defs);
+        Element copy = (Element) shared.importNode(fragment, true);
+        copy.setAttributeNS(null, SVGConstants.SVG_ID_ATTRIBUTE, FRAGMENT_ID);
+        defs.appendChild(copy);
+
+        // Write to a temporary file first, so a sheet is never served a partially written fragment
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+                transformer.transform(new DOMSource(shared), new StreamResult(out));
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+}
@@ -35,13 +35,18 @@ package megameklab.printing;
 
 import java.awt.GridBagConstraints;
 import java.awt.print.PageFormat;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.lang.System;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.NumberFormat;
 import java.util.*;
 import javax.swing.JLabel;
@@ -50,6 +55,7 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
@@ -57,11 +63,16 @@ import javax.xml.transform.stream.StreamResult;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import megamek.MMConstants;
+import megamek.client.Client;
 import megamek.client.ratgenerator.RATGenerator;
 import megamek.client.ui.Messages;
 import megamek.client.ui.clientGUI.calculationReport.FlexibleCalculationReport;
@@ -129,8 +140,13 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.svg.SVGDocument;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.Set;
 import java.util.HashSet;
@@ -148,22 +164,36 @@ import static megamek.common.equipment.WeaponType.DAMAGE_VARIABLE;
  */
 public class SVGMassPrinter {
     static ResourceBundle resourcesTabs = ResourceBundle.getBundle("megameklab.resources.Tabs");
-    private final static boolean SKIP_SVG = false; // Set to true to skip SVG generation
-    private final static boolean SKIP_EQUIPMENT = false; // Set to true to skip equipment generation
 
     private static final MMLogger logger = MMLogger.create(SVGMassPrinter.class);
-    private static final String TYPEFACE = "Roboto";
     private static final String SHEETS_DIR = "sheets";
     private static final String UNIT_FILE = "units.json";
     private static final String EQUIPMENT_FILE = "equipment.json";
     private static final String EQUIPMENT_FILE2 = "equipment2.json";
-    private static final String ROOT_FOLDER = "../../svgexport";
     private static final int DEFAULT_MARGINS = 0; // Default margins for the page
     private final static RATGenerator RAT_GENERATOR = RATGenerator.getInstance();
     private final static MekTileset tileset = MMStaticDirectoryManager.getMekTileset();
 
     private static final HashMap<Integer, String> unitTypes = new HashMap<>();
 
+    private static final int SVG_BUFFER_SIZE = 64 * 1024;
+    // Creating a transformer is much more expensive than using it, so each worker thread keeps its own
+    private static final ThreadLocal<Transformer> SVG_TRANSFORMER = ThreadLocal.withInitial(
+          SVGMassPrinter::createSvgTransformer);
+
+    private static Transformer createSvgTransformer() {
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "no");
+            transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            return transformer;
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Could not create the SVG serializer", e);
+        }
+    }
+
     @JsonInclude(JsonInclude.Include.NON_EMPTY)
     public static class ExportInventoryEntry {
         public String id; // Internal name of the weapon type
@@ -183,6 +213,21 @@ public class SVGMassPrinter {
         public Collection<ExportInventoryEntry> bay; // Bay weapons, if applicable
     }
 
+    public static class PackedSheet {
+        public String f; // File name of the pack in the sheets folder
+        public long o; // Offset of the gzip-compressed sheet in the pack
+        public int l; // Length of the compressed sheet
+
+        public PackedSheet() {
+        }
+
+        PackedSheet(SheetPackWriter.Location location) {
+            f = location.pack();
+            o = location.offset();
+            l = location.length();
+        }
+    }
+
     private static double getMaxDamage(Entity entity, WeaponType wtype) {
         if (entity instanceof Aero) {
             int[] attackValue = new int[RangeType.RANGE_EXTREME + 1];
@@ -752,6 +797,8 @@ public class SVGMassPrinter {
         @JsonInclude(JsonInclude.Include.NON_EMPTY)
         public Map<String, Object> capital;
         public List<String> sheets; // Path to the SVG sheet
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        public List<PackedSheet> packed; // Location of each sheet in the packs, when sheets are packed
         public HashMap<String, Object> as = null;
         //        public String summary;
 
@@ -1066,15 +1113,24 @@ public class SVGMassPrinter {
             return feats;
         }
 
-        public UnitData(MekSummary mekSummary, Entity entity, RecordSheetOptions options) {
+        /**
+         * @param cachedStats The values of the unit from the {@link UnitStatsCache}, or {@code null} to compute them
+         */
+        public UnitData(MekSummary mekSummary, Entity entity, RecordSheetOptions options,
+              @Nullable UnitStatsCache.Stats cachedStats) {
             this.id = entity.getMulId();
             this.chassis = entity.getFullChassis();
             this.model = entity.getModel();
             this.year = entity.getYear();
             this.weightClass = entity.getWeightClassName();
             this.tons = entity.getWeight();
-            this.bv = entity.getBvCalculator().calculateBV(false, true);
-            this.cost = Math.round(entity.getCost(false));
+            if (cachedStats != null) {
+                this.bv = cachedStats.bv();
+                this.cost = cachedStats.cost();
+            } else {
+                this.bv = entity.getBvCalculator().calculateBV(false, true);
+                this.cost = Math.round(entity.getCost(false));
+            }
             this.techBase = formatTechBase(entity);
             this.techRating = entity.getFullRatingName();
             this.level = formatRulesLevel(entity, options);
@@ -1138,10 +1194,10 @@ public class SVGMassPrinter {
             this.crewSize = entity.getCrew().getSlotCount();
             this.comp = (new Components(entity)).getComp();
             this.c3 = getC3Property(entity);
-            this.quirks = getQuirks(entity);
+            this.quirks = (cachedStats != null) ? new ArrayList<>(cachedStats.quirks()) : getQuirks(entity);
             this.features = getFeatures(entity);
             this.icon = getEntityIcon(entity);
-            Map<String, Object> fluffMap = getFluffAttributes(entity);
+            Map<String, Object> fluffMap = (cachedStats != null) ? cachedStats.fluff() : getFluffAttributes(entity);
             if (!fluffMap.isEmpty()) {
                 this.fluff = fluffMap;
             }
@@ -1154,6 +1210,11 @@ public class SVGMassPrinter {
                 this.capital = capitalMap;
             }
             this.sheets = new ArrayList<>();
+            if (cachedStats != null) {
+                this.as = (cachedStats.as() != null) ? new HashMap<>(cachedStats.as()) : null;
+                this.dpt = cachedStats.dpt();
+                return;
+            }
             this.loadASUnitData(entity);
             //            final MekView mekView = new MekView(entity, false, false, ViewFormatting.HTML);
             //            this.summary = mekView.getMekReadout();
@@ -1165,6 +1226,13 @@ public class SVGMassPrinter {
             }
         }
 
+        /**
+         * @return The values of this unit to keep in the {@link UnitStatsCache}
+         */
+        UnitStatsCache.Stats stats() {
+            return new UnitStatsCache.Stats(bv, cost, dpt, as, quirks, (fluff != null) ? fluff : Map.of());
+        }
+
         private static Map<String, Object> getFluffAttributes(Entity entity) {
             Map<String, Object> fluffMap = new HashMap<>();
             EntityFluff entityFluff = entity.getFluff();
@@ -1523,17 +1591,145 @@ public class SVGMassPrinter {
         }
     }
 
+    /**
+     * A unit ready to be written to the units file and the manifest.
+     */
+    private record ExportedUnit(String key, SVGExportManifest.Entry entry) {}
+
+    /**
+     * Streams the units file. Each unit is written on its own line as soon as it is handed over, so the data of all
+     * units does not have to be kept in memory until the export is complete.
+     */
+    private static class UnitsFileWriter implements AutoCloseable {
+        private final JsonGenerator generator;
+        private int count = 0;
+
+        UnitsFileWriter(File file, long timestamp, ObjectMapper mapper) throws IOException {
+            generator = mapper.getFactory().createGenerator(file, JsonEncoding.UTF8);
+            generator.setPrettyPrinter(new UnitsPrettyPrinter());
+            generator.writeStartObject();
+            generator.writeNumberField("version", timestamp);
+            generator.writeArrayFieldStart("units");
+        }
+
+        void write(JsonNode unitData) throws IOException {
+            generator.writeTree(unitData);
+            count++;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes compact JSON, except that the top level fields and the entries of the units list each start on a new
+     * line.
+     */
+    private static class UnitsPrettyPrinter extends MinimalPrettyPrinter {
+        @Override
+        public void writeObjectEntrySeparator(JsonGenerator g) throws IOException {
+            super.writeObjectEntrySeparator(g);
+            if (g.getOutputContext().getParent().inRoot()) {
+                g.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void beforeArrayValues(JsonGenerator g) throws IOException {
+            if (isUnitList(g.getOutputContext())) {
+                g.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void writeArrayValueSeparator(JsonGenerator g) throws IOException {
+            super.writeArrayValueSeparator(g);
+            if (isUnitList(g.getOutputContext())) {
+                g.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void writeEndArray(JsonGenerator g, int nrOfValues) throws IOException {
+            if (isUnitList(g.getOutputContext())) {
+                g.writeRaw('\n');
+            }
+            super.writeEndArray(g, nrOfValues);
+        }
+
+        private static boolean isUnitList(JsonStreamContext context) {
+            JsonStreamContext parent = context.getParent();
+            return (parent != null) && (parent.getParent() != null) && parent.getParent().inRoot();
+        }
+    }
+
+    private static void writeUnit(Future<ExportedUnit> future, UnitsFileWriter unitsWriter,
+          SVGExportManifest manifest) throws IOException {
+        ExportedUnit unit;
+        try {
+            unit = future.get();
+        } catch (ExecutionException e) {
+            logger.error(e.getCause(), "Failed to export unit");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a unit to be exported");
+        }
+        if (unit != null) {
+            unitsWriter.write(unit.entry().unitData());
+            manifest.put(unit.key(), unit.entry());
+        }
+    }
+
     protected static String formatRulesLevel(Entity entity, RecordSheetOptions options) {
         SimpleTechLevel level = entity.getStaticTechLevel();
         return level.toString().substring(0, 1)
               + level.toString().substring(1).toLowerCase();
     }
 
+    /**
+     * Exports sheets and data for the units in the Mek Summary Cache. Run with {@code --help} for the options; see
+     * {@link SVGExportOptions}.
+     */
     public static void main(String[] args) {
+        final SVGExportOptions options;
+        try {
+            options = SVGExportOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(SVGExportOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+        if (options.isHelp()) {
+            System.out.print(SVGExportOptions.USAGE);
+            return;
+        }
         logger.info("Starting SVG Mass Printer...");
-        final String rootPath = ROOT_FOLDER + File.separator + SHEETS_DIR;
+        final String rootFolder = options.getOutputFolder();
+        final boolean packed = options.getFormat() == SVGExportOptions.OutputFormat.PACKED;
+        // In incremental mode, sheets of units whose inputs have not changed since the last run are kept
+        final boolean incremental = options.isIncremental() && !packed;
+        if (packed && options.isIncremental()) {
+            logger.warn("Packed sheets cannot be updated incrementally; all units will be exported");
+        }
+        // Packed sheets are fetched on their own, so they can't refer to shared files by relative path
+        final boolean shareFragments = options.isShareFragments() && !packed;
+        if (packed && options.isShareFragments()) {
+            logger.warn("Shared fragments are not supported for packed sheets and will not be used");
+        }
+        final String rootPath = rootFolder + File.separator + SHEETS_DIR;
         File sheetsDir = new File(rootPath);
-        if (sheetsDir.exists()) {
+        // A filtered export only replaces the sheets of the selected units
+        if (sheetsDir.exists() && !incremental && !options.isFiltered()) {
             try (var walk = Files.walk(sheetsDir.toPath())) {
                 walk.sorted(Comparator.reverseOrder())
                       .map(Path::toFile)
@@ -1568,61 +1764,93 @@ public class SVGMassPrinter {
         Locale.setDefault(new MMLOptions().getLocale());
         EquipmentType.initializeTypes();
         CConfig.load();
-        CConfig.setParam(CConfig.RS_FONT, TYPEFACE);
+        CConfig.setParam(CConfig.RS_FONT, options.getTypeface());
 
-        int processedCount = 0;
         ObjectMapper mapper = new ObjectMapper();
         mapper.disable(SerializationFeature.INDENT_OUTPUT);
         long timestamp = System.currentTimeMillis();
         Map<String, Entity> uniqueUnitTypes = new ConcurrentHashMap<>();
 
         RecordSheetOptions recordSheetOptions = getRecordSheetOptions();
+        recordSheetOptions.setPaperSize(options.getPaperSize());
         MekSummaryCache cache = MekSummaryCache.getInstance(true);
 
-        MekSummary[] meks = cache.getAllMeks();
+        MekSummary[] meks = Arrays.stream(cache.getAllMeks()).filter(options::accepts).toArray(MekSummary[]::new);
         logger.info("Processing {} meks...", meks.length);
+        if (options.isFiltered()) {
+            logger.info("Only part of the catalog is exported; the units are listed in {}",
+                  options.indexFileName(UNIT_FILE));
+        }
 
-        PageFormat pf = new PageFormat();
         PaperSize paperDef = recordSheetOptions.getPaperSize();
 
+        // A filtered export writes its own units file, manifest and equipment files, see indexFileName
+        final File manifestFile = new File(rootFolder, options.indexFileName(SVGExportManifest.MANIFEST_FILE));
+        SVGExportManifest loadedManifest;
+        try {
+            String inputsKey = SVGExportManifest.inputsKey(recordSheetOptions, options.getTypeface(),
+                  shareFragments ? SVGExportOptions.SHARE_FRAGMENTS_ARG : "", new File(PrintRecordSheet.TEMPLATE_DIRECTORY));
+            loadedManifest = incremental ? SVGExportManifest.load(manifestFile, inputsKey, mapper)
+                  : SVGExportManifest.empty(inputsKey);
+        } catch (IOException e) {
+            logger.error(e, "Failed to read record sheet templates; all units will be exported");
+            loadedManifest = SVGExportManifest.empty("");
+        }
+        final SVGExportManifest manifest = loadedManifest;
+        final File statsCacheFile = new File(rootFolder, UnitStatsCache.CACHE_FILE);
+        final String statsKey = UnitStatsCache.statsKey(UnitUtil.createDummyClient().getGame().getOptions());
+        final UnitStatsCache statsCache = incremental ? UnitStatsCache.load(statsCacheFile, statsKey, mapper)
+              : UnitStatsCache.empty(statsKey, mapper);
+        final Map<String, MekSummary> reusedUnitTypes = new ConcurrentHashMap<>();
+        final AtomicInteger reusedCounter = new AtomicInteger(0);
+
         final AtomicInteger processedCounter = new AtomicInteger(0);
-        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int parallelism = options.getThreads();
         logger.info("Starting parallel processing with {} threads...", parallelism);
 
-        final Object loadEntityLock = new Object();
-        final Object updateUnitLock = new Object();
-        final Object idLock = new Object();
+        // Each worker adds its units to its own game, so loading and fixing up units needs no locking
+        final ThreadLocal<Client> workerClient = ThreadLocal.withInitial(UnitUtil::createDummyClient);
+        // The tables shared by the unit parsers are built up front, so workers only read them
+        UnitUtil.prepareParallelLoading();
         final Object mkdirLock = new Object();
-        List<UnitData> unitDataList = Arrays.stream(meks)
-              .parallel()
-              .map(mekSummary -> {
-//                    if (!mekSummary.isBattleArmor()) return null;
-//                    if (mekSummary.getMulId() != 4513) return null;
-//                    logger.info("{}", mekSummary.getName());
-              Entity entity;
-              synchronized (loadEntityLock) {
-                  entity = mekSummary.loadEntity();
+        // A filtered export keeps the sheets of other runs, so its packs are named after its index files
+        final SheetPackWriter packWriter = packed ? new SheetPackWriter(sheetsDir, options.indexFileName("sheets"))
+              : null;
+        final SVGFragmentSharer fragmentSharer = shareFragments ? new SVGFragmentSharer(sheetsDir) : null;
+        final Function<MekSummary, ExportedUnit> processUnit = mekSummary -> {
+              final String unitKey = SVGExportManifest.unitKey(mekSummary);
+              final String unitHash = Objects.requireNonNullElse(SVGExportManifest.hashUnit(mekSummary), "");
+              SVGExportManifest.Entry previousEntry = manifest.reusable(unitKey, unitHash, sheetsDir);
+              if (previousEntry != null) {
+                  String name = previousEntry.unitData().path("name").asText();
+                  if (!processedFiles.add(name)) {
+                      logger.warn("Duplication detected! Hash {} already exists for {} {}", name,
+                            mekSummary.getFullChassis(), mekSummary.getModel());
+                      return null;
+                  }
+                  reusedUnitTypes.putIfAbsent(previousEntry.unitData().path("type").asText(), mekSummary);
+                  // Keep the statistics of the unit for when its sheets have to be rendered again
+                  statsCache.get(unitKey, unitHash);
+                  reusedCounter.incrementAndGet();
+                  return new ExportedUnit(unitKey, previousEntry);
               }
+              Entity entity = mekSummary.loadEntity();
               if ((entity == null) || (entity instanceof GunEmplacement)) {
                   return null;
               }
-              synchronized (updateUnitLock) {
-                  UnitUtil.updateLoadedUnit(entity);
-              }
+              UnitUtil.updateLoadedUnit(entity, workerClient.get());
               for (int i = 0; i < entity.getCrew().getSlotCount(); i++) {
                     entity.getCrew().setName("", i);
               }
               if (entity.getId() == -1) {
-                  synchronized (idLock) {
-                      entity.setId(entity.getGame().getNextEntityId());
-                  }
+                  entity.setId(entity.getGame().getNextEntityId());
               }
               String svgPath = FluffImageHelper.getFluffPath(entity)
                     .toLowerCase()
                     .replaceAll("[^a-zA-Z0-9_]", "");
               File sheetPath = new File(sheetsDir.getPath(), svgPath);
               synchronized (mkdirLock) {
-                  if (!sheetPath.exists() && !sheetPath.mkdirs()) {
+                  if ((packWriter == null) && !sheetPath.exists() && !sheetPath.mkdirs()) {
                       logger.error("Couldn't create folder {}", sheetPath);
                   }
               }
@@ -1633,8 +1861,15 @@ public class SVGMassPrinter {
                   return null;
               }
 
-              UnitData unitData = new UnitData(mekSummary, entity, recordSheetOptions);
+              UnitStatsCache.Stats cachedStats = statsCache.get(unitKey, unitHash);
+              UnitData unitData = new UnitData(mekSummary, entity, recordSheetOptions, cachedStats);
+              if (cachedStats == null) {
+                  statsCache.put(unitKey, unitHash, unitData.stats());
+              }
               unitData.name = name;
+              if (packWriter != null) {
+                  unitData.packed = new ArrayList<>();
+              }
               boolean isSmallUnit = entity.isBattleArmor() || entity.isProtoMek() || entity.isInfantry();
               try {
                   List<PrintRecordSheet> sheets = UnitPrintManager.createSheets(List.of(entity),
@@ -1644,7 +1879,7 @@ public class SVGMassPrinter {
                       logger.error("No sheets generated for {}", mekSummary.getName());
                       return null;
                   }
-                  if (SKIP_SVG) {
+                  if (options.isSkipSvg()) {
                       int pageCount = 0;
                       for (PrintRecordSheet sheet : sheets) {
                           pageCount += sheet.getPageCount();
@@ -1659,6 +1894,7 @@ public class SVGMassPrinter {
                   } else {
                       List<Document> svgDocs = new ArrayList<>();
                       for (PrintRecordSheet sheet : sheets) {
+                          PageFormat pf = new PageFormat();
                           pf.setPaper(paperDef.createPaper());
                           int pageCount = sheet.getPageCount();
                           for (int pageIndexInSheet = 0; pageIndexInSheet < pageCount; pageIndexInSheet++) {
@@ -1677,19 +1913,24 @@ public class SVGMassPrinter {
                       int idx = 0;
                       for (Document svgDoc : svgDocs) {
                           SVGOptimizer.optimize((SVGDocument) svgDoc);
-                          TransformerFactory transformerFactory = TransformerFactory.newInstance();
-                          Transformer transformer = transformerFactory.newTransformer();
-                          transformer.setOutputProperty(OutputKeys.INDENT, "no");
-                          transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-                          transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-                          transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+                          Transformer transformer = SVG_TRANSFORMER.get();
+                          if (fragmentSharer != null) {
+                              fragmentSharer.share(svgDoc, transformer);
+                          }
                           String baseSvgFilename = unitData.name + (idx > 0 ? "_" + idx : "");
                           String unoptimizedSvgFilename = baseSvgFilename + ".svg";
-                          File finalUnoptimizedFilename = new File(sheetPath, unoptimizedSvgFilename);
-                          try (FileOutputStream fos = new FileOutputStream(finalUnoptimizedFilename)) {
-                              DOMSource source = new DOMSource(svgDoc);
-                              StreamResult result = new StreamResult(fos);
-                              transformer.transform(source, result);
+                          if (packWriter != null) {
+                              ByteArrayOutputStream out = new ByteArrayOutputStream(SVG_BUFFER_SIZE);
+                              transformer.transform(new DOMSource(svgDoc), new StreamResult(out));
+                              unitData.packed.add(new PackedSheet(packWriter.write(out.toByteArray())));
+                          } else {
+                              File finalUnoptimizedFilename = new File(sheetPath, unoptimizedSvgFilename);
+                              try (OutputStream out = new BufferedOutputStream(
+                                    new FileOutputStream(finalUnoptimizedFilename), SVG_BUFFER_SIZE)) {
+                                  DOMSource source = new DOMSource(svgDoc);
+                                  StreamResult result = new StreamResult(out);
+                                  transformer.transform(source, result);
+                              }
                           }
 
                           String pathToSave = (svgPath + File.separator + unoptimizedSvgFilename).replace("\\",
@@ -1709,33 +1950,90 @@ public class SVGMassPrinter {
               if (!uniqueUnitTypes.containsKey(unitData.type)) {
                   uniqueUnitTypes.put(unitData.type, entity);
               }
-              return unitData;
-            })
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
-
-
-        try (FileWriter jsonWriter = new FileWriter(ROOT_FOLDER + File.separator + UNIT_FILE)) {
-            jsonWriter.write("{\"version\":" + timestamp + ",\n");
-            jsonWriter.write("\"units\":[\n");
-            boolean firstUnit = true;
-            for (UnitData unitData : unitDataList) {
-                String jsonLine = mapper.writeValueAsString(unitData);
-                if (!firstUnit) {
-                    jsonWriter.write(",\n");
+              return new ExportedUnit(unitKey, new SVGExportManifest.Entry(unitHash, List.copyOf(unitData.sheets),
+                    mapper.valueToTree(unitData)));
+        };
+        final AtomicLong busyNanos = new AtomicLong();
+        final long startNanos = System.nanoTime();
+        // Units are rendered in parallel, but written to the units file and the manifest in catalog order as they
+        // complete. Only a few units per thread are held in memory waiting to be written.
+        final int maxPending = parallelism * 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        int unitCount = 0;
+        try (packWriter;
+             UnitsFileWriter unitsWriter = new UnitsFileWriter(new File(rootFolder, options.indexFileName(UNIT_FILE)),
+                   timestamp, mapper)) {
+            manifest.open(manifestFile, mapper);
+            Deque<Future<ExportedUnit>> pending = new ArrayDeque<>();
+            for (MekSummary mekSummary : meks) {
+                pending.add(executor.submit(() -> {
+                    final long unitStart = System.nanoTime();
+                    try {
+                        return processUnit.apply(mekSummary);
+                    } finally {
+                        busyNanos.addAndGet(System.nanoTime() - unitStart);
+                    }
+                }));
+                if (pending.size() >= maxPending) {
+                    writeUnit(pending.poll(), unitsWriter, manifest);
                 }
-                jsonWriter.write(jsonLine);
-                firstUnit = false;
             }
-            jsonWriter.write("\n]}");
+            while (!pending.isEmpty()) {
+                writeUnit(pending.poll(), unitsWriter, manifest);
+            }
+            manifest.close();
+            statsCache.save(statsCacheFile, options.isFiltered());
+            unitCount = unitsWriter.getCount();
+            if (packWriter != null) {
+                logger.info("Packed the sheets into {} files.", packWriter.getPackCount());
+            }
+            if (fragmentSharer != null) {
+                logger.info("Wrote {} shared fragments.", fragmentSharer.getSharedCount());
+            }
         } catch (IOException e) {
-            logger.error("Failed to write JSON Lines file: {}", e.getMessage());
+            logger.error("Failed to write units file: {}", e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+        final long wallNanos = Math.max(System.nanoTime() - startNanos, 1);
+        logger.info("Generated {} units in {} s using {} threads; {} s of unit work, a {}x speedup over sequential"
+                    + " processing.", unitCount, String.format("%.1f", wallNanos / 1e9), parallelism,
+              String.format("%.1f", busyNanos.get() / 1e9), String.format("%.2f", (double) busyNanos.get() / wallNanos));
+        if (incremental) {
+            logger.info("Reused {} units from the previous export.", reusedCounter.get());
+            // The equipment export needs a loaded unit of each type
+            reusedUnitTypes.forEach((type, mekSummary) -> {
+                if (!uniqueUnitTypes.containsKey(type)) {
+                    Entity entity = mekSummary.loadEntity();
+                    if (entity != null) {
+                        UnitUtil.updateLoadedUnit(entity);
+                        uniqueUnitTypes.put(type, entity);
+                    }
+                }
+            });
+            // A filtered export leaves out units on purpose, so their sheets are not stale
+            if (!options.isFiltered()) {
+                for (String staleSheet : manifest.staleSheets()) {
+                    File staleFile = new File(sheetsDir, staleSheet);
+                    if (staleFile.exists() && !staleFile.delete()) {
+                        logger.warn("Failed to delete file: {}", staleFile.getPath());
+                    }
+                }
+            }
+            // Sheets that were deleted or written again may have been the last ones to use a shared fragment
+            if (fragmentSharer != null) {
+                try {
+                    logger.info("Removed {} unused shared fragments.", fragmentSharer.removeUnreferenced());
+                } catch (IOException e) {
+                    logger.error(e, "Failed to remove unused shared fragments");
+                }
+            }
         }
 
         logger.info("Processed {} units.", processedCounter.get());
 
         // Export Quirks
-        try (FileWriter quirksWriter = new FileWriter(ROOT_FOLDER + File.separator + "quirks.json")) {
+        try (FileWriter quirksWriter = new FileWriter(rootFolder + File.separator + "quirks.json")) {
             ResourceBundle quirksBundle = ResourceBundle.getBundle("megamek.common.options.messages");
             List<Map<String, String>> quirksList = new ArrayList<>();
 
@@ -1775,220 +2073,265 @@ public class SVGMassPrinter {
             logger.error("Failed to export quirks: {}", e.getMessage());
         }
 
-        if (!SKIP_EQUIPMENT) {
-            processedCount = 0;
-            Map<String, Map<String, Object>> equipmentJsonMap = new HashMap<>();
-            for (Map.Entry<String, Entity> entry : uniqueUnitTypes.entrySet()) {
-                String unitTypeKey = entry.getKey();
-                Entity entity = entry.getValue();
-                EquipmentTableModel equipmentTableModel = new EquipmentTableModel(entity, null);
-                equipmentTableModel.setData((ArrayList<EquipmentType>) EquipmentType.allTypes());
-                List<String> normalizedKeys = new ArrayList<>();
-                for (int j = 0; j < equipmentTableModel.getColumnCount(); j++) { // Skip column 0, is the name
-                    String key = equipmentTableModel.getColumnName(j);
-                    if ("Slots".equals(key)) {
-                        key = "Crit";
-                    }
-                    // Lowercase and remove non-alphanumeric characters
-                    key = key.toLowerCase().replaceAll("[^a-z0-9]", "");
-                    normalizedKeys.add(key);
-                }
-
-                Map<String, Object> equipmentMap = new HashMap<>();
-                for (int i = 0; i < equipmentTableModel.getRowCount(); i++) {
-                    EquipmentType eq = equipmentTableModel.getType(i);
-                    if (eq.getStaticTechLevel() == SimpleTechLevel.UNOFFICIAL) continue;
-                    Map<String, Object> rowMap = new HashMap<>();
-                    rowMap.put("internalName", eq.getInternalName());
-                    rowMap.put("name", eq.getName()); // Use full name
-                    rowMap.put("shortName", eq.getShortName());
-                    rowMap.put("level", eq.getStaticTechLevel().toString());
-                    TechBase techBase = eq.getTechBase();
-                    switch (techBase) {
-                        case IS -> rowMap.put("techBase", "IS");
-                        case CLAN -> rowMap.put("techBase", "Clan");
-                        case ALL -> rowMap.put("techBase", "All");
-                    }
-                    rowMap.put("cost", eq.getBaseCost() == EquipmentType.COST_VARIABLE ? "variable" : eq.getBaseCost());
-                    rowMap.put("bv", eq.getBaseBV() == EquipmentType.BV_VARIABLE ? "variable" : eq.getBaseBV());
-                    rowMap.put("tonnage", eq.getBaseTonnage() == EquipmentType.TONNAGE_VARIABLE ? "variable" : eq.getBaseTonnage());
-                    rowMap.put("rulesRefs", eq.getRulesRefs());
-                    String equipmentType = "equipment";
-                    if (eq instanceof WeaponType) {
-                        equipmentType = "weapon";
-                    } else if (eq instanceof AmmoType) {
-                        equipmentType = "ammo";
-                    } else if (eq instanceof MiscType) {
-                        equipmentType = "misc";
-                    }
-                    rowMap.put("type", equipmentType);
-                    rowMap.put("hittable", eq.isHittable()?1:0);
-                    rowMap.put("spreadable", eq.isSpreadable()?1:0);
-                    double critSlots = eq.getBaseCriticalSlots();
-                    rowMap.put("critSlots", critSlots == EquipmentType.CRITICAL_SLOTS_VARIABLE ? "variable" : critSlots);
-                    int tankSlots = eq.getTankSlots(null);
-                    rowMap.put("tankSlots", tankSlots == critSlots ? -1 : tankSlots);
-                    int svSlots = eq.getSupportVeeSlots(null);
-                    rowMap.put("svSlots", svSlots == critSlots ? -1 : svSlots);
-                    if (eq instanceof MiscType misc) {
-                        String[] flagStrings = eq.getFlags().getSetFlagNamesAsArray(MiscTypeFlag.class);
-                        rowMap.put("flags", flagStrings);
-                        rowMap.put("damageDivisor", misc.getDamageDivisor());
-                    } else if (eq instanceof WeaponType weapon) {
-                        String[] flagStrings = eq.getFlags().getSetFlagNamesAsArray(WeaponTypeFlag.class);
-                        rowMap.put("flags", flagStrings);
-                        rowMap.put("rackSize", weapon.getRackSize());
-                        rowMap.put("ammoType", weapon.getAmmoType().getName());
-                        rowMap.put("heat", weapon.getHeat());
-                        rowMap.put("damage", normalizeDamage(weapon));
-                        rowMap.put("ranges", new int[] {
-                              Math.max(weapon.getMinimumRange(), 0),
-                              weapon.getShortRange(),
-                              weapon.getMediumRange(),
-                              weapon.getLongRange(),
-                              weapon.getExtremeRange()
-                        });
-                        rowMap.put("wRanges", new int[] {
-                              Math.max(weapon.getMinimumRange(), 0),
-                              weapon.getWShortRange(),
-                              weapon.getWMediumRange(),
-                              weapon.getWLongRange(),
-                              weapon.getWExtremeRange()
-                        });
-                        rowMap.put("maxRange", weapon.getMaxRange());
-                        rowMap.put("av", new double[] {
-                              weapon.getShortAV(),
-                              weapon.getMedAV(),
-                              weapon.getLongAV(),
-                              weapon.getExtAV()
-                        });
-                        rowMap.put("capital", weapon.isCapital());
-                        rowMap.put("subCapital", weapon.isSubCapital());
-                    } else if (eq instanceof AmmoType ammo) {
-                        String[] flagStrings = eq.getFlags().getSetFlagNamesAsArray(AmmoTypeFlag.class);
-                        rowMap.put("flags", flagStrings);
-                        rowMap.put("ammoType", ammo.getAmmoType().getName());
-                        rowMap.put("category", ammo.getAmmoType().getCategory().name());
-                        rowMap.put("rackSize", ammo.getRackSize());
-                        rowMap.put("damagePerShot", ammo.getDamagePerShot());
-                        rowMap.put("shots", ammo.getShots());
-                        rowMap.put("kgPerShot", ammo.getKgPerShot());
-                        if (ammo.getBaseAmmo() != null) {
-                            rowMap.put("baseAmmo", ammo.getBaseAmmo().getInternalName());
+        if (!options.isSkipEquipment()) {
+            try {
+                writeEquipmentFile(new File(rootFolder, options.indexFileName(EQUIPMENT_FILE)), uniqueUnitTypes,
+                      timestamp, mapper, options.getThreads());
+                writeEquipmentDataFile(new File(rootFolder, options.indexFileName(EQUIPMENT_FILE2)), timestamp,
+                      mapper);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        System.exit(0);
+    }
+
+    // Columns of the equipment table that are the same for every unit type, or are exported in another form
+    private static final Set<Integer> SHARED_EQUIPMENT_COLUMNS = Set.of(EquipmentTableModel.COL_NAME,
+          EquipmentTableModel.COL_CRIT, EquipmentTableModel.COL_TECH_RATING, EquipmentTableModel.COL_DATE_PROTOTYPE,
+          EquipmentTableModel.COL_DATE_PRODUCTION, EquipmentTableModel.COL_DATE_COMMON,
+          EquipmentTableModel.COL_DATE_EXTINCT, EquipmentTableModel.COL_DATE_REINTRODUCED, EquipmentTableModel.COL_REF,
+          EquipmentTableModel.COL_TON, EquipmentTableModel.COL_TECH_LEVEL, EquipmentTableModel.COL_COST,
+          EquipmentTableModel.COL_BV, EquipmentTableModel.COL_TECH, EquipmentTableModel.COL_DIVISOR,
+          EquipmentTableModel.COL_RANGE, EquipmentTableModel.COL_MEDIUM_RANGE, EquipmentTableModel.COL_CREW);
+
+    /**
+     * Writes the equipment file, which has a record for each official equipment type for each unit type. The part of
+     * a record that does not depend on the unit type is built once per equipment type; only the unit type dependent
+     * columns of the equipment table are computed for each unit type, in parallel. The file is written to a temporary
+     * file as the unit types complete and moved into place once all are written. If any unit type fails, the export
+     * fails and the previous file is left as it is.
+     */
+    private static void writeEquipmentFile(File file, Map<String, Entity> unitTypeEntities, long timestamp,
+          ObjectMapper mapper, int threads) throws IOException {
+        final ArrayList<EquipmentType> equipment = new ArrayList<>();
+        for (EquipmentType eq : EquipmentType.allTypes()) {
+            if (eq.getStaticTechLevel() != SimpleTechLevel.UNOFFICIAL) {
+                equipment.add(eq);
+            }
+        }
+        final List<Map<String, Object>> baseRecords = equipment.parallelStream()
+              .map(SVGMassPrinter::getEquipmentBaseRecord)
+              .toList();
+
+        final EquipmentTableModel columnNames = new EquipmentTableModel(null, null);
+        final List<Integer> columns = new ArrayList<>();
+        final List<String> columnKeys = new ArrayList<>();
+        for (int j = 0; j < columnNames.getColumnCount(); j++) {
+            if (SHARED_EQUIPMENT_COLUMNS.contains(j)) {
+                continue;
+            }
+            String key = columnNames.getColumnName(j);
+            if ("Slots".equals(key)) {
+                key = "Crit";
+            }
+            columns.add(j);
+            // Lowercase and remove non-alphanumeric characters
+            columnKeys.add("_" + key.toLowerCase().replaceAll("[^a-z0-9]", ""));
+        }
+
+        final List<String> unitTypeKeys = unitTypeEntities.keySet().stream().sorted().toList();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final File tempFile = new File(file.getPath() + ".tmp");
+        int processedCount = 0;
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(tempFile, JsonEncoding.UTF8)) {
+            List<Future<Object[][]>> unitTypeValues = new ArrayList<>();
+            for (String unitTypeKey : unitTypeKeys) {
+                Entity entity = unitTypeEntities.get(unitTypeKey);
+                unitTypeValues.add(executor.submit(() -> {
+                    // The exported columns don't use the table's shared number formats, so models for different
+                    // unit types can be read at the same time
+                    EquipmentTableModel equipmentTableModel = new EquipmentTableModel(entity, null);
+                    equipmentTableModel.setData(equipment);
+                    Object[][] values = new Object[equipment.size()][columns.size()];
+                    for (int i = 0; i < equipment.size(); i++) {
+                        for (int c = 0; c < columns.size(); c++) {
+                            values[i][c] = equipmentTableModel.getValueAt(i, columns.get(c));
                         }
-                        rowMap.put("capital", ammo.isCapital());
-                        rowMap.put("ammoRatio", ammo.getAmmoRatio());
-                        rowMap.put("subMunition", ammo.getSubMunitionName());
-                        String[] munitionStrings = ammo.getMunitionType()
-                              .stream()
-                              .map(munition -> munition.name())
-                              .toArray(String[]::new);
-                        rowMap.put("munitionType", munitionStrings);
                     }
-                    for (int j = 0; j < equipmentTableModel.getColumnCount(); j++) {
-                        if (j == EquipmentTableModel.COL_NAME) {continue;}
-                        if (j == EquipmentTableModel.COL_CRIT) {continue;}
-                        if (j == EquipmentTableModel.COL_TECH_RATING) {continue;}
-                        if (j == EquipmentTableModel.COL_DATE_PROTOTYPE) {continue;}
-                        if (j == EquipmentTableModel.COL_DATE_PRODUCTION) {continue;}
-                        if (j == EquipmentTableModel.COL_DATE_COMMON) {continue;}
-                        if (j == EquipmentTableModel.COL_DATE_EXTINCT) {continue;}
-                        if (j == EquipmentTableModel.COL_DATE_REINTRODUCED) {continue;}
-                        if (j == EquipmentTableModel.COL_REF) {continue;}
-                        if (j == EquipmentTableModel.COL_TON) {continue;}
-                        if (j == EquipmentTableModel.COL_TECH_LEVEL) {continue;}
-                        if (j == EquipmentTableModel.COL_COST) {continue;}
-                        if (j == EquipmentTableModel.COL_BV) {continue;}
-                        if (j == EquipmentTableModel.COL_TECH) {continue;}
-                        if (j == EquipmentTableModel.COL_DIVISOR) {continue;}
-                        if (j == EquipmentTableModel.COL_RANGE) {continue;}
-                        if (j == EquipmentTableModel.COL_MEDIUM_RANGE) {continue;}
-                        if (j == EquipmentTableModel.COL_CREW) {continue;}
-
-                        String key = "_"+normalizedKeys.get(j);
-                        Object value = equipmentTableModel.getValueAt(i, j);
-                        rowMap.put(key, value);
+                    return values;
+                }));
+            }
+
+            generator.writeStartObject();
+            generator.writeNumberField("version", timestamp);
+            generator.writeObjectFieldStart("equipment");
+            for (int t = 0; t < unitTypeKeys.size(); t++) {
+                Object[][] values;
+                try {
+                    values = unitTypeValues.get(t).get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Failed to export equipment for " + unitTypeKeys.get(t), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while exporting equipment");
+                }
+                generator.writeObjectFieldStart(unitTypeKeys.get(t));
+                for (int i = 0; i < equipment.size(); i++) {
+                    generator.writeObjectFieldStart(equipment.get(i).getInternalName());
+                    for (Map.Entry<String, Object> field : baseRecords.get(i).entrySet()) {
+                        generator.writeObjectField(field.getKey(), field.getValue());
                     }
-                    rowMap.put("rating", Map.of(
-                          "is", eq.getFullRatingName(false),
-                          "clan", eq.getFullRatingName(true)
-                    ));
-                    rowMap.put("dates", Map.of(
-                          "is", Map.of(
-                                "t", eq.getTechAdvancement().getPrototypeDateName(false),
-                                "p", eq.getTechAdvancement().getProductionDateName(false),
-                                "c", eq.getTechAdvancement().getCommonDateName(false),
-                                "x", eq.getTechAdvancement().getExtinctionDateName(false),
-                                "r", eq.getTechAdvancement().getReintroductionDateName(false)
-                          ),
-                          "clan", Map.of(
-                                "t", eq.getTechAdvancement().getPrototypeDateName(true),
-                                "p", eq.getTechAdvancement().getProductionDateName(true),
-                                "c", eq.getTechAdvancement().getCommonDateName(true),
-                                "x", eq.getTechAdvancement().getExtinctionDateName(true),
-                                "r", eq.getTechAdvancement().getReintroductionDateName(true)
-                          ),
-                          "mixed", Map.of(
-                                "t", eq.getTechAdvancement().getPrototypeDateName(),
-                                "p", eq.getTechAdvancement().getProductionDateName(),
-                                "c", eq.getTechAdvancement().getCommonDateName(),
-                                "x", eq.getTechAdvancement().getExtinctionDateName(),
-                                "r", eq.getTechAdvancement().getReintroductionDateName()
-                          )
-                    ));
-                    equipmentMap.put(eq.getInternalName(), rowMap);
+                    for (int c = 0; c < columns.size(); c++) {
+                        generator.writeObjectField(columnKeys.get(c), values[i][c]);
+                    }
+                    generator.writeEndObject();
                     processedCount++;
                 }
-                equipmentJsonMap.put(unitTypeKey, equipmentMap);
-            }
-            Map<String, Object> rootJson = new LinkedHashMap<>();
-            rootJson.put("version", timestamp);
-            rootJson.put("equipment", equipmentJsonMap);
-
-            // Write with pretty printing
-            try (FileWriter jsonWriter = new FileWriter(ROOT_FOLDER + File.separator + EQUIPMENT_FILE)) {
-                mapper.writer().writeValue(jsonWriter, rootJson);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                generator.writeEndObject();
             }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Done. Processed {} equipments.", processedCount);
+    }
 
-
-//            try (FileWriter jsonWriter = new FileWriter(ROOT_FOLDER + File.separator + EQUIPMENT_FILE)) {
-//                jsonWriter.write("{\"version\":" + timestamp + ",\n");
-//                                jsonWriter.write("\"equipment\":{\n");
-//                                boolean firstType = true;
-//                                for (Map.Entry<String, Map<String, Object>> typeEntry : equipmentJsonMap.entrySet()) {
-//                                    if (!firstType) {
-//                                        jsonWriter.write(",\n");
-//                                    }
-//                                    jsonWriter.write("\"" + typeEntry.getKey() + "\":");
-//                                    String equipmentJson = mapper.writeValueAsString(typeEntry.getValue());
-//                                    jsonWriter.write(equipmentJson);
-//                                    firstType = false;
-//                                }
-//                                jsonWriter.write("\n}}");
-//            } catch (IOException e) {
-//                logger.error("Failed to write JSON Lines file: {}", e.getMessage());
-//            }
-            logger.info("Done. Processed {} equipments.", processedCount);
-
-            Map<String, Map<String, Object>> equipmentJsonMap2 = new HashMap<>();
+    /**
+     * Writes the equipment data file, a JSON file with the data of each official equipment type in the form used for
+     * its YAML definition.
+     */
+    private static void writeEquipmentDataFile(File file, long timestamp, ObjectMapper mapper) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeNumberField("version", timestamp);
+            generator.writeObjectFieldStart("equipment");
             for (EquipmentType equipmentType : EquipmentType.allTypes()) {
-                if (equipmentType.getStaticTechLevel() == SimpleTechLevel.UNOFFICIAL) continue;
-                equipmentJsonMap2.put(equipmentType.getInternalName(), equipmentType.getYamlData());
-            }
-            Map<String, Object> rootJson2 = new LinkedHashMap<>();
-            rootJson2.put("version", timestamp);
-            rootJson2.put("equipment", equipmentJsonMap2);
-
-            try (FileWriter jsonWriter = new FileWriter(ROOT_FOLDER + File.separator + EQUIPMENT_FILE2)) {
-                mapper.writer().writeValue(jsonWriter, rootJson2);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                if (equipmentType.getStaticTechLevel() == SimpleTechLevel.UNOFFICIAL) {
+                    continue;
+                }
+                generator.writeObjectField(equipmentType.getInternalName(), equipmentType.getYamlData());
             }
+            generator.writeEndObject();
+            generator.writeEndObject();
         }
+    }
 
-        System.exit(0);
+    /**
+     * @return The fields of the equipment file record of the equipment type that are the same for all unit types
+     */
+    private static Map<String, Object> getEquipmentBaseRecord(EquipmentType eq) {
+        Map<String, Object> rowMap = new LinkedHashMap<>();
+        rowMap.put("internalName", eq.getInternalName());
+        rowMap.put("name", eq.getName()); // Use full name
+        rowMap.put("shortName", eq.getShortName());
+        rowMap.put("level", eq.getStaticTechLevel().toString());
+        TechBase techBase = eq.getTechBase();
+        switch (techBase) {
+            case IS -> rowMap.put("techBase", "IS");
+            case CLAN -> rowMap.put("techBase", "Clan");
+            case ALL -> rowMap.put("techBase", "All");
+        }
+        rowMap.put("cost", eq.getBaseCost() == EquipmentType.COST_VARIABLE ? "variable" : eq.getBaseCost());
+        rowMap.put("bv", eq.getBaseBV() == EquipmentType.BV_VARIABLE ? "variable" : eq.getBaseBV());
+        rowMap.put("tonnage", eq.getBaseTonnage() == EquipmentType.TONNAGE_VARIABLE ? "variable" : eq.getBaseTonnage());
+        rowMap.put("rulesRefs", eq.getRulesRefs());
+        String equipmentType = "equipment";
+        if (eq instanceof WeaponType) {
+            equipmentType = "weapon";
+        } else if (eq instanceof AmmoType) {
+            equipmentType = "ammo";
+        } else if (eq instanceof MiscType) {
+            equipmentType = "misc";
+        }
+        rowMap.put("type", equipmentType);
+        rowMap.put("hittable", eq.isHittable()?1:0);
+        rowMap.put("spreadable", eq.isSpreadable()?1:0);
+        double critSlots = eq.getBaseCriticalSlots();
+        rowMap.put("critSlots", critSlots == EquipmentType.CRITICAL_SLOTS_VARIABLE ? "variable" : critSlots);
+        int tankSlots = eq.getTankSlots(null);
+        rowMap.put("tankSlots", tankSlots == critSlots ? -1 : tankSlots);
+        int svSlots = eq.getSupportVeeSlots(null);
+        rowMap.put("svSlots", svSlots == critSlots ? -1 : svSlots);
+        if (eq instanceof MiscType misc) {
+            String[] flagStrings = eq.getFlags().getSetFlagNamesAsArray(MiscTypeFlag.class);
+            rowMap.put("flags", flagStrings);
+            rowMap.put("damageDivisor", misc.getDamageDivisor());
+        } else if (eq instanceof WeaponType weapon) {
+            String[] flagStrings = eq.getFlags().getSetFlagNamesAsArray(WeaponTypeFlag.class);
+            rowMap.put("flags", flagStrings);
+            rowMap.put("rackSize", weapon.getRackSize());
+            rowMap.put("ammoType", weapon.getAmmoType().getName());
+            rowMap.put("heat", weapon.getHeat());
+            rowMap.put("damage", normalizeDamage(weapon));
+            rowMap.put("ranges", new int[] {
+                  Math.max(weapon.getMinimumRange(), 0),
+                  weapon.getShortRange(),
+                  weapon.getMediumRange(),
+                  weapon.getLongRange(),
+                  weapon.getExtremeRange()
+            });
+            rowMap.put("wRanges", new int[] {
+                  Math.max(weapon.getMinimumRange(), 0),
+                  weapon.getWShortRange(),
+                  weapon.getWMediumRange(),
+                  weapon.getWLongRange(),
+                  weapon.getWExtremeRange()
+            });
+            rowMap.put("maxRange", weapon.getMaxRange());
+            rowMap.put("av", new double[] {
+                  weapon.getShortAV(),
+                  weapon.getMedAV(),
+                  weapon.getLongAV(),
+                  weapon.getExtAV()
+            });
+            rowMap.put("capital", weapon.isCapital());
+            rowMap.put("subCapital", weapon.isSubCapital());
+        } else if (eq instanceof AmmoType ammo) {
+            String[] flagStrings = eq.getFlags().getSetFlagNamesAsArray(AmmoTypeFlag.class);
+            rowMap.put("flags", flagStrings);
+            rowMap.put("ammoType", ammo.getAmmoType().getName());
+            rowMap.put("category", ammo.getAmmoType().getCategory().name());
+            rowMap.put("rackSize", ammo.getRackSize());
+            rowMap.put("damagePerShot", ammo.getDamagePerShot());
+            rowMap.put("shots", ammo.getShots());
+            rowMap.put("kgPerShot", ammo.getKgPerShot());
+            if (ammo.getBaseAmmo() != null) {
+                rowMap.put("baseAmmo", ammo.getBaseAmmo().getInternalName());
+            }
+            rowMap.put("capital", ammo.isCapital());
+            rowMap.put("ammoRatio", ammo.getAmmoRatio());
+            rowMap.put("subMunition", ammo.getSubMunitionName());
+            String[] munitionStrings = ammo.getMunitionType()
+                  .stream()
+                  .map(munition -> munition.name())
+                  .toArray(String[]::new);
+            rowMap.put("munitionType", munitionStrings);
+        }
+        rowMap.put("rating", Map.of(
+              "is", eq.getFullRatingName(false),
+              "clan", eq.getFullRatingName(true)
+        ));
+        rowMap.put("dates", Map.of(
+              "is", Map.of(
+                    "t", eq.getTechAdvancement().getPrototypeDateName(false),
+                    "p", eq.getTechAdvancement().getProductionDateName(false),
+                    "c", eq.getTechAdvancement().getCommonDateName(false),
+                    "x", eq.getTechAdvancement().getExtinctionDateName(false),
+                    "r", eq.getTechAdvancement().getReintroductionDateName(false)
+              ),
+              "clan", Map.of(
+                    "t", eq.getTechAdvancement().getPrototypeDateName(true),
+                    "p", eq.getTechAdvancement().getProductionDateName(true),
+                    "c", eq.getTechAdvancement().getCommonDateName(true),
+                    "x", eq.getTechAdvancement().getExtinctionDateName(true),
+                    "r", eq.getTechAdvancement().getReintroductionDateName(true)
+              ),
+              "mixed", Map.of(
+                    "t", eq.getTechAdvancement().getPrototypeDateName(),
+                    "p", eq.getTechAdvancement().getProductionDateName(),
+                    "c", eq.getTechAdvancement().getCommonDateName(),
+                    "x", eq.getTechAdvancement().getExtinctionDateName(),
+                    "r", eq.getTechAdvancement().getReintroductionDateName()
+              )
+        ));
+        return rowMap;
     }
 
     private static String normalizeDamage(WeaponType weapon) {
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.batik.util.SVGConstants;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * An index of a record sheet template built in a single pass over the document, so that post-processing a page only
+ * visits the elements it changes instead of searching the whole document each time.
+ *
+ * <p>Elements are indexed by class through their ids. Each page is a copy of the cached template, and ids remain
+ * valid in every copy, which lets the index be cached together with the template. Class lookups are used to hide or
+ * show elements by id, so elements without an id are not indexed by class. The elements that set a font family are
+ * kept as references to the indexed document itself, for substituting the typeface in the template.</p>
+ */
+public final class SVGTemplateIndex {
+
+    private final Map<String, List<String>> idsByClass = new HashMap<>();
+    private final List<Element> fontElements = new ArrayList<>();
+
+    private SVGTemplateIndex() {}
+
+    /**
+     * Indexes the document in its current state.
+     *
+     * @param doc The document to index
+     *
+     * @return The index
+     */
+    public static SVGTemplateIndex build(Document doc) {
+        SVGTemplateIndex index = new SVGTemplateIndex();
+        Element root = doc.getDocumentElement();
+        if (root != null) {
+            index.add(root);
+        }
+        return index;
+    }
+
+    private void add(Element element) {
+        String id = element.getAttributeNS(null, SVGConstants.SVG_ID_ATTRIBUTE);
+        if (!id.isEmpty()) {
+            String classes = element.getAttributeNS(null, SVGConstants.SVG_CLASS_ATTRIBUTE);
+            if (!classes.isBlank()) {
+                for (String className : classes.trim().split("\\s+")) {
+                    idsByClass.computeIfAbsent(className, c -> new ArrayList<>()).add(id);
+                }
+            }
+        }
+        if (element.hasAttributeNS(null, SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)
+              || element.getAttributeNS(null, SVGConstants.SVG_STYLE_ATTRIBUTE).contains("font-family:")) {
+            fontElements.add(element);
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                add(childElement);
+            }
+        }
+    }
+
+    /**
+     * @param className A single class name
+     *
+     * @return The ids of all elements of the given class, in document order
+     */
+    public List<String> getIdsByClass(String className) {
+        return Collections.unmodifiableList(idsByClass.getOrDefault(className, Collections.emptyList()));
+    }
+
+    /**
+     * @return The elements of the indexed document that set a font family in an attribute or their style
+     */
+    public List<Element> getFontElements() {
+        return Collections.unmodifiableList(fontElements);
+    }
+}
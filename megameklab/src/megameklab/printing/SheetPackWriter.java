@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Packs the sheets written by {@link SVGMassPrinter} into a few large files instead of one file per sheet.
+ *
+ * <p>Each sheet is compressed as a separate gzip member and appended to a pack file. The location returned for a
+ * sheet is enough to fetch it on its own, e.g. with an HTTP range request, and decompress it. Every thread writes to
+ * its own pack, so writes are sequential and need no locking. A pack is closed and a new one started once it reaches
+ * {@link #MAX_PACK_SIZE}.</p>
+ */
+final class SheetPackWriter implements AutoCloseable {
+    static final long MAX_PACK_SIZE = 64L * 1024 * 1024;
+    private static final String PACK_NAME_FORMAT = "%s_%03d.pack";
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * The location of a sheet in a pack.
+     *
+     * @param pack   The file name of the pack
+     * @param offset The offset of the compressed sheet in the pack
+     * @param length The length of the compressed sheet
+     */
+    record Location(String pack, long offset, int length) {}
+
+    private static class Pack {
+        private final String name;
+        private final OutputStream out;
+        private long size = 0;
+
+        Pack(File directory, String name) throws IOException {
+            this.name = name;
+            this.out = new BufferedOutputStream(new FileOutputStream(new File(directory, name)), BUFFER_SIZE);
+        }
+    }
+
+    private final File directory;
+    private final String baseName;
+    private final AtomicInteger packCounter = new AtomicInteger(0);
+    private final List<Pack> packs = new ArrayList<>();
+    private final ThreadLocal<Pack> currentPack = new ThreadLocal<>();
+
+    /**
+     * @param directory The directory to write the packs to
+     * @param baseName  The start of the pack file names, which are numbered from {@code <baseName>_000.pack}. Runs
+     *                  that share the directory must use different names, so they do not overwrite each other's packs.
+     */
+    SheetPackWriter(File directory, String baseName) {
+        this.directory = directory;
+        this.baseName = baseName;
+    }
+
+    /**
+     * Compresses a sheet and appends it to the pack of the calling thread.
+     *
+     * @param svg The serialized sheet
+     *
+     * @return The location of the compressed sheet
+     */
+    Location write(byte[] svg) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(svg.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(svg);
+        }
+        Pack pack = currentPack.get();
+        if ((pack == null) || ((pack.size > 0) && (pack.size + compressed.size() > MAX_PACK_SIZE))) {
+            if (pack != null) {
+                pack.out.close();
+            }
+            pack = openPack();
+            currentPack.set(pack);
+        }
+        long offset = pack.size;
+        compressed.writeTo(pack.out);
+        pack.size += compressed.size();
+        return new Location(pack.name, offset, compressed.size());
+    }
+
+    private Pack openPack() throws IOException {
+        Pack pack = new Pack(directory, String.format(Locale.ROOT, PACK_NAME_FORMAT, baseName,
+              packCounter.getAndIncrement()));
+        synchronized (packs) {
+            packs.add(pack);
+        }
+        return pack;
+    }
+
+    /**
+     * @return The number of packs that have been started
+     */
+    int getPackCount() {
+        return packCounter.get();
+    }
+
+    /**
+     * Closes all packs. Must only be called once no thread is writing any more.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        synchronized (packs) {
+            for (Pack pack : packs) {
+                try {
+                    pack.out.close();
+                } catch (IOException ex) {
+                    failure = ex;
+                }
+            }
+            packs.clear();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import megamek.common.equipment.EquipmentType;
+import megamek.common.equipment.GunEmplacement;
+import megamek.common.equipment.Mounted;
+import megamek.common.loaders.MekSummary;
+import megamek.common.loaders.MekSummaryCache;
+import megamek.common.units.Entity;
+import megamek.logging.MMLogger;
+import megameklab.MMLOptions;
+import megameklab.util.CConfig;
+import megameklab.util.DamageSnapshot;
+import megameklab.util.UnitUtil;
+
+/**
+ * Compares the two ways of printing a damaged unit as undamaged, for each unit type: copying the unit with
+ * {@link UnitUtil#cloneUnit(Entity)} and resetting the copy, and clearing the damage of the unit itself with a
+ * {@link DamageSnapshot} and restoring it afterward. This is a developer tool; it is not part of the application.
+ *
+ * <p>Arguments: the number of units of each type to measure (default 20) and the number of rounds (default 5). The
+ * first round warms up the JIT and is not counted.</p>
+ */
+public class UnitCopyBenchmark {
+    private static final MMLogger logger = MMLogger.create(UnitCopyBenchmark.class);
+
+    public static void main(String[] args) {
+        int unitsPerType = (args.length > 0) ? Integer.parseInt(args[0]) : 20;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        Locale.setDefault(new MMLOptions().getLocale());
+        EquipmentType.initializeTypes();
+        CConfig.load();
+        MekSummaryCache cache = MekSummaryCache.getInstance(true);
+
+        Map<String, List<Entity>> unitsByType = new TreeMap<>();
+        for (MekSummary mekSummary : cache.getAllMeks()) {
+            List<Entity> units = unitsByType.computeIfAbsent(mekSummary.getUnitType(), type -> new ArrayList<>());
+            if (units.size() < unitsPerType) {
+                Entity entity = mekSummary.loadEntity();
+                if ((entity != null) && !(entity instanceof GunEmplacement)) {
+                    UnitUtil.updateLoadedUnit(entity);
+                    damage(entity);
+                    units.add(entity);
+                }
+            }
+        }
+
+        logger.info(String.format("%-24s %6s %12s %12s %8s", "Unit type", "Units", "Copy (us)", "Reset (us)",
+              "Speedup"));
+        for (Map.Entry<String, List<Entity>> entry : unitsByType.entrySet()) {
+            List<Entity> units = entry.getValue();
+            if (units.isEmpty()) {
+                continue;
+            }
+            long copyNanos = 0;
+            long resetNanos = 0;
+            for (int round = 0; round < rounds; round++) {
+                long copy = timeCopy(units);
+                long reset = timeReset(units);
+                if (round > 0) {
+                    copyNanos += copy;
+                    resetNanos += reset;
+                }
+            }
+            int measured = Math.max(1, rounds - 1) * units.size();
+            double copyMicros = copyNanos / 1000.0 / measured;
+            double resetMicros = resetNanos / 1000.0 / measured;
+            logger.info(String.format("%-24s %6d %12.1f %12.1f %7.0fx", entry.getKey(), units.size(), copyMicros,
+                  resetMicros, (resetMicros > 0) ? copyMicros / resetMicros : 0));
+        }
+        System.exit(0);
+    }
+
+    private static long timeCopy(List<Entity> units) {
+        long start = System.nanoTime();
+        for (Entity entity : units) {
+            Entity copy = UnitUtil.cloneUnit(entity);
+            if (copy != null) {
+                UnitUtil.resetUnit(copy);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timeReset(List<Entity> units) {
+        long start = System.nanoTime();
+        for (Entity entity : units) {
+            DamageSnapshot.resetUnit(entity).restore();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Gives the unit some armor damage and a hit on its first piece of equipment, so that it counts as damaged.
+     */
+    private static void damage(Entity entity) {
+        for (int loc = 0; loc < entity.locations(); loc++) {
+            if (entity.getOArmor(loc) > 0) {
+                entity.setArmor(entity.getOArmor(loc) / 2, loc);
+            }
+        }
+        List<Mounted<?>> equipment = entity.getEquipment();
+        if (!equipment.isEmpty()) {
+            equipment.get(0).setHit(true);
+        }
+    }
+
+    private UnitCopyBenchmark() {
+        throw new IllegalStateException();
+    }
+}
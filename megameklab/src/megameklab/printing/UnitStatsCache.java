@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import megamek.common.annotations.Nullable;
+import megamek.common.options.GameOptions;
+import megamek.common.options.IOption;
+import megamek.common.options.IOptionGroup;
+import megamek.logging.MMLogger;
+
+/**
+ * Keeps the derived values of units that are expensive to compute, such as the battle value, cost, Alpha Strike
+ * conversion and sustained damage, between runs of {@link SVGMassPrinter}. The values of a unit are reused as long as
+ * its unit file is unchanged, so a unit whose sheets have to be rendered again does not need its statistics computed
+ * again.
+ *
+ * <p>Entries are keyed by the unit file and the hash of its content. The whole cache is discarded when the code
+ * version or build or the game options change, as these affect all values. The cache is stored in a compact binary
+ * format: numeric values are written directly and the structured values as JSON, all in a gzip stream.</p>
+ */
+final class UnitStatsCache {
+    private static final MMLogger logger = MMLogger.create(UnitStatsCache.class);
+
+    static final String CACHE_FILE = "stats-cache.bin";
+    private static final int MAGIC = 0x4D4D4C53;
+    private static final int FORMAT_VERSION = 1;
+    private static final TypeReference<Map<String, Object>> EXTRAS_TYPE = new TypeReference<>() {};
+    private static final String KEY_AS = "as";
+    private static final String KEY_QUIRKS = "quirks";
+    private static final String KEY_FLUFF = "fluff";
+
+    /**
+     * The cached values of one unit.
+     *
+     * @param bv     The battle value, without skill modifiers
+     * @param cost   The cost in C-Bills
+     * @param dpt    The sustained damage per turn
+     * @param as     The Alpha Strike values, or {@code null} if the unit cannot be converted
+     * @param quirks The quirks of the unit
+     * @param fluff  The fluff attributes of the unit
+     */
+    record Stats(int bv, long cost, double dpt, @Nullable Map<String, Object> as, List<String> quirks,
+          Map<String, Object> fluff) {}
+
+    private record CachedStats(String unitHash, Stats stats) {}
+
+    private final String statsKey;
+    private final ObjectMapper mapper;
+    private final Map<String, CachedStats> previous;
+    private final Map<String, CachedStats> current = new ConcurrentHashMap<>();
+
+    private UnitStatsCache(String statsKey, ObjectMapper mapper, Map<String, CachedStats> previous) {
+        this.statsKey = statsKey;
+        this.mapper = mapper;
+        this.previous = new ConcurrentHashMap<>(previous);
+    }
+
+    /**
+     * Loads the cache written by a previous run. Entries are only kept if the previous run used the same stats key.
+     *
+     * @param file     The cache file; it does not need to exist
+     * @param statsKey The stats key of this run, from {@link #statsKey(GameOptions)}
+     * @param mapper   The mapper to read the structured values with
+     *
+     * @return The cache
+     */
+    static UnitStatsCache load(File file, String statsKey, ObjectMapper mapper) {
+        final Map<String, CachedStats> previous = new HashMap<>();
+        if (file.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                  new GZIPInputStream(new FileInputStream(file))))) {
+                if ((in.readInt() == MAGIC) && (in.readInt() == FORMAT_VERSION) && statsKey.equals(in.readUTF())) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String unitKey = in.readUTF();
+                        String unitHash = in.readUTF();
+                        int bv = in.readInt();
+                        long cost = in.readLong();
+                        double dpt = in.readDouble();
+                        byte[] json = new byte[in.readInt()];
+                        in.readFully(json);
+                        previous.put(unitKey, new CachedStats(unitHash, readStats(bv, cost, dpt, json, mapper)));
+                    }
+                } else {
+                    logger.info("The code or game options have changed since the last run; unit statistics will be "
+                          + "computed");
+                }
+            } catch (IOException ex) {
+                logger.warn("Could not read unit statistics cache {}; unit statistics will be computed", file);
+                previous.clear();
+            }
+        }
+        return new UnitStatsCache(statsKey, mapper, previous);
+    }
+
+    /**
+     * @return A cache without previous entries
+     */
+    static UnitStatsCache empty(String statsKey, ObjectMapper mapper) {
+        return new UnitStatsCache(statsKey, mapper, new HashMap<>());
+    }
+
+    /**
+     * Returns the cached values of the unit if its unit file has not changed. This may be called from several threads
+     * at once.
+     *
+     * @param unitKey  The key of the unit, from {@link SVGExportManifest#unitKey}
+     * @param unitHash The hash of the unit file, from {@link SVGExportManifest#hashUnit}
+     *
+     * @return The cached values, or {@code null} if they have to be computed
+     */
+    @Nullable
+    Stats get(String unitKey, String unitHash) {
+        CachedStats cached = current.get(unitKey);
+        if (cached == null) {
+            cached = previous.remove(unitKey);
+            if (cached == null) {
+                return null;
+            }
+            current.put(unitKey, cached);
+        }
+        return cached.unitHash().equals(unitHash) ? cached.stats() : null;
+    }
+
+    /**
+     * Stores the values of the unit. Units whose file could not be hashed are not cached. This may be called from
+     * several threads at once.
+     */
+    void put(String unitKey, String unitHash, Stats stats) {
+        if (!unitHash.isEmpty()) {
+            current.put(unitKey, new CachedStats(unitHash, stats));
+        }
+    }
+
+    /**
+     * Writes the cache for the next run. The file is written to a temporary file first and then moved into place.
+     *
+     * @param file       The cache file
+     * @param keepUnused Whether to keep the entries of the previous run that were not used in this run, for runs that
+     *                   only export some of the units
+     */
+    void save(File file, boolean keepUnused) throws IOException {
+        Map<String, CachedStats> entries = new HashMap<>(current);
+        if (keepUnused) {
+            previous.forEach(entries::putIfAbsent);
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+              new GZIPOutputStream(new FileOutputStream(tempFile))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(statsKey);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, CachedStats> entry : entries.entrySet()) {
+                Stats stats = entry.getValue().stats();
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().unitHash());
+                out.writeInt(stats.bv());
+                out.writeLong(stats.cost());
+                out.writeDouble(stats.dpt());
+                Map<String, Object> extras = new HashMap<>();
+                extras.put(KEY_AS, stats.as());
+                extras.put(KEY_QUIRKS, stats.quirks());
+                extras.put(KEY_FLUFF, stats.fluff());
+                byte[] json = mapper.writeValueAsBytes(extras);
+                out.writeInt(json.length);
+                out.write(json);
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Stats readStats(int bv, long cost, double dpt, byte[] json, ObjectMapper mapper)
+          throws IOException {
+        Map<String, Object> extras = mapper.readValue(json, EXTRAS_TYPE);
+        return new Stats(bv, cost, dpt, (Map<String, Object>) extras.get(KEY_AS),
+              (List<String>) extras.get(KEY_QUIRKS), (Map<String, Object>) extras.get(KEY_FLUFF));
+    }
+
+    /**
+     * Builds the key for the inputs that affect the values of all units: the code version and build and the game
+     * options.
+     *
+     * @param options The game options the units are loaded with
+     *
+     * @return The stats key
+     */
+    static String statsKey(GameOptions options) {
+        MessageDigest digest = SVGExportManifest.newDigest();
+        digest.update(SVGExportManifest.codeRevision().getBytes(StandardCharsets.UTF_8));
+        for (Enumeration<IOptionGroup> groups = options.getGroups(); groups.hasMoreElements(); ) {
+            for (Enumeration<IOption> groupOptions = groups.nextElement().getOptions();
+                  groupOptions.hasMoreElements(); ) {
+                IOption option = groupOptions.nextElement();
+                digest.update((option.getName() + '=' + option.getValue() + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return SVGExportManifest.toHex(digest.digest());
+    }
+}
@@ -386,10 +386,16 @@ public class ForceBuildUI extends JFrame implements ListSelectionListener, Actio
         refreshTableContent();
     }
 
+    /**
+     * Updates the total BV label from the BV column, after the BV of a single unit has changed. The BV of the other
+     * units does not depend on the skills of that unit, so they are not calculated again.
+     */
     private void updateTotalBVLabelOnly() {
         int totalBV = 0;
-        for (Entity entity : forceList) {
-            totalBV += entity.calculateBattleValue();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (tableModel.getValueAt(row, COL_BV) instanceof Integer bv) {
+                totalBV += bv;
+            }
         }
         totalBVLabel.setText("Total BV: " + totalBV);
     }
@@ -353,6 +353,11 @@ public class PrintQueueDialog extends AbstractMMLButtonDialog {
         CConfig.setParam(CConfig.PQ_DAMAGE, String.valueOf(showDamageCheck.isSelected()));
         CConfig.saveConfig();
 
+        // Units loaded from a MUL belong to this dialog, which is closed once the job starts. The preview lets go of
+        // them first, so the job can clear their damage in place instead of copying them.
+        if (fromMul) {
+            recordSheetPanel.setEntities(null);
+        }
         if (printToPdf) {
             File exportFile;
             if (mulFileName.isBlank()) {
@@ -362,12 +367,12 @@ public class PrintQueueDialog extends AbstractMMLButtonDialog {
                       FilenameUtils.removeExtension(mulFileName) + ".pdf");
             }
             if (exportFile != null) {
-                UnitPrintManager.exportUnits(units, exportFile, oneUnitPerSheetCheck.isSelected(), options);
+                UnitPrintManager.exportUnits(units, exportFile, oneUnitPerSheetCheck.isSelected(), options, fromMul);
             } else {
                 return;
             }
         } else {
-            if (!UnitPrintManager.printAllUnits(units, oneUnitPerSheetCheck.isSelected(), options)) {
+            if (!UnitPrintManager.printAllUnits(units, oneUnitPerSheetCheck.isSelected(), options, fromMul)) {
                 return;
             }
         }
@@ -80,6 +80,7 @@ class ExportSettingsPanel extends JPanel {
     private final JCheckBox chkTacOpsHeat = new JCheckBox();
     private final JComboBox<String> cbRSScale = new JComboBox<>();
     private final IntRangeTextField txtScale = new IntRangeTextField(3);
+    private final IntRangeTextField txtExportThreads = new IntRangeTextField(3);
     private final MMComboBox<MekChassisArrangement> mekChassis =
           new MMComboBox<>("Mek Names", MekChassisArrangement.values());
     private final JCheckBox chkRowShading = new JCheckBox();
@@ -334,6 +335,15 @@ class ExportSettingsPanel extends JPanel {
         scalePanel.add(txtScale);
         scalePanel.add(cbRSScale);
 
+        txtExportThreads.setMinimum(1);
+        txtExportThreads.setMaximum(64);
+        txtExportThreads.setText(Integer.toString(CConfig.exportThreads()));
+        txtExportThreads.setToolTipText(resourceMap.getString("ConfigurationDialog.txtExportThreads.tooltip"));
+        JPanel exportThreadsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        exportThreadsPanel.add(new JLabel(resourceMap.getString("ConfigurationDialog.txtExportThreads.text")));
+        exportThreadsPanel.add(Box.createHorizontalStrut(25));
+        exportThreadsPanel.add(txtExportThreads);
+
         JPanel damagePanel = new JPanel(new GridBagLayout());
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.fill = GridBagConstraints.BOTH;
@@ -377,9 +387,10 @@ class ExportSettingsPanel extends JPanel {
         gridPanel.add(innerGridPanel);
         gridPanel.add(mekNameLine);
         gridPanel.add(scalePanel);
+        gridPanel.add(exportThreadsPanel);
 
         SpringUtilities.makeCompactGrid(innerGridPanel, 11, 2, 0, 0, 15, 6);
-        SpringUtilities.makeCompactGrid(gridPanel, 8, 1, 0, 0, 15, 6);
+        SpringUtilities.makeCompactGrid(gridPanel, 9, 1, 0, 0, 15, 6);
         gridPanel.setBorder(new EmptyBorder(20, 30, 20, 30));
         setLayout(new FlowLayout(FlowLayout.LEFT));
         add(gridPanel);
@@ -451,6 +462,8 @@ class ExportSettingsPanel extends JPanel {
               Objects.requireNonNull(comboHeatScaleMarker.getSelectedItem()).name());
         recordSheetSettings.put(CConfig.RS_EXTRA_PHYSICALS, Boolean.toString(chkExtraPhysicals.isSelected()));
         recordSheetSettings.put(CConfig.RS_FANCY_PIPS, Boolean.toString(chkFancyPips.isSelected()));
+        recordSheetSettings.put(CConfig.RS_EXPORT_THREADS,
+              Integer.toString(txtExportThreads.getIntVal(CConfig.exportThreads())));
         return recordSheetSettings;
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+
+package megameklab.ui.generalUnit;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import megamek.common.annotations.Nullable;
+import org.apache.batik.gvt.GraphicsNode;
+
+/**
+ * Holds the rendered tiles of record sheet preview pages. The cache has a memory budget and evicts the least recently
+ * used tiles when it is exceeded. Tiles belong to the graphics node they were rendered from, so tiles of a page that
+ * has been regenerated are never mistaken for the current content.
+ */
+class PreviewTileCache {
+
+    /**
+     * Identifies a tile by the page content, the zoom it was rendered at and its position in the grid of tiles
+     * covering the page.
+     */
+    record TileKey(GraphicsNode node, double zoom, int column, int row) {}
+
+    private final long maxBytes;
+    private long bytes = 0;
+    private final Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * @param maxBytes The approximate amount of memory the tiles may use
+     */
+    PreviewTileCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized @Nullable BufferedImage get(TileKey key) {
+        return tiles.get(key);
+    }
+
+    synchronized void put(TileKey key, BufferedImage tile) {
+        BufferedImage previous = tiles.put(key, tile);
+        if (previous != null) {
+            bytes -= sizeOf(previous);
+        }
+        bytes += sizeOf(tile);
+        Iterator<BufferedImage> iterator = tiles.values().iterator();
+        while ((bytes > maxBytes) && (tiles.size() > 1) && iterator.hasNext()) {
+            BufferedImage evicted = iterator.next();
+            bytes -= sizeOf(evicted);
+            evicted.flush();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Discards all tiles rendered from the given node.
+     */
+    synchronized void removeNode(@Nullable GraphicsNode node) {
+        if (node != null) {
+            removeIf(key -> key.node() == node);
+        }
+    }
+
+    /**
+     * Discards the tiles whose keys match the filter.
+     */
+    synchronized void removeIf(Predicate<TileKey> filter) {
+        Iterator<Map.Entry<TileKey, BufferedImage>> iterator = tiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TileKey, BufferedImage> entry = iterator.next();
+            if (filter.test(entry.getKey())) {
+                bytes -= sizeOf(entry.getValue());
+                entry.getValue().flush();
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        tiles.values().forEach(BufferedImage::flush);
+        tiles.clear();
+        bytes = 0;
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+}
@@ -50,17 +50,19 @@ import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
@@ -74,17 +76,23 @@ import megamek.common.units.BTObject;
 import megamek.common.units.Entity;
 import megamek.logging.MMLogger;
 import megameklab.printing.PaperSize;
+import megameklab.printing.PlannedSheet;
 import megameklab.printing.PrintRecordSheet;
 import megameklab.printing.PrintSmallUnitSheet;
 import megameklab.printing.RecordSheetOptions;
+import megameklab.printing.SVGDocumentPatcher;
 import megameklab.util.UnitPrintManager;
+import megameklab.util.UnitUtil;
 import org.apache.batik.ext.awt.RenderingHintsKeyExt;
 import org.apache.batik.ext.awt.image.GraphicsUtil;
 import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.gvt.RootGraphicsNode;
+import org.apache.batik.gvt.UpdateTracker;
+import org.w3c.dom.Document;
 
 /**
  * Simply fills itself with the record sheet for the given unit. Uses background rendering for
- *       performance, rendering each page independently.
+ *       performance, rendering each page independently. Pages are only built when they come near the view.
  */
 public class RecordSheetPreviewPanel extends JPanel {
     private static final MMLogger logger = MMLogger.create(RecordSheetPreviewPanel.class);
@@ -128,10 +136,15 @@ public class RecordSheetPreviewPanel extends JPanel {
     }
 
     private static class SheetPageInfo {
-        GraphicsNode graphicsNode; // The raw Batik node for this page
+        volatile PlannedSheet plan; // The sheet this page belongs to, built when the page comes near the view
+        volatile GraphicsNode graphicsNode; // The raw Batik node for this page, null until the page is built
+        volatile GraphicsNode previousNode = null; // Replaced node, its tiles are shown until the new ones are ready
+        volatile Document document; // The live document the node was built from, kept up to date by in-place updates
+        Rectangle2D changedArea = null; // Area changed by in-place updates of the live document, not yet rendered
         final int originalSheetIndex; // Index of the PrintRecordSheet this page belongs to
         final int pageIndexInSheet; // Index of this page within its PrintRecordSheet
         final int globalPageIndex; // Overall index across all pages
+        final PaperSize paperSize; // The paper the page is laid out on
         final double baseWidthPx; // Original width of the page in pixels (unscaled)
         final double baseHeightPx; // Original height of the page in pixels (unscaled)
 
@@ -144,13 +157,14 @@ public class RecordSheetPreviewPanel extends JPanel {
         // zoom)
         Point2D.Double layoutPosition = new Point2D.Double(0, 0);
 
-        SheetPageInfo(GraphicsNode node, int sheetIdx, int pageIdx, int globalIdx, double width, double height) {
-            this.graphicsNode = node;
+        SheetPageInfo(PlannedSheet plan, int sheetIdx, int pageIdx, int globalIdx, PaperSize paperSize) {
+            this.plan = plan;
             this.originalSheetIndex = sheetIdx;
             this.pageIndexInSheet = pageIdx;
             this.globalPageIndex = globalIdx;
-            this.baseWidthPx = width;
-            this.baseHeightPx = height;
+            this.paperSize = paperSize;
+            this.baseWidthPx = paperSize.pxWidth;
+            this.baseHeightPx = paperSize.pxHeight;
             this.cachedImage = new SoftReference<>(null);
         }
 
@@ -169,6 +183,17 @@ public class RecordSheetPreviewPanel extends JPanel {
         boolean hasValidCacheForZoom(double targetZoom) {
             return cachedImage != null && cachedImage.get() != null && Math.abs(imageRenderZoom - targetZoom) < 0.001;
         }
+
+        /**
+         * @return The estimated memory taken by the document, node and image of this page, 0 if it isn't built
+         */
+        long estimatedBytes() {
+            if (graphicsNode == null) {
+                return 0;
+            }
+            BufferedImage image = (cachedImage != null) ? cachedImage.get() : null;
+            return ESTIMATED_PAGE_BYTES + ((image != null) ? 4L * image.getWidth() * image.getHeight() : 0);
+        }
     }
 
     private class RightClickListener extends MouseAdapter {
@@ -196,14 +221,25 @@ public class RecordSheetPreviewPanel extends JPanel {
         }
     }
 
-    // Zoom and pan state
+    /**
+     * @deprecated The preview no longer limits the number of units; pages are built as they come near the view.
+     */
+    @Deprecated(forRemoval = true)
     public static final int MAX_PREVIEW_ENTITIES = 30;
+
+    // Zoom and pan state
     private final double DEFAULT_MIN_ZOOM = 0.1;
     private final double MAX_ZOOM = 4.0;
     private final double ZOOM_STEP = 0.2;
     private final double CLIPBOARD_ZOOM_SCALE = 4.0;
     private final int SPACE_BETWEEN_PAGES = 10; // Space between pages in pixels
     private final int DEFAULT_MARGINS = 5; // Default margins for the page
+    private static final int TILE_SIZE = 256; // Size of the square tiles pages are rendered in above full page zoom
+    private static final double MAX_FULL_PAGE_ZOOM = 1.0; // Highest zoom at which a page is rendered as one image
+    private static final long TILE_CACHE_BYTES = 128L * 1024 * 1024; // Memory budget for rendered tiles
+    private static final int PRELOAD_PAGES = 2; // Pages built ahead of the view on each side
+    private static final long ESTIMATED_PAGE_BYTES = 8L * 1024 * 1024; // Estimated size of a page document and node
+    private static final long BUILT_PAGES_BYTES = 256L * 1024 * 1024; // Memory budget for pages far from the view
 
     private volatile double minZoom = DEFAULT_MIN_ZOOM; // Minimum zoom
     private volatile double minFitZoom = 1.0; // Minimum zoom to fit content
@@ -213,7 +249,8 @@ public class RecordSheetPreviewPanel extends JPanel {
     private boolean isPanning = false;
     private boolean fullAsyncMode = false; // useful async mode for rendering (good for view only)
     private volatile boolean isHighQualityPaint = true;
-    private final AffineTransform paintTransform = new AffineTransform(); // Reusable transform for clipboard painting
+    private final PreviewTileCache tileCache = new PreviewTileCache(TILE_CACHE_BYTES);
+    private final Map<PreviewTileCache.TileKey, Future<?>> pendingTiles = new ConcurrentHashMap<>();
 
     // Record Sheet Data & Caching
     private boolean oneUnitPerSheet = false;
@@ -221,10 +258,11 @@ public class RecordSheetPreviewPanel extends JPanel {
     private Boolean showPilotData = null;
     private Boolean showDamage = null;
     private List<BTObject> currentEntities = Collections.emptyList();
+    private Entity editedUnit = null; // The unit open in the editor, which changes while its sheets are generated
     private final List<SheetPageInfo> sheetPages = Collections.synchronizedList(new ArrayList<>());
-    private List<PrintRecordSheet> generatedSheets = null; // Cache generated sheets for clipboard
     private final ReentrantLock sheetGenerationLock = new ReentrantLock(); // Lock for sheet generation
     private int lastRegenerationEntitiesCount = 0; // Track last regeneration entities count for repaint optimization
+    private final AtomicInteger generationVersion = new AtomicInteger(); // To discard stale sheet generations
 
     // Timers for debouncing actions
     private Timer resetViewTimer;
@@ -285,7 +323,7 @@ public class RecordSheetPreviewPanel extends JPanel {
                 isHighQualityPaint = true;
                 repaint();
                 updateScrollbars();
-                requestRenderForAllPages();
+                requestRenderForVisiblePages();
             }
         });
         vScrollBar.addAdjustmentListener(e -> {
@@ -300,7 +338,7 @@ public class RecordSheetPreviewPanel extends JPanel {
                 isHighQualityPaint = true;
                 repaint();
                 updateScrollbars();
-                requestRenderForAllPages();
+                requestRenderForVisiblePages();
             }
         });
         addMouseListener(new RightClickListener());
@@ -324,7 +362,7 @@ public class RecordSheetPreviewPanel extends JPanel {
         regenerateTimer.setRepeats(false);
         zoomRenderDebounceTimer = new Timer(ZOOM_RENDER_DEBOUNCE_DELAY, e -> {
             zoomRenderDebounceTimer.stop();
-            requestRenderForAllPages(); // Request render for all pages after zoom stops
+            requestRenderForVisiblePages(); // Request render for the visible pages after zoom stops
         });
         zoomRenderDebounceTimer.setRepeats(false);
 
@@ -352,7 +390,7 @@ public class RecordSheetPreviewPanel extends JPanel {
                                         minFitZoom = calculateMinimumFitZoom();
                                         if (zoomFactor < minFitZoom) {
                                             zoomFactor = minFitZoom; // Reset zoom to fit
-                                            requestRenderForAllPages();
+                                            requestRenderForVisiblePages();
                                         }
                                     }
                             }
@@ -374,6 +412,8 @@ public class RecordSheetPreviewPanel extends JPanel {
                 // If we were fitted or zoomed out further, reset view to re-fit
                 if (zoomFactor <= oldMinFitZoom + 0.01) {
                     scheduleResetView();
+                } else {
+                    zoomRenderDebounceTimer.restart(); // More pages may be in view
                 }
             }
         });
@@ -484,8 +524,8 @@ public class RecordSheetPreviewPanel extends JPanel {
                     isPanning = false;
                     lastMousePoint = null;
                     isHighQualityPaint = true;
-                    repaint();
                     updateScrollbars();
+                    requestRenderForVisiblePages(); // Builds the pages panned into view
                 }
             }
 
@@ -640,6 +680,11 @@ public class RecordSheetPreviewPanel extends JPanel {
      * @param selectedEntities The list of entities to display.
      */
     public void setEntities(List<? extends BTObject> selectedEntities) {
+        setEntities(selectedEntities, null);
+    }
+
+    private void setEntities(List<? extends BTObject> selectedEntities, Entity editedUnit) {
+        this.editedUnit = editedUnit;
         List<BTObject> processedEntities;
         if (selectedEntities == null) {
             processedEntities = Collections.emptyList();
@@ -657,11 +702,12 @@ public class RecordSheetPreviewPanel extends JPanel {
     }
 
     /**
-     * Set a single entity to be displayed in the record sheet preview.
+     * Set a single entity to be displayed in the record sheet preview. Unless the preview is in full async mode, the
+     * unit is taken to be open in the editor.
      *
      */
     public void setEntity(Entity entity) {
-        setEntities(entity == null ? null : List.of(entity));
+        setEntities(entity == null ? null : List.of(entity), entity);
     }
 
     // Helper to compare entity lists
@@ -701,7 +747,6 @@ public class RecordSheetPreviewPanel extends JPanel {
         }
         scheduledAction = ScheduledAction.NONE;
         cleanupPageTasksAndData(); // Cancel tasks, clear page list
-        generatedSheets = null; // Clear cached sheets
 
         if (currentEntities.isEmpty()) {
             minFitZoom = 1.0; // Reset fit zoom
@@ -719,8 +764,13 @@ public class RecordSheetPreviewPanel extends JPanel {
             if (lastRegenerationEntitiesCount != currentEntities.size()) {
                 repaint(); // Trigger a repaint to show placeholders while generating
             }
+            final int version = generationVersion.incrementAndGet();
+            final List<BTObject> entities = snapshotEntities();
+            final RecordSheetOptions options = getRecordSheetOptions();
             renderExecutor.submit(() -> {
-                generateSheetPages(currentEntities);
+                if (!generateSheetPages(entities, options, version)) {
+                    return; // A newer generation replaces this one
+                }
                 lastRegenerationEntitiesCount = currentEntities.size(); // Update last regeneration count
                 if (isInitialRender) {
                     isInitialRender = false;
@@ -733,7 +783,7 @@ public class RecordSheetPreviewPanel extends JPanel {
                     panOffset.setLocation(
                           constrainPanX(panOffset.getX()),
                           constrainPanY(panOffset.getY()));
-                    requestRenderForAllPages();
+                    requestRenderForVisiblePages();
                 }
             });
         } else {
@@ -760,104 +810,161 @@ public class RecordSheetPreviewPanel extends JPanel {
     }
 
     /**
-     * Generates the PrintRecordSheet objects and populates the sheetPages list.
+     * Takes the units to generate sheets for in the background. The unit open in the editor is changed on the EDT at
+     * any time, so its sheets are generated from a copy taken here on the EDT. Other units are not changed while they
+     * are previewed and are used as they are. Must be called on the EDT.
      */
-    private void generateSheetPages(List<BTObject> entitiesToGenerate) {
+    private List<BTObject> snapshotEntities() {
+        List<BTObject> snapshot = new ArrayList<>(currentEntities);
+        if (!fullAsyncMode && (editedUnit != null)) {
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.get(i) == editedUnit) {
+                    Entity copy = UnitUtil.cloneUnit(editedUnit);
+                    if (copy != null) {
+                        snapshot.set(i, copy);
+                    }
+                    break;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return Whether the sheet generation with the given version number is no longer the latest one
+     */
+    private boolean isStale(int version) {
+        return version != generationVersion.get();
+    }
+
+    /**
+     * Lays out the pages of the record sheets and populates the sheetPages list. The pages start out as placeholders
+     * and are only built when they come near the view, see {@link #requestRenderForVisiblePages()}.
+     *
+     * @param entitiesToGenerate A snapshot of the units, see {@link #snapshotEntities()}
+     * @param options            The options taken together with the snapshot
+     * @param version            The generation version, used to discard the result if a newer one was requested
+     *
+     * @return false if the result was discarded
+     */
+    private boolean generateSheetPages(List<BTObject> entitiesToGenerate, RecordSheetOptions options, int version) {
         if (entitiesToGenerate == null || entitiesToGenerate.isEmpty()) {
-            return;
+            return true;
         }
         sheetGenerationLock.lock(); // Ensure only one thread generates sheets at a time
         try {
-            RecordSheetOptions options = getRecordSheetOptions();
-            PaperSize pz = options.getPaperSize();
-
-            // This is one of the slowest parts
-            logger.debug("Starting UnitPrintManager.createSheets...");
-            long start = System.nanoTime();
-            List<PrintRecordSheet> tempGeneratedSheets;
-            if (fullAsyncMode) {
-                tempGeneratedSheets = UnitPrintManager.createSheets(
-                      entitiesToGenerate.subList(0, Math.min(entitiesToGenerate.size(), MAX_PREVIEW_ENTITIES)),
-                      oneUnitPerSheet, options, true);
-            } else {
-                tempGeneratedSheets = createSheetsInEDT(entitiesToGenerate.subList(0,
-                      Math.min(entitiesToGenerate.size(), MAX_PREVIEW_ENTITIES)), oneUnitPerSheet, options);
+            if (isStale(version)) {
+                return false;
             }
-
+            logger.debug("Starting UnitPrintManager.planSheets...");
+            long start = System.nanoTime();
+            List<PlannedSheet> plans = UnitPrintManager.planSheets(entitiesToGenerate, oneUnitPerSheet, options, true);
             long end = System.nanoTime();
-            logger.debug("Finished UnitPrintManager.createSheets in {} ms", (end - start) / 1_000_000);
+            logger.debug("Finished UnitPrintManager.planSheets in {} ms", (end - start) / 1_000_000);
+            if (isStale(version)) {
+                logger.debug("Discarding sheets of stale generation {}", version);
+                return false;
+            }
 
-            if (tempGeneratedSheets == null || tempGeneratedSheets.isEmpty()) {
-                logger.warn("UnitPrintManager.createSheets returned no sheets.");
-                this.generatedSheets = Collections.emptyList();
+            if (plans.isEmpty()) {
+                logger.warn("UnitPrintManager.planSheets returned no sheets.");
                 // Clear existing pages safely on EDT
                 SwingUtilities.invokeLater(() -> {
                     sheetPages.clear();
                     repaint();
                 });
-                return;
+                return true;
             }
+            List<SheetPageInfo> newPages = layOutPages(plans, options.getPaperSize());
+            logger.debug("Laid out {} pages of {} sheets", newPages.size(), plans.size());
 
-            this.generatedSheets = tempGeneratedSheets; // Cache for clipboard
-
-            PageFormat pf = new PageFormat();
-            PaperSize paperDef = options.getPaperSize();
-            List<SheetPageInfo> newPages = new ArrayList<>();
-            int globalPageIndex = 0;
-            double currentXOffset = 0;
-
-            logger.debug("Generating GraphicsNodes for {} sheets...", generatedSheets.size());
-            start = System.nanoTime();
-            for (int sheetIndex = 0; sheetIndex < generatedSheets.size(); sheetIndex++) {
-                PrintRecordSheet sheet = generatedSheets.get(sheetIndex);
-                if (sheet == null) {continue;}
-
-                if (sheet instanceof PrintSmallUnitSheet) {
-                    pf.setPaper(paperDef.createPaper());
-                } else {
-                    pf.setPaper(paperDef.createPaper(DEFAULT_MARGINS,
-                          DEFAULT_MARGINS,
-                          DEFAULT_MARGINS,
-                          DEFAULT_MARGINS));
-                }
+            // Update the main list on the EDT or ensure thread-safety
+            // Here we replace the whole list which is okay since sheetPages is synchronized
+            sheetPages.clear(); // Clear old pages before adding new ones
+            sheetPages.addAll(newPages);
+            return true;
+        } finally {
+            sheetGenerationLock.unlock();
+        }
+    }
 
-                int pageCount = sheet.getPageCount();
-                for (int pageIndexInSheet = 0; pageIndexInSheet < pageCount; pageIndexInSheet++) {
-                    try {
-                        sheet.createDocument(pageIndexInSheet, pf, false);
-                        GraphicsNode node = sheet.build(); // Can be slow
+    /**
+     * Creates the placeholders of the pages of the planned sheets, side by side in page order.
+     */
+    private List<SheetPageInfo> layOutPages(List<PlannedSheet> plans, PaperSize paperSize) {
+        List<SheetPageInfo> pages = new ArrayList<>();
+        double currentXOffset = 0;
+        for (int sheetIndex = 0; sheetIndex < plans.size(); sheetIndex++) {
+            PlannedSheet plan = plans.get(sheetIndex);
+            for (int pageIndexInSheet = 0; pageIndexInSheet < plan.getPageCount(); pageIndexInSheet++) {
+                SheetPageInfo pageInfo = new SheetPageInfo(plan, sheetIndex, pageIndexInSheet, pages.size(),
+                      paperSize);
+                pageInfo.layoutPosition.setLocation(currentXOffset, 0); // Simple horizontal layout
+                pages.add(pageInfo);
+                currentXOffset += pageInfo.baseWidthPx + SPACE_BETWEEN_PAGES; // Add spacing between pages
+            }
+        }
+        return pages;
+    }
 
-                        if (node != null) {
-                            // Use paper size as base, node bounds might be slightly different
-                            double baseWidth = pz.pxWidth;
-                            double baseHeight = pz.pxHeight;
+    /**
+     * @return The page format to create the documents of the given sheet with
+     */
+    private PageFormat createPageFormat(PrintRecordSheet sheet, PaperSize paperDef) {
+        PageFormat pf = new PageFormat();
+        if (sheet instanceof PrintSmallUnitSheet) {
+            pf.setPaper(paperDef.createPaper());
+        } else {
+            pf.setPaper(paperDef.createPaper(DEFAULT_MARGINS,
+                  DEFAULT_MARGINS,
+                  DEFAULT_MARGINS,
+                  DEFAULT_MARGINS));
+        }
+        return pf;
+    }
 
-                            SheetPageInfo pageInfo = new SheetPageInfo(node, sheetIndex, pageIndexInSheet,
-                                  globalPageIndex, baseWidth, baseHeight);
-                            pageInfo.layoutPosition.setLocation(currentXOffset, 0); // Simple horizontal layout
-                            newPages.add(pageInfo);
+    /**
+     * Creates the sheet of a page from its plan and the document of the page. The caller must hold the sheet
+     * generation lock.
+     */
+    private PrintRecordSheet createPageSheet(SheetPageInfo pageInfo, PlannedSheet plan) {
+        PrintRecordSheet sheet = plan.create();
+        sheet.createDocument(pageInfo.pageIndexInSheet, createPageFormat(sheet, pageInfo.paperSize), false);
+        return sheet;
+    }
 
-                            currentXOffset += baseWidth + SPACE_BETWEEN_PAGES; // Add spacing between pages
-                            globalPageIndex++;
-                        } else {
-                            logger.warn("Failed to build GraphicsNode for sheet {}, page {}", sheetIndex,
-                                  pageIndexInSheet);
-                        }
-                    } catch (Exception e) {
-                        logger.error(e, "Error generating GraphicsNode for sheet {}, page {}",
-                              sheetIndex,
-                              pageIndexInSheet);
-                    }
+    /**
+     * Builds the document and node of a page that is still a placeholder, unless the render task it is built for is
+     * no longer current. Must be called on a render thread.
+     *
+     * @return The node, or null if the page was not built
+     */
+    private GraphicsNode buildPage(SheetPageInfo pageInfo, int renderVersion) {
+        sheetGenerationLock.lock(); // Sheets are built by one thread at a time
+        try {
+            PlannedSheet plan = pageInfo.plan;
+            if (pageInfo.renderVersion != renderVersion) {
+                return null;
+            }
+            PrintRecordSheet sheet = createPageSheet(pageInfo, plan);
+            GraphicsNode node = sheet.build(); // Can be slow
+            if (node == null) {
+                logger.warn("Failed to build GraphicsNode for sheet {}, page {}", pageInfo.originalSheetIndex,
+                      pageInfo.pageIndexInSheet);
+                return null;
+            }
+            synchronized (pageInfo) {
+                if ((pageInfo.renderVersion != renderVersion) || (pageInfo.plan != plan)) {
+                    return null; // Evicted or replaced by an in-place update while it was built
                 }
+                pageInfo.document = sheet.getSVGDocument();
+                pageInfo.graphicsNode = node;
             }
-            end = System.nanoTime();
-            logger.debug("Finished generating {} GraphicsNodes in {} ms", globalPageIndex, (end - start) / 1_000_000);
-
-            // Update the main list on the EDT or ensure thread-safety
-            // Here we replace the whole list which is okay since sheetPages is synchronized
-            sheetPages.clear(); // Clear old pages before adding new ones
-            sheetPages.addAll(newPages);
-
+            return node;
+        } catch (Exception e) {
+            logger.error(e, "Error generating GraphicsNode for sheet {}, page {}", pageInfo.originalSheetIndex,
+                  pageInfo.pageIndexInSheet);
+            return null;
         } finally {
             sheetGenerationLock.unlock();
         }
@@ -882,27 +989,6 @@ public class RecordSheetPreviewPanel extends JPanel {
         updateTimer.restart(); // Restart update timer to debounce
     }
 
-    private List<PrintRecordSheet> createSheetsInEDT(List<BTObject> entitiesToGenerate, boolean singlePrint,
-          RecordSheetOptions options) {
-        if (!SwingUtilities.isEventDispatchThread()) {
-            // If not, use invokeAndWait to call this method on the EDT
-            final AtomicReference<List<PrintRecordSheet>> resultHolder = new AtomicReference<>();
-            try {
-                SwingUtilities.invokeAndWait(() ->
-                      resultHolder.set(createSheetsInEDT(entitiesToGenerate, singlePrint, options))
-                );
-                return resultHolder.get();
-            } catch (Exception e) {
-                logger.error("Error dispatching createSheets to EDT", e);
-                return Collections.emptyList();
-            }
-        }
-        return UnitPrintManager.createSheets(entitiesToGenerate,
-              singlePrint,
-              options,
-              true);
-    }
-
     private void performUpdateSheetContentInPlace() {
         if (regenerateTimer.isRunning() || updateTimer.isRunning()) {
             return; // If regeneration is scheduled, skip in-place update
@@ -916,83 +1002,73 @@ public class RecordSheetPreviewPanel extends JPanel {
         }
         final double currentZoom = this.zoomFactor;
         final Point2D currentPan = new Point2D.Double(panOffset.getX(), panOffset.getY());
+        final int version = generationVersion.incrementAndGet();
+        final List<BTObject> entities = snapshotEntities();
+        final RecordSheetOptions options = getRecordSheetOptions();
 
         repaint(); // Ensure placeholders might show if needed
 
         renderExecutor.submit(() -> {
-            List<PrintRecordSheet> newGeneratedSheets;
             List<SheetPageInfo> newPageInfos = new ArrayList<>();
+            List<SheetPageInfo> oldPageInfos = new ArrayList<>(sheetPages);
             boolean structureChanged = false;
 
-            // Step 1: Generate new sheets and nodes (Background Thread)
+            // Step 1: Lay out the new sheets and update the pages that are built (Background Thread)
             sheetGenerationLock.lock();
             try {
-                logger.debug("Starting in-place UnitPrintManager.createSheets...");
+                if (isStale(version)) {
+                    return; // A newer update or regeneration replaces this one
+                }
+                logger.debug("Starting in-place UnitPrintManager.planSheets...");
                 long start = System.nanoTime();
-                // Regenerate sheets based on potentially updated entity state
-                RecordSheetOptions options = getRecordSheetOptions();
-                newGeneratedSheets = createSheetsInEDT(currentEntities.subList(0,
-                      Math.min(currentEntities.size(), MAX_PREVIEW_ENTITIES)), oneUnitPerSheet, options);
+                // Plan sheets from the snapshot of the updated entity state
+                List<PlannedSheet> plans = UnitPrintManager.planSheets(entities, oneUnitPerSheet, options, true);
                 long end = System.nanoTime();
-                logger.debug("Finished in-place UnitPrintManager.createSheets in {} ms", (end - start) / 1_000_000);
-
-                if (newGeneratedSheets == null) {
-                    newGeneratedSheets = Collections.emptyList();
+                logger.debug("Finished in-place UnitPrintManager.planSheets in {} ms", (end - start) / 1_000_000);
+                if (isStale(version)) {
+                    logger.debug("Discarding sheets of stale in-place update {}", version);
+                    return;
                 }
-                this.generatedSheets = newGeneratedSheets; // Update cached sheets
-
-                // Generate new nodes and page info list
-                if (!newGeneratedSheets.isEmpty()) {
-                    PaperSize pz = options.getPaperSize();
-                    PageFormat pf = new PageFormat();
-                    PaperSize paperDef = options.getPaperSize();
-                    int globalPageIndex = 0;
-                    double currentXOffset = 0;
-
-                    logger.debug("Generating GraphicsNodes in-place for {} sheets...", newGeneratedSheets.size());
-                    start = System.nanoTime();
-                    for (int sheetIndex = 0; sheetIndex < newGeneratedSheets.size(); sheetIndex++) {
-                        PrintRecordSheet sheet = newGeneratedSheets.get(sheetIndex);
-                        if (sheet == null) {continue;}
-
-                        if (sheet instanceof PrintSmallUnitSheet) {
-                            pf.setPaper(paperDef.createPaper());
-                        } else {
-                            pf.setPaper(paperDef.createPaper(DEFAULT_MARGINS,
-                                  DEFAULT_MARGINS,
-                                  DEFAULT_MARGINS,
-                                  DEFAULT_MARGINS));
+                newPageInfos = layOutPages(plans, options.getPaperSize());
+
+                // Pages far from the view are not built, they are built from their new plan when they are needed
+                PlannedSheet sheetPlan = null;
+                PrintRecordSheet sheet = null;
+                int builtPages = 0;
+                start = System.nanoTime();
+                for (SheetPageInfo pageInfo : newPageInfos) {
+                    SheetPageInfo oldPageInfo = (pageInfo.globalPageIndex < oldPageInfos.size())
+                          ? oldPageInfos.get(pageInfo.globalPageIndex) : null;
+                    if ((oldPageInfo == null) || (oldPageInfo.graphicsNode == null)) {
+                        continue;
+                    }
+                    try {
+                        if (sheetPlan != pageInfo.plan) {
+                            sheetPlan = pageInfo.plan;
+                            sheet = sheetPlan.create();
                         }
-
-                        int pageCount = sheet.getPageCount();
-                        for (int pageIndexInSheet = 0; pageIndexInSheet < pageCount; pageIndexInSheet++) {
-                            try {
-                                sheet.createDocument(pageIndexInSheet, pf, false);
-                                GraphicsNode node = sheet.build();
-                                if (node != null) {
-                                    double baseWidth = pz.pxWidth;
-                                    double baseHeight = pz.pxHeight;
-                                    SheetPageInfo pageInfo = new SheetPageInfo(node, sheetIndex, pageIndexInSheet,
-                                          globalPageIndex, baseWidth, baseHeight);
-                                    pageInfo.layoutPosition.setLocation(currentXOffset, 0);
-                                    newPageInfos.add(pageInfo);
-                                    currentXOffset += baseWidth + SPACE_BETWEEN_PAGES;
-                                    globalPageIndex++;
-                                } else {
-                                    logger.warn("Failed to build GraphicsNode (in-place) for sheet {}, page {}",
-                                          sheetIndex, pageIndexInSheet);
-                                }
-                            } catch (Exception e) {
-                                logger.error(e, "Error generating GraphicsNode (in-place) for sheet {}, page {}",
-                                      sheetIndex,
-                                      pageIndexInSheet);
-                            }
+                        sheet.createDocument(pageInfo.pageIndexInSheet, createPageFormat(sheet, pageInfo.paperSize),
+                              false);
+                        // Apply the changes to the live document of the page if possible, else build anew
+                        boolean updated = updateLiveDocument(oldPageInfo, sheet.getSVGDocument());
+                        GraphicsNode node = updated ? oldPageInfo.graphicsNode : sheet.build();
+                        if (node != null) {
+                            pageInfo.document = updated ? oldPageInfo.document : sheet.getSVGDocument();
+                            pageInfo.graphicsNode = node;
+                            builtPages++;
+                        } else {
+                            logger.warn("Failed to build GraphicsNode (in-place) for sheet {}, page {}",
+                                  pageInfo.originalSheetIndex, pageInfo.pageIndexInSheet);
                         }
+                    } catch (Exception e) {
+                        logger.error(e, "Error generating GraphicsNode (in-place) for sheet {}, page {}",
+                              pageInfo.originalSheetIndex,
+                              pageInfo.pageIndexInSheet);
                     }
-                    end = System.nanoTime();
-                    logger.debug("Finished generating {} GraphicsNodes in-place in {} ms", globalPageIndex,
-                          (end - start) / 1_000_000);
                 }
+                end = System.nanoTime();
+                logger.debug("Finished generating {} GraphicsNodes in-place in {} ms", builtPages,
+                      (end - start) / 1_000_000);
 
             } catch (Exception ex) {
                 logger.error("Error during in-place sheet/node generation", ex);
@@ -1006,6 +1082,11 @@ public class RecordSheetPreviewPanel extends JPanel {
             final boolean finalStructureChanged = structureChanged || (sheetPages.size() != finalNewPageInfos.size());
 
             SwingUtilities.invokeLater(() -> {
+                if (isStale(version)) {
+                    // Changed areas of pages updated in place stay pending for the newer update to render
+                    logger.debug("Newer in-place update or regeneration started, discarding in-place update.");
+                    return;
+                }
                 if (scheduledAction.getIdx() >= ScheduledAction.UPDATE_SHEET_CONTENT.getIdx()) {
                     logger.debug("New pending In-place or Regenerate detected, aborting in-place logic.");
                     return;
@@ -1032,8 +1113,10 @@ public class RecordSheetPreviewPanel extends JPanel {
                         SheetPageInfo oldPageInfo = sheetPages.get(i);
                         SheetPageInfo newPageInfo = finalNewPageInfos.get(i); // Assume 1:1 mapping based on index
 
-                        // Sanity check indices (optional but good)
-                        if (oldPageInfo.globalPageIndex != newPageInfo.globalPageIndex) {
+                        // Sanity check indices, a page must stay the same page of the same sheet
+                        if ((oldPageInfo.globalPageIndex != newPageInfo.globalPageIndex)
+                              || (oldPageInfo.originalSheetIndex != newPageInfo.originalSheetIndex)
+                              || (oldPageInfo.pageIndexInSheet != newPageInfo.pageIndexInSheet)) {
                             logger.warn(
                                   "Page index mismatch during in-place update ({}/{} vs {}/{}). Falling back to reset.",
                                   oldPageInfo.originalSheetIndex,
@@ -1045,10 +1128,28 @@ public class RecordSheetPreviewPanel extends JPanel {
                         }
 
                         synchronized (oldPageInfo) {
+                            oldPageInfo.plan = newPageInfo.plan;
+                            oldPageInfo.layoutPosition = newPageInfo.layoutPosition;
+                            if (newPageInfo.graphicsNode == null) {
+                                // The page was not built, it is built from its new plan when it is needed
+                                if (oldPageInfo.graphicsNode != null) {
+                                    // Built from the old plan since the update started
+                                    evictPage(oldPageInfo);
+                                    pagesToReRender.add(oldPageInfo);
+                                }
+                                continue;
+                            }
+                            if (newPageInfo.graphicsNode == oldPageInfo.graphicsNode) {
+                                // The live document was updated, only the area that changed has to be rendered
+                                renderChangedArea(oldPageInfo, currentZoom);
+                                continue;
+                            }
                             oldPageInfo.cancelPendingRender(); // Cancel any old render for this page
                             // Update the node BUT keep the old cached image and zoom level for now
+                            tileCache.removeNode(oldPageInfo.previousNode);
+                            oldPageInfo.previousNode = oldPageInfo.graphicsNode;
                             oldPageInfo.graphicsNode = newPageInfo.graphicsNode;
-                            oldPageInfo.layoutPosition = newPageInfo.layoutPosition; // Update layout too
+                            oldPageInfo.document = newPageInfo.document; // Later updates patch the new document
                             // Keep oldPageInfo.cachedImage
                             // Keep oldPageInfo.imageRenderZoom
                             pagesToReRender.add(oldPageInfo);
@@ -1057,7 +1158,7 @@ public class RecordSheetPreviewPanel extends JPanel {
 
                     // Now request renders for all updated pages at the current zoom
                     for (SheetPageInfo pageToRender : pagesToReRender) {
-                        requestRenderForPage(pageToRender, currentZoom);
+                        requestRenderForPage(pageToRender, Math.min(currentZoom, MAX_FULL_PAGE_ZOOM));
                     }
                 } // End synchronized block
 
@@ -1119,7 +1220,7 @@ public class RecordSheetPreviewPanel extends JPanel {
               constrainPanX(xOffset),
               constrainPanY(yOffset)
         );
-        requestRenderForAllPages(); // Render all pages at the new fit zoom
+        requestRenderForVisiblePages(); // Render the visible pages at the new fit zoom
         repaint();
         updateScrollbars();
     }
@@ -1155,32 +1256,129 @@ public class RecordSheetPreviewPanel extends JPanel {
     }
 
     /**
-     * Request background rendering for all pages if their cache is invalid for the current zoom factor.
+     * Request background rendering for the pages near the view if their cache is invalid for the current zoom factor.
+     * Pages that are still placeholders are built first. Pages far from the view are not rendered, and the farthest
+     * ones are dropped if the pages that are built take more than {@link #BUILT_PAGES_BYTES}. Above
+     * {@link #MAX_FULL_PAGE_ZOOM} the whole page image is only a low resolution background, and the visible tiles are
+     * requested when the panel is painted.
      */
-    private synchronized void requestRenderForAllPages() {
-        final double targetZoom = this.zoomFactor;
+    private synchronized void requestRenderForVisiblePages() {
+        final double currentZoom = this.zoomFactor;
+        final double targetZoom = Math.min(currentZoom, MAX_FULL_PAGE_ZOOM);
+        final Point2D currentPan = new Point2D.Double(panOffset.getX(), panOffset.getY());
         isHighQualityPaint = true;
+        cancelStaleTiles(currentZoom);
         List<SheetPageInfo> pagesToRender = new ArrayList<>(sheetPages); // Copy list for safe iteration
+        List<SheetPageInfo> distantPages = new ArrayList<>();
         for (SheetPageInfo pageInfo : pagesToRender) {
-            if (!pageInfo.hasValidCacheForZoom(targetZoom)) {
+            if (!isNearView(pageInfo, currentZoom, currentPan)) {
+                distantPages.add(pageInfo);
+                if (pageInfo.graphicsNode == null) {
+                    pageInfo.cancelPendingRender(); // It scrolled away before it was built
+                }
+            } else if (!pageInfo.hasValidCacheForZoom(targetZoom)) {
                 requestRenderForPage(pageInfo, targetZoom);
             }
         }
+        evictDistantPages(pagesToRender, distantPages, currentZoom, currentPan);
+        repaint(); // Paints the visible tiles, or requests them
+    }
+
+    /**
+     * @return Whether a page is visible or within {@link #PRELOAD_PAGES} pages of the view
+     */
+    private boolean isNearView(SheetPageInfo pageInfo, double zoom, Point2D pan) {
+        return distanceFromView(pageInfo, zoom, pan) <= PRELOAD_PAGES * (pageInfo.baseWidthPx + SPACE_BETWEEN_PAGES);
+    }
+
+    /**
+     * @return The horizontal distance between a page and the view at 1x zoom, 0 if the page is visible
+     */
+    private double distanceFromView(SheetPageInfo pageInfo, double zoom, Point2D pan) {
+        double viewLeft = -pan.getX() / zoom;
+        double viewRight = viewLeft + getWidth() / zoom;
+        double pageLeft = pageInfo.layoutPosition.x;
+        double pageRight = pageLeft + pageInfo.baseWidthPx;
+        return Math.max(0, Math.max(viewLeft - pageRight, pageLeft - viewRight));
+    }
+
+    /**
+     * Drops the pages far from the view, farthest first, until the pages that are built fit in
+     * {@link #BUILT_PAGES_BYTES}. They go back to being placeholders and are built again when they come near the view.
+     */
+    private void evictDistantPages(List<SheetPageInfo> pages, List<SheetPageInfo> distantPages, double zoom,
+          Point2D pan) {
+        long usedBytes = 0;
+        for (SheetPageInfo pageInfo : pages) {
+            usedBytes += pageInfo.estimatedBytes();
+        }
+        if (usedBytes <= BUILT_PAGES_BYTES) {
+            return;
+        }
+        distantPages.sort(Comparator.comparingDouble(
+              (SheetPageInfo pageInfo) -> distanceFromView(pageInfo, zoom, pan)).reversed());
+        int evicted = 0;
+        for (SheetPageInfo pageInfo : distantPages) {
+            if (usedBytes <= BUILT_PAGES_BYTES) {
+                break;
+            }
+            long bytes = pageInfo.estimatedBytes();
+            if (bytes > 0) {
+                evictPage(pageInfo);
+                usedBytes -= bytes;
+                evicted++;
+            }
+        }
+        logger.debug("Dropped {} pages far from the view", evicted);
+    }
+
+    /**
+     * Turns a page back into a placeholder, dropping its document, node, tiles and image.
+     */
+    private void evictPage(SheetPageInfo pageInfo) {
+        synchronized (pageInfo) {
+            pageInfo.cancelPendingRender();
+            tileCache.removeNode(pageInfo.previousNode);
+            tileCache.removeNode(pageInfo.graphicsNode);
+            pageInfo.previousNode = null;
+            pageInfo.graphicsNode = null;
+            pageInfo.document = null;
+            pageInfo.changedArea = null; // The page is built from its latest plan again
+            if (pageInfo.cachedImage != null) {
+                pageInfo.cachedImage.clear();
+            }
+            pageInfo.cachedImage = new SoftReference<>(null);
+            pageInfo.imageRenderZoom = -1.0;
+        }
     }
 
     /**
      * Submits a rendering task for a specific page at a specific zoom level.
      */
-    private synchronized void requestRenderForPage(SheetPageInfo pageInfo, double targetZoom) {
+    private void requestRenderForPage(SheetPageInfo pageInfo, double targetZoom) {
+        requestRenderForPage(pageInfo, targetZoom, null, null);
+    }
+
+    /**
+     * Submits a rendering task for a specific page at a specific zoom level. If a base image of the same size is
+     * given, the page is only painted over it inside the changed area.
+     */
+    private synchronized void requestRenderForPage(SheetPageInfo pageInfo, double targetZoom,
+          BufferedImage baseImage, Shape changedArea) {
         pageInfo.cancelPendingRender(); // Cancel previous render task for this page
 
         final int currentRenderVersion = pageInfo.renderVersion; // Capture version for this task
 
         Callable<RenderResult> renderTask = () -> {
             // Background Thread
-            if (Thread.currentThread().isInterrupted()) {return new RenderResult(null, targetZoom);}
+            if (Thread.currentThread().isInterrupted() || (pageInfo.renderVersion != currentRenderVersion)) {
+                return new RenderResult(null, targetZoom); // Interrupted or cancelled before it started
+            }
 
             GraphicsNode node = pageInfo.graphicsNode;
+            if (node == null) {
+                node = buildPage(pageInfo, currentRenderVersion); // The page is still a placeholder
+            }
             if (node == null) {
                 return new RenderResult(null, targetZoom);
             }
@@ -1196,7 +1394,6 @@ public class RecordSheetPreviewPanel extends JPanel {
 
             BufferedImage bufferedImage;
             Graphics2D graphics2D = null;
-            AffineTransform originalTransform = null;
             boolean success = false;
             try {
                 bufferedImage = createCompatibleImage(renderWidth, renderHeight);
@@ -1205,32 +1402,18 @@ public class RecordSheetPreviewPanel extends JPanel {
                 }
                 graphics2D = GraphicsUtil.createGraphics(bufferedImage);
                 setupRenderingHints(graphics2D, true, false, bufferedImage);
+                if ((baseImage != null) && (changedArea != null) && (baseImage.getWidth() == renderWidth)
+                      && (baseImage.getHeight() == renderHeight)) {
+                    graphics2D.drawImage(baseImage, 0, 0, null);
+                    graphics2D.setClip(changedArea);
+                }
                 graphics2D.setColor(Color.WHITE);
                 graphics2D.fillRect(0, 0, renderWidth, renderHeight);
 
-                originalTransform = node.getTransform(); // Save original
-
-                final Rectangle2D bounds = node.getBounds();
-                if (bounds == null || bounds.isEmpty() || bounds.getWidth() <= 0 || bounds.getHeight() <= 0) {
+                if (!paintPage(node, graphics2D, renderWidth, renderHeight, targetZoom)) {
                     logger.warn("Node bounds invalid for page {}", pageInfo.globalPageIndex);
                     return new RenderResult(null, targetZoom); // Return blank image
                 }
-                double nodePadding = 5 * targetZoom;
-                double availableNodeWidth = Math.max(1, renderWidth - nodePadding * 2);
-                double availableNodeHeight = Math.max(1, renderHeight - nodePadding * 2);
-                double scaleX = availableNodeWidth / bounds.getWidth();
-                double scaleY = availableNodeHeight / bounds.getHeight();
-                double scale = Math.min(scaleX, scaleY);
-                double nodeX = (renderWidth - (bounds.getWidth() * scale)) / 2.0;
-                double nodeY = (renderHeight - (bounds.getHeight() * scale)) / 2.0;
-
-                AffineTransform workTransform = new AffineTransform();
-                workTransform.translate(nodeX, nodeY);
-                workTransform.scale(scale, scale);
-                workTransform.translate(-bounds.getX(), -bounds.getY());
-                node.setTransform(workTransform);
-
-                node.paint(graphics2D); // Render the node
                 success = true; // Mark as successful render
             } catch (OutOfMemoryError oom) {
                 logger.error("OOM rendering page {} at zoom {}", pageInfo.globalPageIndex, targetZoom, oom);
@@ -1240,14 +1423,6 @@ public class RecordSheetPreviewPanel extends JPanel {
                 bufferedImage = null; // Discard on error
             } finally {
                 if (graphics2D != null) {graphics2D.dispose();}
-                // Restore original transform
-                if (originalTransform != null) {
-                    try {
-                        node.setTransform(originalTransform);
-                    } catch (Exception e) {
-                        logger.error("Failed to restore transform for page {}", pageInfo.globalPageIndex, e);
-                    }
-                }
             }
             return new RenderResult(success ? bufferedImage : null,
                   targetZoom); // Return rendered image (or null on error)
@@ -1349,6 +1524,301 @@ public class RecordSheetPreviewPanel extends JPanel {
 
     }
 
+    /**
+     * Paints a page node scaled to fit an image of the given size, leaving the same margin as the full page image. The
+     * node is shared by the page and all of its tiles, so painting it is serialized.
+     *
+     * @return false if the node has no valid bounds and nothing was painted
+     */
+    private boolean paintPage(GraphicsNode node, Graphics2D graphics2D, int renderWidth, int renderHeight,
+          double zoom) {
+        synchronized (node) {
+            AffineTransform originalTransform = node.getTransform(); // Save original
+            try {
+                final Rectangle2D bounds = node.getBounds();
+                if (bounds == null || bounds.isEmpty() || bounds.getWidth() <= 0 || bounds.getHeight() <= 0) {
+                    return false;
+                }
+                node.setTransform(pageTransform(bounds, renderWidth, renderHeight, zoom));
+                node.paint(graphics2D); // Render the node
+                return true;
+            } finally {
+                if (originalTransform != null) {
+                    node.setTransform(originalTransform);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The transform that scales a page node with the given bounds to fit an image of the given size
+     */
+    private static AffineTransform pageTransform(Rectangle2D bounds, int renderWidth, int renderHeight,
+          double zoom) {
+        double nodePadding = 5 * zoom;
+        double availableNodeWidth = Math.max(1, renderWidth - nodePadding * 2);
+        double availableNodeHeight = Math.max(1, renderHeight - nodePadding * 2);
+        double scaleX = availableNodeWidth / bounds.getWidth();
+        double scaleY = availableNodeHeight / bounds.getHeight();
+        double scale = Math.min(scaleX, scaleY);
+        double nodeX = (renderWidth - (bounds.getWidth() * scale)) / 2.0;
+        double nodeY = (renderHeight - (bounds.getHeight() * scale)) / 2.0;
+
+        AffineTransform workTransform = new AffineTransform();
+        workTransform.translate(nodeX, nodeY);
+        workTransform.scale(scale, scale);
+        workTransform.translate(-bounds.getX(), -bounds.getY());
+        return workTransform;
+    }
+
+    /**
+     * Brings the live document of a page up to date with a newly created document of the same page. The node was
+     * built in dynamic mode, so Batik updates it as the document changes and reports the areas that changed. These
+     * are added to the changed area of the page, which is rendered by {@link #renderChangedArea}.
+     *
+     * @return false if the page has to be built again
+     */
+    private boolean updateLiveDocument(SheetPageInfo pageInfo, Document newDocument) {
+        Rectangle2D changedArea = patchLiveDocument(pageInfo, newDocument);
+        if (changedArea == null) {
+            return false;
+        }
+        if (!changedArea.isEmpty()) {
+            synchronized (pageInfo) {
+                pageInfo.changedArea = (pageInfo.changedArea == null) ? changedArea
+                      : pageInfo.changedArea.createUnion(changedArea);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The area of the page that changed, in the coordinates of the page node, which is empty if nothing
+     *       changed, or null if the page has to be built again
+     */
+    private Rectangle2D patchLiveDocument(SheetPageInfo pageInfo, Document newDocument) {
+        GraphicsNode node = pageInfo.graphicsNode;
+        Document liveDocument = pageInfo.document;
+        if ((node == null) || (node.getRoot() == null) || (liveDocument == null) || (newDocument == null)) {
+            return null;
+        }
+        RootGraphicsNode root = node.getRoot();
+        synchronized (node) {
+            AffineTransform originalTransform = node.getTransform();
+            Rectangle2D originalBounds = node.getBounds();
+            UpdateTracker tracker = new UpdateTracker();
+            // The reported areas include the transform of the root, which is left from the last paint
+            node.setTransform(new AffineTransform());
+            root.addTreeGraphicsNodeChangeListener(tracker);
+            try {
+                if (SVGDocumentPatcher.patch(liveDocument, newDocument) < 0) {
+                    return null;
+                }
+                Rectangle2D bounds = node.getBounds();
+                if ((bounds == null) || (originalBounds == null)) {
+                    return null;
+                } else if (!bounds.equals(originalBounds)) {
+                    // The page is scaled differently, so all of it has changed
+                    return bounds.createUnion(originalBounds);
+                }
+                Rectangle2D changedArea = new Rectangle2D.Double();
+                List<?> dirtyAreas = tracker.getDirtyAreas();
+                if (dirtyAreas != null) {
+                    for (Object dirtyArea : dirtyAreas) {
+                        Rectangle2D area = ((Shape) dirtyArea).getBounds2D();
+                        if (changedArea.isEmpty()) {
+                            changedArea = area;
+                        } else {
+                            changedArea.add(area);
+                        }
+                    }
+                }
+                return changedArea;
+            } catch (Exception ex) {
+                logger.error(ex, "Error updating the live document of page {}", pageInfo.globalPageIndex);
+                return null;
+            } finally {
+                root.removeTreeGraphicsNodeChangeListener(tracker);
+                if (originalTransform != null) {
+                    node.setTransform(originalTransform);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders the part of a page that was changed by in-place updates of its live document. The tiles it touches are
+     * discarded, and only the changed area of the whole page image is painted again.
+     */
+    private void renderChangedArea(SheetPageInfo pageInfo, double zoom) {
+        GraphicsNode node = pageInfo.graphicsNode;
+        Rectangle2D changedArea;
+        synchronized (pageInfo) {
+            changedArea = pageInfo.changedArea;
+            pageInfo.changedArea = null;
+        }
+        if ((node == null) || (changedArea == null) || changedArea.isEmpty()) {
+            return;
+        }
+        Rectangle2D bounds;
+        synchronized (node) {
+            bounds = node.getBounds();
+        }
+        if ((bounds == null) || bounds.isEmpty()) {
+            requestRenderForPage(pageInfo, Math.min(zoom, MAX_FULL_PAGE_ZOOM));
+            return;
+        }
+        tileCache.removeIf(key -> (key.node() == node)
+              && changedPixels(pageInfo, bounds, changedArea, key.zoom())
+              .intersects(key.column() * TILE_SIZE, key.row() * TILE_SIZE, TILE_SIZE, TILE_SIZE));
+
+        BufferedImage pageImage = (pageInfo.cachedImage != null) ? pageInfo.cachedImage.get() : null;
+        double imageZoom = pageInfo.imageRenderZoom;
+        if ((pageImage != null) && (imageZoom > 0) && !pageInfo.isRenderTaskActive()) {
+            requestRenderForPage(pageInfo, imageZoom, pageImage,
+                  changedPixels(pageInfo, bounds, changedArea, imageZoom));
+        } else {
+            requestRenderForPage(pageInfo, Math.min(zoom, MAX_FULL_PAGE_ZOOM));
+        }
+    }
+
+    /**
+     * @return The pixels of the page image at the given zoom covered by an area in node coordinates
+     */
+    private Rectangle changedPixels(SheetPageInfo pageInfo, Rectangle2D bounds, Rectangle2D area, double zoom) {
+        int renderWidth = (int) Math.ceil(pageInfo.baseWidthPx * zoom);
+        int renderHeight = (int) Math.ceil(pageInfo.baseHeightPx * zoom);
+        Rectangle pixels = pageTransform(bounds, renderWidth, renderHeight, zoom).createTransformedShape(area)
+              .getBounds();
+        pixels.grow(2, 2); // Antialiasing reaches slightly past the shapes
+        return pixels;
+    }
+
+    /**
+     * Draws the tiles of a page that are inside the clip at the current zoom, and requests the missing ones. Until a
+     * tile is ready, the tile of the node it replaced or the scaled full page image underneath shows instead.
+     */
+    private void drawTiles(Graphics2D g2d, SheetPageInfo pageInfo, Point2D pan, double zoom) {
+        GraphicsNode node = pageInfo.graphicsNode;
+        if (node == null) {
+            return;
+        }
+        int pageX = (int) Math.round(pan.getX() + pageInfo.layoutPosition.x * zoom);
+        int pageY = (int) Math.round(pan.getY() + pageInfo.layoutPosition.y * zoom);
+        int pageWidth = (int) Math.ceil(pageInfo.baseWidthPx * zoom);
+        int pageHeight = (int) Math.ceil(pageInfo.baseHeightPx * zoom);
+        Rectangle clip = g2d.getClipBounds();
+        Rectangle visible = new Rectangle(pageX, pageY, pageWidth, pageHeight)
+              .intersection((clip != null) ? clip : new Rectangle(0, 0, getWidth(), getHeight()));
+        if (visible.isEmpty()) {
+            return;
+        }
+        int firstColumn = (visible.x - pageX) / TILE_SIZE;
+        int lastColumn = (visible.x + visible.width - 1 - pageX) / TILE_SIZE;
+        int firstRow = (visible.y - pageY) / TILE_SIZE;
+        int lastRow = (visible.y + visible.height - 1 - pageY) / TILE_SIZE;
+        GraphicsNode previousNode = pageInfo.previousNode;
+        boolean complete = true;
+
+        setupRenderingHints(g2d, true, false, null);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                PreviewTileCache.TileKey key = new PreviewTileCache.TileKey(node, zoom, column, row);
+                BufferedImage tile = tileCache.get(key);
+                if (tile == null) {
+                    complete = false;
+                    requestRenderForTile(pageInfo, key);
+                    if (previousNode != null) {
+                        tile = tileCache.get(new PreviewTileCache.TileKey(previousNode, zoom, column, row));
+                    }
+                }
+                if (tile != null) {
+                    g2d.drawImage(tile, pageX + column * TILE_SIZE, pageY + row * TILE_SIZE, null);
+                }
+            }
+        }
+        if (complete && (previousNode != null)) {
+            pageInfo.previousNode = null;
+            tileCache.removeNode(previousNode);
+        }
+    }
+
+    /**
+     * Submits a rendering task for one tile of a page, unless one is already pending.
+     */
+    private void requestRenderForTile(SheetPageInfo pageInfo, PreviewTileCache.TileKey key) {
+        Future<?> pending = pendingTiles.get(key);
+        if ((pending != null) && !pending.isDone()) {
+            return;
+        }
+        CompletableFuture<BufferedImage> future = CompletableFuture.supplyAsync(() -> renderTile(pageInfo, key),
+              renderExecutor);
+        pendingTiles.put(key, future);
+        future.thenAcceptAsync(tile -> {
+            pendingTiles.remove(key, future);
+            if (tile != null) {
+                tileCache.put(key, tile);
+                repaint();
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Renders one tile of a page. Tiles that are no longer needed because the zoom changed or the page was
+     * regenerated before the task started are skipped.
+     *
+     * @return The tile image, or null if it was skipped or could not be rendered
+     */
+    private BufferedImage renderTile(SheetPageInfo pageInfo, PreviewTileCache.TileKey key) {
+        if ((key.node() != pageInfo.graphicsNode) || (key.zoom() != zoomFactor)) {
+            return null;
+        }
+        int pageWidth = (int) Math.ceil(pageInfo.baseWidthPx * key.zoom());
+        int pageHeight = (int) Math.ceil(pageInfo.baseHeightPx * key.zoom());
+        int tileX = key.column() * TILE_SIZE;
+        int tileY = key.row() * TILE_SIZE;
+        int tileWidth = Math.min(TILE_SIZE, pageWidth - tileX);
+        int tileHeight = Math.min(TILE_SIZE, pageHeight - tileY);
+        if ((tileWidth <= 0) || (tileHeight <= 0)) {
+            return null;
+        }
+        BufferedImage tile = createCompatibleImage(tileWidth, tileHeight);
+        if (tile == null) {
+            return null;
+        }
+        Graphics2D graphics2D = null;
+        try {
+            graphics2D = GraphicsUtil.createGraphics(tile);
+            setupRenderingHints(graphics2D, true, false, tile);
+            graphics2D.setColor(Color.WHITE);
+            graphics2D.fillRect(0, 0, tileWidth, tileHeight);
+            graphics2D.translate(-tileX, -tileY);
+            return paintPage(key.node(), graphics2D, pageWidth, pageHeight, key.zoom()) ? tile : null;
+        } catch (OutOfMemoryError oom) {
+            logger.error("OOM rendering tile {},{} of page {}", key.column(), key.row(), pageInfo.globalPageIndex,
+                  oom);
+        } catch (Exception ex) {
+            logger.error("Error rendering tile {},{} of page {}", key.column(), key.row(),
+                  pageInfo.globalPageIndex, ex);
+        } finally {
+            if (graphics2D != null) {graphics2D.dispose();}
+        }
+        return null;
+    }
+
+    /**
+     * Cancels the tile renders that are not for the given zoom.
+     */
+    private void cancelStaleTiles(double zoom) {
+        pendingTiles.entrySet().removeIf(entry -> {
+            if (entry.getKey().zoom() != zoom) {
+                entry.getValue().cancel(false);
+                return true;
+            }
+            return false;
+        });
+    }
+
     /**
      * Creates a hardware-accelerated image if possible
      */
@@ -1512,11 +1982,11 @@ public class RecordSheetPreviewPanel extends JPanel {
                         g2d.drawString(msg, targetX + (targetW - sw) / 2, targetY + targetH / 2);
                     }
                 }
-            } // End loop over pages
 
-            if (currentEntities.size() > MAX_PREVIEW_ENTITIES) {
-                drawPreviewLimitationNotice(g2d);
-            }
+                if (highQuality && (currentZoom > MAX_FULL_PAGE_ZOOM)) {
+                    drawTiles(g2d, pageInfo, currentPan, currentZoom);
+                }
+            } // End loop over pages
 
             // Fill scrollbars little square in bottom-right
             if (vScrollBar.isVisible() && hScrollBar.isVisible()) {
@@ -1533,47 +2003,6 @@ public class RecordSheetPreviewPanel extends JPanel {
         }
     }
 
-    private void drawPreviewLimitationNotice(Graphics2D g2d) {
-        setupRenderingHints(g2d, true, false, null);
-        String msg = "Preview limited to " + MAX_PREVIEW_ENTITIES + " units of " + currentEntities.size();
-
-        // Bold Font and Calculate text dimensions
-        java.awt.Font originalFont = g2d.getFont();
-        java.awt.Font boldFont = originalFont.deriveFont(java.awt.Font.BOLD);
-        g2d.setFont(boldFont);
-        java.awt.FontMetrics fm = g2d.getFontMetrics();
-        int textWidth = fm.stringWidth(msg);
-        int textHeight = fm.getHeight();
-        int textAscent = fm.getAscent();
-
-        // Calculate position for bottom right alignment with 10px margin
-        int scrollBarWidth = vScrollBar.isVisible() ? vScrollBar.getPreferredSize().width : 0;
-        int scrollBarHeight = hScrollBar.isVisible() ? hScrollBar.getPreferredSize().height : 0;
-
-        int margin = 10;
-        int textX = getWidth() - textWidth - margin - scrollBarWidth;
-        int textY = getHeight() - margin - scrollBarHeight;
-
-        // Draw semi-transparent background rectangle
-        int bgPadding = 4;
-        int bgX = textX - bgPadding;
-        int bgY = textY - textHeight - bgPadding;
-        int bgWidth = textWidth + (bgPadding * 2);
-        int bgHeight = textHeight + (bgPadding * 2);
-
-        // Background with transparency
-        g2d.setColor(new Color(255, 255, 255, 200)); // Semi-transparent white
-        g2d.fillRoundRect(bgX, bgY, bgWidth, bgHeight, 6, 6);
-
-        // Border
-        g2d.setColor(new Color(128, 128, 128, 200)); // Semi-transparent gray
-        g2d.drawRoundRect(bgX, bgY, bgWidth, bgHeight, 6, 6);
-
-        // Draw the text
-        g2d.setColor(Color.BLACK);
-        g2d.drawString(msg, textX, textY - textHeight + textAscent);
-    }
-
     @Override
     public void doLayout() {
         super.doLayout();
@@ -1620,19 +2049,44 @@ public class RecordSheetPreviewPanel extends JPanel {
     }
 
     /**
-     * Copies the current record sheet to the system clipboard as an image.
+     * Copies the current record sheet to the system clipboard as an image. Pages far from the view are not built, so
+     * the image is made in the background, where they can be built for the copy.
      */
     private void copyRecordSheetToClipboard() {
-        // Use the already generated GraphicsNodes from sheetPages
         List<SheetPageInfo> pagesToCopy = new ArrayList<>(sheetPages);
 
         if (pagesToCopy.isEmpty()) {
             logger.warn("No pages available to copy to clipboard.");
             return;
         }
+        renderExecutor.submit(() -> copyPagesToClipboard(pagesToCopy));
+    }
 
-        RecordSheetOptions options = getRecordSheetOptions();
-        PaperSize pz = options.getPaperSize();
+    /**
+     * @return The node of a page, built just for the copy if the page is still a placeholder, or null if it could not
+     *       be built
+     */
+    private GraphicsNode nodeForCopy(SheetPageInfo pageInfo) {
+        GraphicsNode node = pageInfo.graphicsNode;
+        if (node != null) {
+            return node;
+        }
+        sheetGenerationLock.lock();
+        try {
+            return createPageSheet(pageInfo, pageInfo.plan).build();
+        } catch (Exception e) {
+            logger.error(e, "Error building page {} for clipboard", pageInfo.globalPageIndex);
+            return null;
+        } finally {
+            sheetGenerationLock.unlock();
+        }
+    }
+
+    /**
+     * Paints the pages into one image and puts it on the clipboard. Runs on a render thread.
+     */
+    private void copyPagesToClipboard(List<SheetPageInfo> pagesToCopy) {
+        PaperSize pz = pagesToCopy.get(0).paperSize;
 
         // Calculate total dimensions for the clipboard image
         int numPages = pagesToCopy.size();
@@ -1653,65 +2107,72 @@ public class RecordSheetPreviewPanel extends JPanel {
 
             int k = 0;
             for (SheetPageInfo pageInfo : pagesToCopy) {
-                GraphicsNode graphicsNode = pageInfo.graphicsNode;
+                GraphicsNode graphicsNode = nodeForCopy(pageInfo);
                 if (graphicsNode == null) {
                     continue;
                 }
 
                 AffineTransform originalTransform = null;
-                try {
-                    originalTransform = graphicsNode.getTransform(); // Save original
+                // Tiles of this page may be rendering in the background
+                synchronized (graphicsNode) {
+                    try {
+                        originalTransform = graphicsNode.getTransform(); // Save original
 
-                    Rectangle2D bounds = graphicsNode.getBounds();
-                    if (bounds == null || bounds.getWidth() <= 0 || bounds.getHeight() <= 0) {
-                        logger.warn("Skipping page {} for clipboard due to invalid node bounds.",
-                              pageInfo.globalPageIndex);
-                        continue;
-                    }
+                        Rectangle2D bounds = graphicsNode.getBounds();
+                        if (bounds == null || bounds.getWidth() <= 0 || bounds.getHeight() <= 0) {
+                            logger.warn("Skipping page {} for clipboard due to invalid node bounds.",
+                                  pageInfo.globalPageIndex);
+                            continue;
+                        }
 
-                    // Calculate scale to fit within the allocated space per page
-                    double padding = 20 * CLIPBOARD_ZOOM_SCALE;
-                    double availableW = pageImgWidth - padding;
-                    double availableH = pageImgHeight - padding;
-
-                    double scaleX = (availableW > 0) ? availableW / bounds.getWidth() : 1.0;
-                    double scaleY = (availableH > 0) ? availableH / bounds.getHeight() : 1.0;
-                    double scale = Math.min(scaleX, scaleY);
-
-                    // Center within its allocated space
-                    double pageStartX = k * pageImgWidth;
-                    double nodeRenderWidth = bounds.getWidth() * scale;
-                    double nodeRenderHeight = bounds.getHeight() * scale;
-                    double centerX = pageStartX + (pageImgWidth - nodeRenderWidth) / 2.0;
-                    double centerY = (pageImgHeight - nodeRenderHeight) / 2.0;
-
-                    // Apply transform: translate to position, scale, account for node origin
-                    paintTransform.setToIdentity();
-                    paintTransform.translate(centerX, centerY);
-                    paintTransform.scale(scale, scale);
-                    paintTransform.translate(-bounds.getX(), -bounds.getY());
-
-                    graphicsNode.setTransform(paintTransform);
-                    graphicsNode.paint(graphics2D); // Render this node onto the big image
-                    k++;
-                } catch (Exception ex) {
-                    logger.error("Error painting node for page {} to clipboard", pageInfo.globalPageIndex, ex);
-                } finally {
-                    // Restore original transform
-                    if (originalTransform != null) {
-                        try {
-                            graphicsNode.setTransform(originalTransform);
-                        } catch (Exception e) {
-                            logger.error("Failed to restore transform for page {} after clipboard render",
-                                  pageInfo.globalPageIndex, e);
+                        // Calculate scale to fit within the allocated space per page
+                        double padding = 20 * CLIPBOARD_ZOOM_SCALE;
+                        double availableW = pageImgWidth - padding;
+                        double availableH = pageImgHeight - padding;
+
+                        double scaleX = (availableW > 0) ? availableW / bounds.getWidth() : 1.0;
+                        double scaleY = (availableH > 0) ? availableH / bounds.getHeight() : 1.0;
+                        double scale = Math.min(scaleX, scaleY);
+
+                        // Center within its allocated space
+                        double pageStartX = k * pageImgWidth;
+                        double nodeRenderWidth = bounds.getWidth() * scale;
+                        double nodeRenderHeight = bounds.getHeight() * scale;
+                        double centerX = pageStartX + (pageImgWidth - nodeRenderWidth) / 2.0;
+                        double centerY = (pageImgHeight - nodeRenderHeight) / 2.0;
+
+                        // Apply transform: translate to position, scale, account for node origin
+                        AffineTransform paintTransform = new AffineTransform();
+                        paintTransform.translate(centerX, centerY);
+                        paintTransform.scale(scale, scale);
+                        paintTransform.translate(-bounds.getX(), -bounds.getY());
+
+                        graphicsNode.setTransform(paintTransform);
+                        graphicsNode.paint(graphics2D); // Render this node onto the big image
+                        k++;
+                    } catch (Exception ex) {
+                        logger.error("Error painting node for page {} to clipboard", pageInfo.globalPageIndex, ex);
+                    } finally {
+                        // Restore original transform
+                        if (originalTransform != null) {
+                            try {
+                                graphicsNode.setTransform(originalTransform);
+                            } catch (Exception e) {
+                                logger.error("Failed to restore transform for page {} after clipboard render",
+                                      pageInfo.globalPageIndex, e);
+                            }
                         }
                     }
                 }
             }
 
             // Copy to clipboard
-            Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new TransferableImage(bufferedImage), null);
-            logger.info("Record sheet ({} pages) copied to clipboard.", k);
+            final int copiedPages = k;
+            SwingUtilities.invokeLater(() -> {
+                Toolkit.getDefaultToolkit().getSystemClipboard()
+                      .setContents(new TransferableImage(bufferedImage), null);
+                logger.info("Record sheet ({} pages) copied to clipboard.", copiedPages);
+            });
 
         } catch (OutOfMemoryError ex) {
             logger.error("OutOfMemoryError creating image for clipboard copy.", ex);
@@ -1761,6 +2222,9 @@ public class RecordSheetPreviewPanel extends JPanel {
                 pageInfo.cachedImage = null;
             }
         }
+        pendingTiles.values().forEach(task -> task.cancel(false));
+        pendingTiles.clear();
+        tileCache.clear();
     }
 
     /**
@@ -1772,7 +2236,6 @@ public class RecordSheetPreviewPanel extends JPanel {
         if (updateTimer != null && updateTimer.isRunning()) {updateTimer.stop();}
 
         cleanupPageTasksAndData();
-        generatedSheets = null;
     }
 
     @Override
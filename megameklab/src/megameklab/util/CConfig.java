@@ -46,8 +46,10 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
@@ -58,6 +60,7 @@ import megamek.logging.MMLogger;
 import megameklab.printing.MekChassisArrangement;
 import megameklab.printing.PrintRecordSheet;
 import megameklab.printing.RecordSheetOptions;
+import megameklab.printing.RecordSheetTemplateCache;
 import megameklab.ui.MMLStartUp;
 import megameklab.ui.MegaMekLabTabbedUI;
 import megameklab.ui.MenuBarOwner;
@@ -156,6 +159,10 @@ public final class CConfig {
     public static final String RS_EXPLICIT_ZERO_MOD = "rs_explicit_zero_mod";
     public static final String RS_EXTRA_PHYSICALS = "rs_extra_physicals";
     public static final String RS_FANCY_PIPS = "rs_fancy_pips";
+    public static final String RS_EXPORT_THREADS = "rs_export_threads";
+
+    // The settings that change how cached record sheet templates are prepared
+    private static final Set<String> TEMPLATE_SETTINGS = Set.of(RS_PAPER_SIZE, RS_FONT, RS_COLOR);
 
     public static final String NAG_EQUIPMENT_CTRL_CLICK = "nag_equipment_ctrlclick";
     public static final String NAG_IMPORT_SETTINGS = "nag_import_settings";
@@ -265,6 +272,7 @@ public final class CConfig {
         } catch (Exception ex) {
             logger.error("", ex);
         }
+        RecordSheetTemplateCache.invalidate();
     }
 
     /**
@@ -333,7 +341,10 @@ public final class CConfig {
      * @param value the value to set the parameter to
      */
     public static void setParam(String param, String value) {
-        config.setProperty(param, value);
+        Object previous = config.setProperty(param, value);
+        if (TEMPLATE_SETTINGS.contains(param) && !Objects.equals(previous, value)) {
+            RecordSheetTemplateCache.invalidate();
+        }
     }
 
     /**
@@ -475,6 +486,14 @@ public final class CConfig {
         }
     }
 
+    /**
+     * @return The number of pages rendered in parallel when exporting record sheets to PDF. Defaults to the number
+     *       of available processors.
+     */
+    public static int exportThreads() {
+        return Math.max(1, getIntParam(RS_EXPORT_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
     /**
      * @return The currently selected scale units for record sheet printing
      */
@@ -645,6 +664,7 @@ public final class CConfig {
     }
 
     private static void applyImportedSettings(MenuBarOwner menuBarOwner) {
+        RecordSheetTemplateCache.invalidate();
         menuBarOwner.changeTheme(getParam(GUI_PLAF));
         menuBarOwner.refreshAll();
     }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import megamek.common.CriticalSlot;
+import megamek.common.equipment.MiscMounted;
+import megamek.common.equipment.Mounted;
+import megamek.common.units.Aero;
+import megamek.common.units.Crew;
+import megamek.common.units.Entity;
+
+/**
+ * The damage state of a unit, as cleared by {@link UnitUtil#resetUnit(Entity)}. This allows showing a damaged unit
+ * as undamaged without copying it: the damage is recorded and cleared with {@link #resetUnit(Entity)}, and put back
+ * with {@link #restore()} once the undamaged unit is no longer needed. Copying a unit with
+ * {@link UnitUtil#cloneUnit(Entity)} serializes the whole unit, which is far more expensive.
+ *
+ * <p>While the damage is cleared, other code that reads the unit sees it as undamaged, so this is only suitable
+ * where the unit is not shown or used elsewhere at the same time.</p>
+ */
+public final class DamageSnapshot {
+    private static final int HIT = 1;
+    private static final int DESTROYED = 1 << 1;
+    private static final int MISSING = 1 << 2;
+    private static final int JAMMED = 1 << 3;
+    private static final int BREACHED = 1 << 4;
+    private static final int FIRED = 1 << 5;
+    private static final int DUMPING = 1 << 6;
+
+    private final Entity entity;
+    private final List<Mounted<?>> equipment;
+    private final int[] equipmentState;
+    private final int[] damageTaken;
+    private final List<CriticalSlot> slots = new ArrayList<>();
+    private final List<Integer> slotState = new ArrayList<>();
+    private final int[] internal;
+    private final int[] armor;
+    private final int[] rearArmor;
+    private final int structuralIntegrity;
+    private final int[] crewHits;
+    private final boolean[] crewDead;
+
+    private DamageSnapshot(Entity entity) {
+        this.entity = entity;
+        equipment = new ArrayList<>(entity.getEquipment());
+        equipmentState = new int[equipment.size()];
+        damageTaken = new int[equipment.size()];
+        for (int i = 0; i < equipment.size(); i++) {
+            Mounted<?> mounted = equipment.get(i);
+            equipmentState[i] = (mounted.isHit() ? HIT : 0)
+                  | (mounted.isDestroyed() ? DESTROYED : 0)
+                  | (mounted.isMissing() ? MISSING : 0)
+                  | (mounted.isJammed() ? JAMMED : 0)
+                  | (mounted.isBreached() ? BREACHED : 0)
+                  | (mounted.isFired() ? FIRED : 0)
+                  | (mounted.isDumping() ? DUMPING : 0);
+            if (mounted instanceof MiscMounted misc) {
+                damageTaken[i] = misc.getDamageTaken();
+            }
+        }
+        internal = new int[entity.locations()];
+        armor = new int[entity.locations()];
+        rearArmor = new int[entity.locations()];
+        for (int loc = 0; loc < entity.locations(); loc++) {
+            for (int slot = 0; slot < entity.getNumberOfCriticalSlots(loc); slot++) {
+                CriticalSlot cs = entity.getCritical(loc, slot);
+                if (cs != null) {
+                    slots.add(cs);
+                    slotState.add((cs.isHit() ? HIT : 0)
+                          | (cs.isDestroyed() ? DESTROYED : 0)
+                          | (cs.isMissing() ? MISSING : 0)
+                          | (cs.isBreached() ? BREACHED : 0));
+                }
+            }
+            internal[loc] = entity.getInternal(loc);
+            armor[loc] = entity.getArmor(loc);
+            if (entity.hasRearArmor(loc)) {
+                rearArmor[loc] = entity.getArmor(loc, true);
+            }
+        }
+        structuralIntegrity = (entity instanceof Aero aero) ? aero.getSI() : 0;
+        Crew crew = entity.getCrew();
+        crewHits = new int[crew.getSlotCount()];
+        crewDead = new boolean[crew.getSlotCount()];
+        for (int i = 0; i < crew.getSlotCount(); i++) {
+            crewHits[i] = crew.getHits(i);
+            crewDead[i] = crew.isDead(i);
+        }
+    }
+
+    /**
+     * Records the damage state of the unit, then clears it with {@link UnitUtil#resetUnit(Entity)}.
+     *
+     * @param entity The unit to reset
+     *
+     * @return The snapshot to restore the damage with
+     */
+    public static DamageSnapshot resetUnit(Entity entity) {
+        DamageSnapshot snapshot = new DamageSnapshot(entity);
+        UnitUtil.resetUnit(entity);
+        return snapshot;
+    }
+
+    /**
+     * @return The unit this is a snapshot of
+     */
+    public Entity getEntity() {
+        return entity;
+    }
+
+    /**
+     * Puts back the damage state recorded by {@link #resetUnit(Entity)}.
+     */
+    public void restore() {
+        for (int i = 0; i < equipment.size(); i++) {
+            Mounted<?> mounted = equipment.get(i);
+            int state = equipmentState[i];
+            if (mounted instanceof MiscMounted misc) {
+                misc.setDamageTaken(damageTaken[i]);
+            }
+            mounted.setHit((state & HIT) != 0);
+            mounted.setDestroyed((state & DESTROYED) != 0);
+            mounted.setMissing((state & MISSING) != 0);
+            mounted.setJammed((state & JAMMED) != 0);
+            mounted.setBreached((state & BREACHED) != 0);
+            mounted.setFired((state & FIRED) != 0);
+            mounted.setDumping((state & DUMPING) != 0);
+        }
+        for (int i = 0; i < slots.size(); i++) {
+            CriticalSlot cs = slots.get(i);
+            int state = slotState.get(i);
+            cs.setDestroyed((state & DESTROYED) != 0);
+            cs.setMissing((state & MISSING) != 0);
+            cs.setBreached((state & BREACHED) != 0);
+            cs.setHit((state & HIT) != 0);
+        }
+        for (int loc = 0; loc < internal.length; loc++) {
+            entity.setInternal(internal[loc], loc);
+            entity.setArmor(armor[loc], loc);
+            if (entity.hasRearArmor(loc)) {
+                entity.setArmor(rearArmor[loc], loc, true);
+            }
+        }
+        if (entity instanceof Aero aero) {
+            aero.setSI(structuralIntegrity);
+        }
+        Crew crew = entity.getCrew();
+        for (int i = 0; i < crewHits.length; i++) {
+            crew.setHits(crewHits[i], i);
+            crew.setDead(crewDead[i], i);
+        }
+    }
+}
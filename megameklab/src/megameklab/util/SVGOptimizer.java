@@ -43,6 +43,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -66,13 +67,16 @@ import org.w3c.dom.svg.SVGDocument;
  */
 public class SVGOptimizer {
     private static final String REPLACEMENT_FONT = "Roboto";
-    private static final DecimalFormat DECIMAL_FORMAT3 = new DecimalFormat("#.###",
-          DecimalFormatSymbols.getInstance(Locale.US));
-    private static final DecimalFormat DECIMAL_FORMAT4 = new DecimalFormat("#.####",
-          DecimalFormatSymbols.getInstance(Locale.US));
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L };
+    // Only used for values that are within rounding error of a tie; DecimalFormat is not thread-safe
+    private static final ThreadLocal<DecimalFormat> TIE_FORMAT = ThreadLocal.withInitial(
+          () -> new DecimalFormat("#", DecimalFormatSymbols.getInstance(Locale.US)));
     private static final Pattern RGB_PATTERN = Pattern.compile("rgb\\(\\s*(\\d+)\\s*,\\s*(\\d+)\\s*,\\s*(\\d+)\\s*\\)");
     private static final Pattern NUMBER_PATTERN = Pattern.compile("-?\\d*\\.\\d+|-?\\d+");
     private static final Pattern URL_ID_PATTERN = Pattern.compile("url\\(#(.*?)\\)");
+    private static final String[] EDITOR_JUNK = { "inkscape", "sodipodi", "adobe", "illustrator" };
+    private static final Pattern INKSCAPE_STYLE_PATTERN = Pattern.compile(
+          "(?i)(?:^|;)\\s*-inkscape[^:;]*:[^;]*(;|$)");
     private static final Pattern DEFAULT_IDS = Pattern.compile("^(text|tspan|g|q|rect|path|svg|polygon)\\d+$");
     private static final Map<String, String> DEFAULT_ATTRIBUTE_VALUES = Map.ofEntries(
           Map.entry("fill", "black"),
@@ -100,6 +104,13 @@ public class SVGOptimizer {
           IdConstants.ASF_GUNNERY_SKILL, IdConstants.ASF_PILOTING_SKILL, IdConstants.ASF_BLANK_GUNNERY_SKILL,
           IdConstants.ASF_BLANK_PILOTING_SKILL
     );
+    // Preserved ids end in a digit selecting one of these groups, such as the crew slots of a sheet
+    private static final int PRESERVED_ID_GROUPS = 5;
+    // Order matches the components of PaintContext
+    private static final List<String> PAINT_PROPERTIES = List.of(
+          SVGConstants.SVG_FILL_ATTRIBUTE, SVGConstants.SVG_STROKE_ATTRIBUTE, SVGConstants.SVG_STROKE_WIDTH_ATTRIBUTE,
+          SVGConstants.SVG_OPACITY_ATTRIBUTE, SVGConstants.SVG_FILL_OPACITY_ATTRIBUTE,
+          SVGConstants.SVG_STROKE_OPACITY_ATTRIBUTE);
     private static final Map<String, Integer> ATTRIBUTE_ORDER;
 
     static {
@@ -126,118 +137,185 @@ public class SVGOptimizer {
         if (root == null) {
             return;
         }
-
-        // Optimize
-        removeMetadata(document);
-        removeEditorMetadata(document);
-        removeComments(document);
-        roundFloatValues(root);
-        simplifyTransformsParams(root);
-        simplifyPathData(root);
-        removeInvisiblePreservedIdGroups(root);
-        removeInvisibleElements(root);
-        removeNonRenderingElements(root);
         final String desiredTypeface = CConfig.getParam(CConfig.RS_FONT, PrintRecordSheet.DEFAULT_TYPEFACE);
-        if (!PrintRecordSheet.DEFAULT_TYPEFACE.equals(desiredTypeface)) {
-            replaceFonts(document, PrintRecordSheet.DEFAULT_TYPEFACE, desiredTypeface);
-        }
-        optimizeColors(root);
-
-        final Set<String> referencedIds = getReferencedIds(document);
-        removeUnusedDefs(document, referencedIds);
-        removeUnusedPatterns(document, referencedIds);
+        final String replacementTypeface = PrintRecordSheet.DEFAULT_TYPEFACE.equals(desiredTypeface) ?
+              null : desiredTypeface;
+
+        // The passes are fused into three walks of the tree. The first cleans up and rewrites each element and
+        // collects the elements to remove. Removal is deferred because the hidden preserved id groups are decided
+        // from the state of the whole document before anything is removed.
+        for (Node child = document.getFirstChild(); child != null; ) {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.COMMENT_NODE) {
+                document.removeChild(child);
+            }
+            child = next;
+        }
+        CleanupPass cleanup = new CleanupPass(replacementTypeface);
+        cleanup.visit(root, PaintContext.DEFAULT, true);
+        cleanup.removeCollectedElements();
+
+        // The second walk only reads the tree, to find which definitions are still referenced
+        final Set<String> referencedIds = new HashSet<>();
+        final List<Element> defsElements = new ArrayList<>();
+        final List<Element> patternElements = new ArrayList<>();
+        collectReferences(root, referencedIds, defsElements, patternElements);
+        removeUnusedDefs(defsElements, referencedIds);
+        removeUnusedPatterns(patternElements, referencedIds);
         //        removeUnusedIds(document, referencedIds); // This is too aggressive, it removes IDs that are later used.
-        removedDefaultIds(document);
-        optimizeAttributes(root);
-        removeWhitespaceNodes(document);
-        collapseEmptyGroups(root);
-        //        sortAttributes(document); //Too slow!
-    }
 
-    private static void replaceFonts(SVGDocument doc, String oldFont, String newFont) {
-        // Replace in text elements
-        replaceTextElementFonts(doc, oldFont, newFont);
-        // Replace in style elements and style attributes
-        replaceStyleFonts(doc, oldFont, newFont);
-        // Replace in CSS within <defs> or <style> elements
-        replaceCSSFonts(doc, oldFont, newFont);
+        // The last walk is bottom-up, so that groups are collapsed after their content is final
+        finishElement(root);
     }
 
-    private static void replaceTextElementFonts(SVGDocument doc, String oldFont, String newFont) {
-        NodeList textElements = doc.getElementsByTagName(SVGConstants.SVG_TEXT_TAG);
-        for (int i = 0; i < textElements.getLength(); i++) {
-            Element element = (Element) textElements.item(i);
-
-            // Replace font-family attribute
-            if (element.hasAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)) {
-                String fontFamily = element.getAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE);
-                if (fontFamily.contains(oldFont)) {
-                    String newFontFamily = fontFamily.replace(oldFont, newFont);
-                    element.setAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE, newFontFamily);
-                }
+    /**
+     * The first walk of the tree. Each element has editor metadata and comments removed, numbers rounded,
+     * transforms and path data simplified, fonts replaced and colors optimized, in that order. Elements that are
+     * editor metadata are removed immediately. Invisible and non-rendering elements and hidden preserved id groups
+     * are only collected, to be removed once the walk is complete.
+     */
+    private static class CleanupPass {
+        private final String replacementTypeface;
+        private final List<List<Element>> preservedIdGroups = new ArrayList<>();
+        private final boolean[] preservedIdGroupVisible = new boolean[PRESERVED_ID_GROUPS];
+        private final List<Element> invisibleElements = new ArrayList<>();
+        private final List<Element> nonRenderingElements = new ArrayList<>();
+
+        CleanupPass(String replacementTypeface) {
+            this.replacementTypeface = replacementTypeface;
+            for (int i = 0; i < PRESERVED_ID_GROUPS; i++) {
+                preservedIdGroups.add(new ArrayList<>());
             }
+        }
 
-            // Replace in style attribute
-            if (element.hasAttribute(SVGConstants.SVG_STYLE_TAG)) {
-                String style = element.getAttribute(SVGConstants.SVG_STYLE_TAG);
-                String newStyle = replaceFontInStyle(style, oldFont, newFont);
-                if (!newStyle.equals(style)) {
-                    element.setAttribute(SVGConstants.SVG_STYLE_TAG, newStyle);
+        void visit(Element element, PaintContext parentPaint, boolean isRoot) {
+            if (isEditorElement(element.getTagName())) {
+                element.getParentNode().removeChild(element);
+                return;
+            }
+            removeEditorAttributes(element);
+            roundFloatValues(element);
+            simplifyTransformsParams(element);
+            simplifyPathData(element);
+
+            final boolean preserveId = shouldPreserveId(element);
+            if (!isRoot) {
+                collectPreservedIdGroup(element);
+            }
+            if (!preserveId && isInvisible(element)) {
+                invisibleElements.add(element);
+            }
+            final PaintContext paint = parentPaint.resolve(element);
+            if (!preserveId && isShapeElement(element) && !paint.isRendered()) {
+                nonRenderingElements.add(element);
+            }
+
+            if (replacementTypeface != null) {
+                replaceFonts(element, PrintRecordSheet.DEFAULT_TYPEFACE, replacementTypeface);
+            }
+            optimizeColors(element);
+
+            NodeList children = element.getChildNodes();
+            for (int i = children.getLength() - 1; i >= 0; i--) {
+                Node child = children.item(i);
+                if (child.getNodeType() == Node.COMMENT_NODE) {
+                    element.removeChild(child);
+                } else if (child instanceof Element childElement) {
+                    visit(childElement, paint, false);
                 }
             }
         }
 
-        // Also check tspan elements (which can be inside text elements)
-        NodeList tspanElements = doc.getElementsByTagName(SVGConstants.SVG_TSPAN_TAG);
-        for (int i = 0; i < tspanElements.getLength(); i++) {
-            Element element = (Element) tspanElements.item(i);
-
-            if (element.hasAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)) {
-                String fontFamily = element.getAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE);
-                if (fontFamily.contains(oldFont)) {
-                    String newFontFamily = fontFamily.replace(oldFont, newFont);
-                    element.setAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE, newFontFamily);
+        private void collectPreservedIdGroup(Element element) {
+            if (!element.hasAttribute(SVGConstants.SVG_ID_ATTRIBUTE)) {
+                return;
+            }
+            String id = element.getAttribute(SVGConstants.SVG_ID_ATTRIBUTE);
+            if (id.length() < 2) {
+                return;
+            }
+            int group = id.charAt(id.length() - 1) - '0';
+            if ((group >= 0) && (group < PRESERVED_ID_GROUPS)
+                  && PRESERVE_IDS_PREFIXES.contains(id.substring(0, id.length() - 1))) {
+                preservedIdGroups.get(group).add(element);
+                if (!"hidden".equalsIgnoreCase(element.getAttribute("visibility"))) {
+                    preservedIdGroupVisible[group] = true;
                 }
             }
+        }
 
-            if (element.hasAttribute(SVGConstants.SVG_STYLE_TAG)) {
-                String style = element.getAttribute(SVGConstants.SVG_STYLE_TAG);
-                String newStyle = replaceFontInStyle(style, oldFont, newFont);
-                if (!newStyle.equals(style)) {
-                    element.setAttribute(SVGConstants.SVG_STYLE_TAG, newStyle);
+        /**
+         * Removes the collected elements: first the preserved id groups of which no member is visible, then
+         * invisible elements, then shapes that have neither fill nor stroke.
+         */
+        void removeCollectedElements() {
+            for (int group = 0; group < PRESERVED_ID_GROUPS; group++) {
+                if (!preservedIdGroupVisible[group]) {
+                    preservedIdGroups.get(group).forEach(SVGOptimizer::detach);
                 }
             }
+            invisibleElements.forEach(SVGOptimizer::detach);
+            nonRenderingElements.forEach(SVGOptimizer::detach);
         }
     }
 
-    private static void replaceStyleFonts(SVGDocument doc, String oldFont, String newFont) {
-        NodeList allElements = doc.getElementsByTagName("*");
-        for (int i = 0; i < allElements.getLength(); i++) {
-            Element element = (Element) allElements.item(i);
+    private static void detach(Node node) {
+        Node parent = node.getParentNode();
+        if (parent != null) {
+            parent.removeChild(node);
+        }
+    }
 
-            if (element.hasAttribute(SVGConstants.SVG_STYLE_TAG)) {
-                String style = element.getAttribute(SVGConstants.SVG_STYLE_TAG);
-                String newStyle = replaceFontInStyle(style, oldFont, newFont);
-                if (!newStyle.equals(style)) {
-                    element.setAttribute(SVGConstants.SVG_STYLE_TAG, newStyle);
-                }
+    /**
+     * The last walk of the tree, which visits children before their parent. Removes default ids, default attribute
+     * values and whitespace, sorts the attributes and collapses empty or attribute-less groups.
+     */
+    private static void finishElement(Element element) {
+        NodeList children = element.getChildNodes();
+        for (int i = children.getLength() - 1; i >= 0; i--) {
+            Node child = children.item(i);
+            if (child instanceof Element childElement) {
+                finishElement(childElement);
             }
         }
+        removeDefaultId(element);
+        optimizeAttributes(element);
+        removeWhitespaceNodes(element);
+        sortAttributes(element);
+        collapseEmptyGroup(element);
     }
 
-    private static void replaceCSSFonts(SVGDocument doc, String oldFont, String newFont) {
-        NodeList styleElements = doc.getElementsByTagName(SVGConstants.SVG_STYLE_TAG);
-        for (int i = 0; i < styleElements.getLength(); i++) {
-            Element styleElement = (Element) styleElements.item(i);
-            String cssContent = styleElement.getTextContent();
+    private static void replaceFonts(Element element, String oldFont, String newFont) {
+        final String tagName = element.getTagName();
+        // Replace font-family attribute of text elements
+        if ((SVGConstants.SVG_TEXT_TAG.equals(tagName) || SVGConstants.SVG_TSPAN_TAG.equals(tagName))
+              && element.hasAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE)) {
+            String fontFamily = element.getAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE);
+            if (fontFamily.contains(oldFont)) {
+                String newFontFamily = fontFamily.replace(oldFont, newFont);
+                element.setAttribute(SVGConstants.SVG_FONT_FAMILY_ATTRIBUTE, newFontFamily);
+            }
+        }
 
+        // Replace in style attribute
+        if (element.hasAttribute(SVGConstants.SVG_STYLE_TAG)) {
+            String style = element.getAttribute(SVGConstants.SVG_STYLE_TAG);
+            String newStyle = replaceFontInStyle(style, oldFont, newFont);
+            if (!newStyle.equals(style)) {
+                element.setAttribute(SVGConstants.SVG_STYLE_TAG, newStyle);
+            }
+        }
+
+        // Replace in CSS within <style> elements
+        if (SVGConstants.SVG_STYLE_TAG.equals(tagName)) {
+            String cssContent = element.getTextContent();
             if (cssContent != null && cssContent.contains(oldFont)) {
                 // Replace font-family declarations in CSS
                 String newCssContent = cssContent.replaceAll(
                       "font-family\\s*:\\s*[^;]*" + Pattern.quote(oldFont) + "[^;]*",
                       "font-family: " + newFont
                 );
-                styleElement.setTextContent(newCssContent);
+                element.setTextContent(newCssContent);
             }
         }
     }
@@ -265,14 +343,6 @@ public class SVGOptimizer {
                 attr.setValue(optimizeStyleColors(attrValue));
             }
         }
-
-        NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child instanceof Element) {
-                optimizeColors((Element) child);
-            }
-        }
     }
 
     private static boolean isColorAttribute(String attrName) {
@@ -347,78 +417,47 @@ public class SVGOptimizer {
         return hexColor;
     }
 
-    private static void removeMetadata(Document doc) {
-        NodeList metadata = doc.getElementsByTagName(SVGConstants.SVG_METADATA_TAG);
-        for (int i = metadata.getLength() - 1; i >= 0; i--) {
-            Node node = metadata.item(i);
-            node.getParentNode().removeChild(node);
-        }
+    private static boolean isEditorElement(String tag) {
+        return SVGConstants.SVG_METADATA_TAG.equals(tag)
+              || tag.contains("sodipodi")
+              || SVGConstants.SVG_TITLE_TAG.equals(tag)
+              || SVGConstants.SVG_DESC_TAG.equals(tag);
     }
 
-    private static void removeEditorMetadata(Node node) {
-        if (node.getNodeType() == Node.ELEMENT_NODE) {
-            Element el = (Element) node;
-
-            String tag = el.getTagName();
-            if (tag.contains("sodipodi") || SVGConstants.SVG_TITLE_TAG.equals(tag) || SVGConstants.SVG_DESC_TAG.equals(
-                  tag)) {
-                if (node.getParentNode() != null) {
-                    node.getParentNode().removeChild(node);
-                }
-                return;
-            }
-
-            NamedNodeMap attrs = el.getAttributes();
-            for (int i = attrs.getLength() - 1; i >= 0; i--) {
-                Node attr = attrs.item(i);
-                String name = attr.getNodeName();
-                String value = attr.getNodeValue();
-                String namespaceUri = attr.getNamespaceURI();
-
-                final String[] editorJunk = { "inkscape", "sodipodi", "adobe", "illustrator" };
-                boolean remove = false;
-                for (String junk : editorJunk) {
-                    if (name.contains(junk)
-                          || (namespaceUri != null && namespaceUri.contains(junk))
-                          || (name.startsWith("xmlns:") && value.contains(junk))) {
-                        remove = true;
-                        break;
-                    }
-                }
-
-                if (remove) {
-                    el.removeAttributeNode((Attr) attr);
+    private static void removeEditorAttributes(Element el) {
+        NamedNodeMap attrs = el.getAttributes();
+        for (int i = attrs.getLength() - 1; i >= 0; i--) {
+            Node attr = attrs.item(i);
+            String name = attr.getNodeName();
+            String value = attr.getNodeValue();
+            String namespaceUri = attr.getNamespaceURI();
+
+            boolean remove = false;
+            for (String junk : EDITOR_JUNK) {
+                if (name.contains(junk)
+                      || (namespaceUri != null && namespaceUri.contains(junk))
+                      || (name.startsWith("xmlns:") && value.contains(junk))) {
+                    remove = true;
+                    break;
                 }
             }
 
-            if (el.hasAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE)) {
-                String style = el.getAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE);
-                // Remove all style properties starting with -inkscape
-                String newStyle = style.replaceAll("(?i)(?:^|;)\\s*-inkscape[^:;]*:[^;]*(;|$)", ";");
-                // Clean up extra semicolons and whitespace
-                newStyle = newStyle.replaceAll(";;+", ";").replaceAll("^;+|;+$", "").trim();
-                if (newStyle.isEmpty()) {
-                    el.removeAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE);
-                } else {
-                    el.setAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE, newStyle);
-                }
+            if (remove) {
+                el.removeAttributeNode((Attr) attr);
             }
         }
 
-        NodeList children = node.getChildNodes();
-        for (int i = children.getLength() - 1; i >= 0; i--) {
-            removeEditorMetadata(children.item(i));
-        }
-    }
-
-    private static void removeComments(Node node) {
-        if (node.getNodeType() == Node.COMMENT_NODE) {
-            node.getParentNode().removeChild(node);
-            return;
-        }
-        NodeList children = node.getChildNodes();
-        for (int i = children.getLength() - 1; i >= 0; i--) {
-            removeComments(children.item(i));
+        if (el.hasAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE)) {
+            String style = el.getAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE);
+            // Remove all style properties starting with -inkscape
+            String newStyle = INKSCAPE_STYLE_PATTERN.matcher(style).replaceAll(";");
+            // Clean up extra semicolons and whitespace
+            newStyle = newStyle.replaceAll(";;+", ";").replaceAll("^;+|;+$", "").trim();
+            if (newStyle.isEmpty()) {
+                el.removeAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE);
+            } else {
+                el.setAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE, newStyle);
+            }
         }
     }
 
@@ -443,14 +482,6 @@ public class SVGOptimizer {
 
             attr.setNodeValue(roundNumbersInString(attr.getNodeValue()));
         }
-
-        NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child instanceof Element) {
-                roundFloatValues((Element) child);
-            }
-        }
     }
 
     private static boolean shouldSkipAttribute(String attrName) {
@@ -483,25 +514,67 @@ public class SVGOptimizer {
     }
 
     private static String format3(double val) {
-        String formatted = DECIMAL_FORMAT3.format(val);
-        if (formatted.startsWith("0.")) {
-            return formatted.substring(1);
-        }
-        if (formatted.startsWith("-0.")) {
-            return "-" + formatted.substring(2);
-        }
-        return formatted;
+        return formatDecimal(val, 3);
     }
 
     private static String format4(double val) {
-        String formatted = DECIMAL_FORMAT4.format(val);
-        if (formatted.startsWith("0.")) {
-            return formatted.substring(1);
-        }
-        if (formatted.startsWith("-0.")) {
-            return "-" + formatted.substring(2);
+        return formatDecimal(val, 4);
+    }
+
+    /**
+     * Formats a number with at most the given number of decimal places, without trailing zeros and without the
+     * leading zero of values between -1 and 1 (0.5 becomes .5). Rounding is half-even, as with {@link
+     * java.text.DecimalFormat}. This is safe to call from multiple threads and does not use a DecimalFormat except
+     * for values that are within rounding error of a tie.
+     *
+     * @param val    The value to format
+     * @param digits The maximum number of decimal places, from 0 to 4
+     *
+     * @return The formatted value
+     */
+    static String formatDecimal(double val, int digits) {
+        if (Double.isNaN(val) || Double.isInfinite(val)) {
+            return String.valueOf(val);
+        }
+        final long scale = POWERS_OF_TEN[digits];
+        final double scaled = Math.abs(val) * scale;
+        if ((scaled >= 1e9) || (Math.abs(scaled - Math.floor(scaled) - 0.5) <= 1e-6)) {
+            // Close enough to a tie that the result depends on the exact decimal expansion
+            DecimalFormat tieFormat = TIE_FORMAT.get();
+            tieFormat.setMaximumFractionDigits(digits);
+            String formatted = tieFormat.format(Math.abs(val));
+            if (formatted.equals("0")) {
+                return formatted;
+            }
+            if (formatted.startsWith("0.")) {
+                formatted = formatted.substring(1);
+            }
+            return (val < 0) ? "-" + formatted : formatted;
+        }
+        final long units = Math.round(scaled);
+        if (units == 0) {
+            return "0";
+        }
+        StringBuilder sb = new StringBuilder(16);
+        if (val < 0) {
+            sb.append('-');
+        }
+        long integerPart = units / scale;
+        long fractionPart = units % scale;
+        if (integerPart != 0) {
+            sb.append(integerPart);
+        }
+        if (fractionPart != 0) {
+            sb.append('.');
+            for (long place = scale / 10; place > fractionPart; place /= 10) {
+                sb.append('0');
+            }
+            while (fractionPart % 10 == 0) {
+                fractionPart /= 10;
+            }
+            sb.append(fractionPart);
         }
-        return formatted;
+        return sb.toString();
     }
 
     private static void simplifyTransforms(Element element) {
@@ -594,9 +667,8 @@ public class SVGOptimizer {
     private static String formatAffineTransform(AffineTransform at) {
         double[] m = new double[6];
         at.getMatrix(m);
-        return String.format("matrix(%s %s %s %s %s %s)",
-              format4(m[0]), format4(m[1]), format4(m[2]),
-              format4(m[3]), format4(m[4]), format4(m[5]));
+        return "matrix(" + format4(m[0]) + ' ' + format4(m[1]) + ' ' + format4(m[2]) + ' '
+              + format4(m[3]) + ' ' + format4(m[4]) + ' ' + format4(m[5]) + ')';
     }
 
 
@@ -607,14 +679,6 @@ public class SVGOptimizer {
             String simplified = simplifyPathD(d);
             element.setAttribute(SVGConstants.SVG_D_ATTRIBUTE, simplified);
         }
-
-        NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child instanceof Element) {
-                simplifyPathData((Element) child);
-            }
-        }
     }
 
     private static String simplifyPathD(String d) {
@@ -681,176 +745,83 @@ public class SVGOptimizer {
         return false;
     }
 
-    private static void removeInvisiblePreservedIdGroups(Element element) {
-        NodeList allElements = element.getElementsByTagName("*");
-        for (int testNum = 0; testNum <= 4; testNum++) {
-            boolean anyVisible = false;
-            List<Element> elementsToRemove = new ArrayList<>();
-
-            for (int i = 0; i < allElements.getLength(); i++) {
-                Element el = (Element) allElements.item(i);
-                if (el.hasAttribute("id")) {
-                    String id = el.getAttribute("id");
-                    for (String prefix : PRESERVE_IDS_PREFIXES) {
-                        if (id.equals(prefix + testNum)) {
-                            String visibility = el.getAttribute("visibility");
-                            if (!"hidden".equalsIgnoreCase(visibility)) {
-                                anyVisible = true;
-                            }
-                            elementsToRemove.add(el);
+    private static boolean isInvisible(Element element) {
+        String display = element.getAttribute("display");
+        String visibility = element.getAttribute("visibility");
+        String opacity = element.getAttribute(SVGConstants.SVG_OPACITY_ATTRIBUTE);
+        return SVGConstants.SVG_NONE_VALUE.equals(display) || "hidden".equals(visibility) || "0".equals(opacity);
+    }
+
+    /**
+     * The paint properties that decide whether a shape is rendered, resolved for an element from its own style and
+     * attributes and those of its ancestors.
+     */
+    private record PaintContext(String fill, String stroke, String strokeWidth, String opacity, String fillOpacity,
+          String strokeOpacity) {
+        static final PaintContext DEFAULT = new PaintContext(
+              getDefaultCssValue(SVGConstants.SVG_FILL_ATTRIBUTE),
+              getDefaultCssValue(SVGConstants.SVG_STROKE_ATTRIBUTE),
+              getDefaultCssValue(SVGConstants.SVG_STROKE_WIDTH_ATTRIBUTE),
+              getDefaultCssValue(SVGConstants.SVG_OPACITY_ATTRIBUTE),
+              getDefaultCssValue(SVGConstants.SVG_FILL_OPACITY_ATTRIBUTE),
+              getDefaultCssValue(SVGConstants.SVG_STROKE_OPACITY_ATTRIBUTE));
+
+        /**
+         * @return The paint context of a child element. A property that is not set on the element, or is set to
+         *       inherit, keeps the value of this context.
+         */
+        PaintContext resolve(Element element) {
+            final String[] values = new String[PAINT_PROPERTIES.size()];
+            if (element.hasAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE)) {
+                String style = element.getAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE);
+                for (String declaration : style.split(";")) {
+                    String[] parts = declaration.split(":", 2);
+                    if (parts.length == 2) {
+                        int index = PAINT_PROPERTIES.indexOf(parts[0].trim().toLowerCase(Locale.ROOT));
+                        if ((index >= 0) && (values[index] == null)) {
+                            values[index] = parts[1].trim();
                         }
                     }
                 }
             }
-
-            if (!anyVisible) {
-                for (Element el : elementsToRemove) {
-                    Node parent = el.getParentNode();
-                    if (parent != null) {
-                        parent.removeChild(el);
-                    }
+            boolean changed = false;
+            for (int i = 0; i < values.length; i++) {
+                if ((values[i] == null) && element.hasAttribute(PAINT_PROPERTIES.get(i))) {
+                    values[i] = element.getAttribute(PAINT_PROPERTIES.get(i));
                 }
-            }
-        }
-    }
-
-    private static void removeInvisibleElements(Element element) {
-        // Check if the current element should be removed
-        if (!shouldPreserveId(element)) {
-            String display = element.getAttribute("display");
-            String visibility = element.getAttribute("visibility");
-            String opacity = element.getAttribute(SVGConstants.SVG_OPACITY_ATTRIBUTE);
-
-            if (SVGConstants.SVG_NONE_VALUE.equals(display) || "hidden".equals(visibility) || "0".equals(opacity)) {
-                element.getParentNode().removeChild(element);
-                return; // Stop further processing for this element
-            }
-        }
-
-        // Process child nodes
-        List<Node> nodesToRemove = new ArrayList<>();
-        NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() == Node.ELEMENT_NODE) {
-                Element childElement = (Element) child;
-                if (!shouldPreserveId(childElement)) {
-                    String display = childElement.getAttribute("display");
-                    String visibility = childElement.getAttribute("visibility");
-                    String opacity = childElement.getAttribute(SVGConstants.SVG_OPACITY_ATTRIBUTE);
-
-                    if (SVGConstants.SVG_NONE_VALUE.equals(display)
-                          || "hidden".equals(visibility)
-                          || "0".equals(opacity)) {
-                        nodesToRemove.add(child);
-                    } else {
-                        removeInvisibleElements(childElement);
-                    }
-                } else {
-                    removeInvisibleElements(childElement);
+                if ((values[i] != null) && "inherit".equalsIgnoreCase(values[i])) {
+                    values[i] = null;
                 }
+                changed |= values[i] != null;
             }
-        }
-
-        // Remove collected nodes
-        for (Node node : nodesToRemove) {
-            node.getParentNode().removeChild(node);
-        }
-    }
-
-    private static void removeNonRenderingElements(Node node) {
-        // Collect nodes to remove
-        List<Node> nodesToRemove = new ArrayList<>();
-
-        // Process child nodes first
-        NodeList children = node.getChildNodes();
-        for (int i = children.getLength() - 1; i >= 0; i--) {
-            Node child = children.item(i);
-            if (child.getNodeType() == Node.ELEMENT_NODE) {
-                removeNonRenderingElements(child);
+            if (!changed) {
+                return this;
             }
+            return new PaintContext(
+                  Objects.requireNonNullElse(values[0], fill),
+                  Objects.requireNonNullElse(values[1], stroke),
+                  Objects.requireNonNullElse(values[2], strokeWidth),
+                  Objects.requireNonNullElse(values[3], opacity),
+                  Objects.requireNonNullElse(values[4], fillOpacity),
+                  Objects.requireNonNullElse(values[5], strokeOpacity));
         }
 
-        if (node.getNodeType() != Node.ELEMENT_NODE) {
-            return;
-        }
-
-        Element element = (Element) node;
-
-        // Skip elements with IDs that should be preserved
-        if (shouldPreserveId(element)) {
-            return;
-        }
-
-        // Skip non-shape elements
-        if (!isShapeElement(element)) {
-            return;
-        }
-
-        // Check rendering properties
-        String fill = getComputedStyle(element, SVGConstants.SVG_FILL_ATTRIBUTE);
-        String stroke = getComputedStyle(element, SVGConstants.SVG_STROKE_ATTRIBUTE);
-        String strokeWidth = getComputedStyle(element, SVGConstants.SVG_STROKE_WIDTH_ATTRIBUTE);
-        String opacity = getComputedStyle(element, SVGConstants.SVG_OPACITY_ATTRIBUTE);
-        String fillOpacity = getComputedStyle(element, SVGConstants.SVG_FILL_OPACITY_ATTRIBUTE);
-        String strokeOpacity = getComputedStyle(element, SVGConstants.SVG_STROKE_OPACITY_ATTRIBUTE);
-
-        boolean hasFill = !SVGConstants.SVG_NONE_VALUE.equalsIgnoreCase(fill) && !"transparent".equalsIgnoreCase(fill);
-        if (hasFill && ("0".equals(opacity) || "0".equals(fillOpacity))) {
-            hasFill = false;
-        }
-
-        boolean hasStroke = !SVGConstants.SVG_NONE_VALUE.equalsIgnoreCase(stroke);
-        if (hasStroke && ("0".equals(strokeWidth) || "0".equals(opacity) || "0".equals(strokeOpacity))) {
-            hasStroke = false;
-        }
-
-        // Mark element for removal if it has neither fill nor stroke
-        if (!hasFill && !hasStroke) {
-            nodesToRemove.add(element);
-        }
-
-        // Remove collected nodes
-        for (Node nodeToRemove : nodesToRemove) {
-            nodeToRemove.getParentNode().removeChild(nodeToRemove);
-        }
-    }
-
-    private static String getComputedStyle(Element element, String propertyName) {
-        Element current = element;
-        while (current != null) {
-            String value = getStyleProperty(current, propertyName);
-            if (value != null && !"inherit".equalsIgnoreCase(value)) {
-                return value;
+        /**
+         * @return Whether a shape painted with these properties has a visible fill or stroke
+         */
+        boolean isRendered() {
+            boolean hasFill = !SVGConstants.SVG_NONE_VALUE.equalsIgnoreCase(fill)
+                  && !"transparent".equalsIgnoreCase(fill);
+            if (hasFill && ("0".equals(opacity) || "0".equals(fillOpacity))) {
+                hasFill = false;
             }
 
-            Node parent = current.getParentNode();
-            if (parent instanceof Element) {
-                current = (Element) parent;
-            } else {
-                current = null;
+            boolean hasStroke = !SVGConstants.SVG_NONE_VALUE.equalsIgnoreCase(stroke);
+            if (hasStroke && ("0".equals(strokeWidth) || "0".equals(opacity) || "0".equals(strokeOpacity))) {
+                hasStroke = false;
             }
+            return hasFill || hasStroke;
         }
-        return getDefaultCssValue(propertyName);
-    }
-
-    private static String getStyleProperty(Element element, String propertyName) {
-        if (element.hasAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE)) {
-            String style = element.getAttribute(SVGConstants.SVG_STYLE_ATTRIBUTE);
-            String[] declarations = style.split(";");
-            for (String declaration : declarations) {
-                String[] parts = declaration.split(":", 2);
-                if (parts.length == 2 && parts[0].trim().equalsIgnoreCase(propertyName)) {
-                    return parts[1].trim();
-                }
-            }
-        }
-
-        if (element.hasAttribute(propertyName)) {
-            return element.getAttribute(propertyName);
-        }
-
-        return null;
     }
 
     private static String getDefaultCssValue(String propertyName) {
@@ -879,31 +850,37 @@ public class SVGOptimizer {
         };
     }
 
-    private static Set<String> getReferencedIds(Document doc) {
-        Set<String> referencedIds = new HashSet<>();
-        NodeList all = doc.getElementsByTagName("*");
-
-        for (int i = 0; i < all.getLength(); i++) {
-            Element el = (Element) all.item(i);
-            NamedNodeMap attrs = el.getAttributes();
-            for (int j = 0; j < attrs.getLength(); j++) {
-                String val = attrs.item(j).getNodeValue();
+    private static void collectReferences(Element element, Set<String> referencedIds, List<Element> defsElements,
+          List<Element> patternElements) {
+        NamedNodeMap attrs = element.getAttributes();
+        for (int j = 0; j < attrs.getLength(); j++) {
+            String val = attrs.item(j).getNodeValue();
+            if (val.contains("url(#")) {
                 Matcher m = URL_ID_PATTERN.matcher(val);
                 while (m.find()) {
                     referencedIds.add(m.group(1));
                 }
-                if (val.startsWith("#")) {
-                    referencedIds.add(val.substring(1));
-                }
+            }
+            if (val.startsWith("#")) {
+                referencedIds.add(val.substring(1));
+            }
+        }
+        if (SVGConstants.SVG_DEFS_TAG.equals(element.getTagName())) {
+            defsElements.add(element);
+        } else if (SVGConstants.SVG_PATTERN_TAG.equals(element.getTagName())) {
+            patternElements.add(element);
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                collectReferences(childElement, referencedIds, defsElements, patternElements);
             }
         }
-        return referencedIds;
     }
 
-    private static void removeUnusedDefs(Document doc, Set<String> referencedIds) {
-        NodeList defsList = doc.getElementsByTagName(SVGConstants.SVG_DEFS_TAG);
-        for (int i = defsList.getLength() - 1; i >= 0; i--) {
-            Element defs = (Element) defsList.item(i);
+    private static void removeUnusedDefs(List<Element> defsList, Set<String> referencedIds) {
+        for (int i = defsList.size() - 1; i >= 0; i--) {
+            Element defs = defsList.get(i);
             NodeList children = defs.getChildNodes();
             for (int j = children.getLength() - 1; j >= 0; j--) {
                 Node child = children.item(j);
@@ -915,7 +892,7 @@ public class SVGOptimizer {
                 }
             }
             if (!defs.hasChildNodes()) {
-                defs.getParentNode().removeChild(defs);
+                detach(defs);
             }
         }
     }
@@ -933,32 +910,21 @@ public class SVGOptimizer {
         }
     }
 
-    private static void removeUnusedPatterns(Document doc, Set<String> referencedIds) {
-        NodeList patternList = doc.getElementsByTagName(SVGConstants.SVG_PATTERN_TAG);
-        for (int i = patternList.getLength() - 1; i >= 0; i--) {
-            Node node = patternList.item(i);
-            if (node instanceof Element pattern) {
-                String id = pattern.getAttribute(SVGConstants.SVG_ID_ATTRIBUTE);
-                if (!id.isEmpty() && !referencedIds.contains(id)) {
-                    pattern.getParentNode().removeChild(pattern);
-                }
+    private static void removeUnusedPatterns(List<Element> patternList, Set<String> referencedIds) {
+        for (int i = patternList.size() - 1; i >= 0; i--) {
+            Element pattern = patternList.get(i);
+            String id = pattern.getAttribute(SVGConstants.SVG_ID_ATTRIBUTE);
+            if (!id.isEmpty() && !referencedIds.contains(id)) {
+                detach(pattern);
             }
         }
     }
 
-    private static void removedDefaultIds(Document doc) {
-        NodeList allElements = doc.getElementsByTagName("*");
-
-        for (int i = 0; i < allElements.getLength(); i++) {
-            Node node = allElements.item(i);
-            if (node.getNodeType() == Node.ELEMENT_NODE) {
-                Element element = (Element) node;
-                if (element.hasAttribute(SVGConstants.SVG_ID_ATTRIBUTE)) {
-                    String id = element.getAttribute(SVGConstants.SVG_ID_ATTRIBUTE);
-                    if (DEFAULT_IDS.matcher(id).matches()) {
-                        element.removeAttribute(SVGConstants.SVG_ID_ATTRIBUTE);
-                    }
-                }
+    private static void removeDefaultId(Element element) {
+        if (element.hasAttribute(SVGConstants.SVG_ID_ATTRIBUTE)) {
+            String id = element.getAttribute(SVGConstants.SVG_ID_ATTRIBUTE);
+            if (DEFAULT_IDS.matcher(id).matches()) {
+                element.removeAttribute(SVGConstants.SVG_ID_ATTRIBUTE);
             }
         }
     }
@@ -1057,48 +1023,25 @@ public class SVGOptimizer {
         for (Attr attr : toRemove) {
             element.removeAttributeNode(attr);
         }
-
-        NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child instanceof Element) {
-                optimizeAttributes((Element) child);
-            }
-        }
     }
 
-    private static void removeWhitespaceNodes(Node node) {
+    private static void removeWhitespaceNodes(Element element) {
         // Don't remove whitespace within text-related elements
-        boolean preserveSpace = false;
-        if (node instanceof Element) {
-            String tagName = ((Element) node).getTagName();
-            if (SVGConstants.SVG_TEXT_TAG.equals(tagName) || SVGConstants.SVG_TSPAN_TAG.equals(tagName)) {
-                preserveSpace = true;
-            }
+        String tagName = element.getTagName();
+        if (SVGConstants.SVG_TEXT_TAG.equals(tagName) || SVGConstants.SVG_TSPAN_TAG.equals(tagName)) {
+            return;
         }
 
-        NodeList children = node.getChildNodes();
-        for (int i = children.getLength() - 1; i >= 0; i--) {
-            Node child = children.item(i);
-            if (child.getNodeType() == Node.TEXT_NODE) {
-                if (!preserveSpace && child.getNodeValue().trim().isEmpty()) {
-                    node.removeChild(child);
-                }
-            } else if (child.getNodeType() == Node.ELEMENT_NODE) {
-                removeWhitespaceNodes(child);
-            }
-        }
-    }
-
-    private static void collapseEmptyGroups(Element element) {
         NodeList children = element.getChildNodes();
         for (int i = children.getLength() - 1; i >= 0; i--) {
             Node child = children.item(i);
-            if (child instanceof Element) {
-                collapseEmptyGroups((Element) child);
+            if (child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().trim().isEmpty()) {
+                element.removeChild(child);
             }
         }
+    }
 
+    private static void collapseEmptyGroup(Element element) {
         if (SVGConstants.SVG_G_TAG.equals(element.getTagName())) {
             Node parent = element.getParentNode();
             if (parent == null) {
@@ -1169,50 +1112,42 @@ public class SVGOptimizer {
         return name1.compareTo(name2);
     };
 
-    private static void sortAttributes(Node node) {
-        if (node.getNodeType() == Node.ELEMENT_NODE) {
-            Element element = (Element) node;
-            NamedNodeMap attributes = element.getAttributes();
-            int attrCount = attributes.getLength();
+    private static void sortAttributes(Element element) {
+        NamedNodeMap attributes = element.getAttributes();
+        int attrCount = attributes.getLength();
 
-            if (attrCount > 1) {
-                List<AttributeInfo> attrList = new ArrayList<>(attrCount);
-                for (int i = 0; i < attrCount; i++) {
-                    attrList.add(new AttributeInfo((Attr) attributes.item(i)));
-                }
+        if (attrCount > 1) {
+            List<AttributeInfo> attrList = new ArrayList<>(attrCount);
+            for (int i = 0; i < attrCount; i++) {
+                attrList.add(new AttributeInfo((Attr) attributes.item(i)));
+            }
 
-                boolean isSorted = true;
-                for (int i = 0; i < attrList.size() - 1; i++) {
-                    if (ATTRIBUTE_COMPARATOR.compare(attrList.get(i), attrList.get(i + 1)) > 0) {
-                        isSorted = false;
-                        break;
-                    }
+            boolean isSorted = true;
+            for (int i = 0; i < attrList.size() - 1; i++) {
+                if (ATTRIBUTE_COMPARATOR.compare(attrList.get(i), attrList.get(i + 1)) > 0) {
+                    isSorted = false;
+                    break;
                 }
+            }
 
-                if (!isSorted) {
-                    attrList.sort(ATTRIBUTE_COMPARATOR);
+            if (!isSorted) {
+                attrList.sort(ATTRIBUTE_COMPARATOR);
 
-                    List<Attr> attrsToRemove = new ArrayList<>();
-                    for (int i = 0; i < attributes.getLength(); i++) {
-                        attrsToRemove.add((Attr) attributes.item(i));
-                    }
-                    // Remove all attributes
-                    for (Attr attr : attrsToRemove) {
-                        element.removeAttributeNode(attr);
-                    }
+                List<Attr> attrsToRemove = new ArrayList<>();
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    attrsToRemove.add((Attr) attributes.item(i));
+                }
+                // Remove all attributes
+                for (Attr attr : attrsToRemove) {
+                    element.removeAttributeNode(attr);
+                }
 
-                    // Add them back in sorted order.
-                    for (AttributeInfo attr : attrList) {
-                        element.setAttributeNS(attr.namespaceURI, attr.name, attr.value);
-                    }
+                // Add them back in sorted order.
+                for (AttributeInfo attr : attrList) {
+                    element.setAttributeNS(attr.namespaceURI, attr.name, attr.value);
                 }
             }
         }
-
-        NodeList children = node.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            sortAttributes(children.item(i));
-        }
     }
 
     private static void convertShapesToPaths(Element element) {
@@ -1348,14 +1283,6 @@ public class SVGOptimizer {
                 System.err.println("Failed to simplify transform: " + transform + " (" + e.getMessage() + ")");
             }
         }
-
-        NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child instanceof Element) {
-                simplifyTransformsParams((Element) child);
-            }
-        }
     }
 
     private static String simplifyTransformString(String transformStr) {
@@ -1400,8 +1327,8 @@ public class SVGOptimizer {
                 translate(e, f); // Translate
                 return;
             }
-            transforms.add(String.format("matrix(%s %s %s %s %s %s)",
-                  format4(a), format4(b), format4(c), format4(d), format4(e), format4(f)));
+            transforms.add("matrix(" + format4(a) + ' ' + format4(b) + ' ' + format4(c) + ' ' + format4(d) + ' '
+                  + format4(e) + ' ' + format4(f) + ')');
         }
 
         @Override
@@ -1416,7 +1343,7 @@ public class SVGOptimizer {
             if (isClose(cx, 0) && isClose(cy, 0)) {
                 rotate(theta);
             } else {
-                transforms.add(String.format("rotate(%s %s %s)", format4(theta), format4(cx), format4(cy)));
+                transforms.add("rotate(" + format4(theta) + ' ' + format4(cx) + ' ' + format4(cy) + ')');
             }
         }
 
@@ -1432,7 +1359,7 @@ public class SVGOptimizer {
             if (isClose(ty, 0)) {
                 translate(tx);
             } else {
-                transforms.add(String.format("translate(%s %s)", format4(tx), format4(ty)));
+                transforms.add("translate(" + format4(tx) + ' ' + format4(ty) + ')');
             }
         }
 
@@ -1448,7 +1375,7 @@ public class SVGOptimizer {
             if (isClose(sx, sy)) {
                 scale(sx);
             } else {
-                transforms.add(String.format("scale(%s %s)", format4(sx), format4(sy)));
+                transforms.add("scale(" + format4(sx) + ' ' + format4(sy) + ')');
             }
         }
 
@@ -41,8 +41,12 @@ import java.awt.print.PrinterJob;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import javax.print.attribute.HashPrintRequestAttributeSet;
 import javax.print.attribute.standard.DialogTypeSelection;
@@ -52,6 +56,7 @@ import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import megamek.client.ui.dialogs.UnitLoadingDialog;
+import megamek.common.annotations.Nullable;
 import megamek.common.battleArmor.BattleArmor;
 import megamek.common.equipment.HandheldWeapon;
 import megamek.common.loaders.MULParser;
@@ -75,6 +80,9 @@ import org.apache.commons.io.FilenameUtils;
 public class UnitPrintManager {
     private static final MMLogger LOGGER = MMLogger.create(UnitPrintManager.class);
 
+    // Units whose damage is cleared while a sheet of a print or export job is in use
+    private static final Set<Entity> RESET_UNITS = Collections.newSetFromMap(new IdentityHashMap<>());
+
     public static void printEntity(Entity entity) {
         List<Entity> unitList = Collections.singletonList(entity);
         printAllUnits(unitList, false);
@@ -162,7 +170,48 @@ public class UnitPrintManager {
 
     public static List<PrintRecordSheet> createSheets(List<? extends BTObject> entities, boolean singlePrint,
           RecordSheetOptions options, boolean noWarningsOnUnprintable) {
-        List<PrintRecordSheet> sheets = new ArrayList<>();
+        return planSheets(entities, singlePrint, options, noWarningsOnUnprintable).stream()
+              .map(PlannedSheet::create)
+              .collect(Collectors.toList());
+    }
+
+    /**
+     * Lays out the record sheets for a list of units without building them. Each sheet is only built when
+     * {@link PlannedSheet#create()} is called, so print and export jobs can build each sheet just before rendering
+     * it.
+     *
+     * <p>If damage is hidden, a damaged unit is printed from an undamaged copy, so the units of the caller keep
+     * their damage. Callers should still release each sheet once its pages are rendered.</p>
+     *
+     * @param entities                The units to print, which may include {@link PageBreak}s
+     * @param singlePrint             Whether to limit each record sheet to a single unit
+     * @param options                 The record sheet options
+     * @param noWarningsOnUnprintable Whether to skip the warning about units that cannot be printed
+     *
+     * @return The planned sheets, in page order
+     */
+    public static List<PlannedSheet> planSheets(List<? extends BTObject> entities, boolean singlePrint,
+          RecordSheetOptions options, boolean noWarningsOnUnprintable) {
+        return planSheets(entities, singlePrint, options, noWarningsOnUnprintable, false);
+    }
+
+    /**
+     * Lays out the record sheets for a list of units without building them, like
+     * {@link #planSheets(List, boolean, RecordSheetOptions, boolean)}.
+     *
+     * <p>A job that owns its units, such as one that loaded them from their files and drops them when done, can
+     * skip copying damaged units. If damage is hidden, such a unit has its damage cleared while its sheet is built
+     * and rendered, and put back when {@link PlannedSheet#release()} is called; see {@link DamageSnapshot}. Building
+     * the sheet of a Mek also changes its mounts for good, so units that anything else may still use must not be
+     * passed as owned.</p>
+     *
+     * @param ownsUnits Whether nothing but this job uses the units, so they can be changed while their sheets are in
+     *                  use instead of copied
+     */
+    public static List<PlannedSheet> planSheets(List<? extends BTObject> entities, boolean singlePrint,
+          RecordSheetOptions options, boolean noWarningsOnUnprintable, boolean ownsUnits) {
+        final boolean copyUnits = !ownsUnits;
+        List<PlannedSheet> sheets = new ArrayList<>();
         List<Infantry> infList = new ArrayList<>();
         List<BattleArmor> baList = new ArrayList<>();
         List<ProtoMek> protoList = new ArrayList<>();
@@ -173,118 +222,123 @@ public class UnitPrintManager {
         int pageCount = 0;
         for (BTObject object : entities) {
             if (object instanceof Entity entity) {
-                Entity unit;
-                // assign base unit and override only if damage should be hidden and entity is damaged
-                if (!options.showDamage() && UnitUtil.isDamaged(entity, options.showPilotData())) {
-                    unit = UnitUtil.cloneUnit(entity);
-                    if (unit != null) {
-                        UnitUtil.resetUnit(unit);
-                    }
-                } else {
-                    unit = entity;
-                }
-                if (unit instanceof Mek) {
-                    UnitUtil.removeOneShotAmmo(unit);
-                    MekUtil.expandUnitMounts((Mek) unit);
-                    sheets.add(new PrintMek((Mek) unit, pageCount++, options));
-                } else if ((unit instanceof Tank) && unit.getMovementMode().isMarine()) {
-                    sheets.add(new PrintTank((Tank) unit, pageCount++, options));
-                } else if (unit instanceof Tank) {
+                final int firstPage = pageCount;
+                if (entity instanceof Mek) {
+                    sheets.add(plan(firstPage, 1, options, copyUnits, printable -> {
+                        Mek mek = (Mek) printable.apply(entity);
+                        UnitUtil.removeOneShotAmmo(mek);
+                        MekUtil.expandUnitMounts(mek);
+                        return new PrintMek(mek, firstPage, options);
+                    }));
+                    pageCount++;
+                } else if ((entity instanceof Tank) && entity.getMovementMode().isMarine()) {
+                    sheets.add(plan(firstPage, 1, options, copyUnits,
+                          printable -> new PrintTank((Tank) printable.apply(entity), firstPage, options)));
+                    pageCount++;
+                } else if (entity instanceof Tank tank) {
                     if (singlePrint || options.showReferenceCharts()) {
-                        sheets.add(new PrintCompositeTankSheet((Tank) unit, null, pageCount++, options));
+                        sheets.add(planCompositeTankSheet(tank, null, firstPage, options, copyUnits));
+                        pageCount++;
                     } else if (null != tank1) {
-                        sheets.add(new PrintCompositeTankSheet(tank1, (Tank) unit, pageCount++, options));
+                        sheets.add(planCompositeTankSheet(tank1, tank, firstPage, options, copyUnits));
+                        pageCount++;
                         tank1 = null;
                     } else {
-                        tank1 = (Tank) unit;
+                        tank1 = tank;
                     }
-                } else if (unit != null && unit.hasETypeFlag(Entity.ETYPE_AERO)) {
-                    if (unit instanceof Jumpship) {
-                        PrintCapitalShip pcs = new PrintCapitalShip((Jumpship) unit, pageCount, options);
-                        pageCount += pcs.getPageCount();
-                        sheets.add(pcs);
-                    } else if (unit instanceof Dropship) {
-                        PrintDropship pds = new PrintDropship((Aero) unit, pageCount, options);
-                        pageCount += pds.getPageCount();
-                        sheets.add(pds);
+                } else if (entity.hasETypeFlag(Entity.ETYPE_AERO)) {
+                    // The page count of large craft depends on their equipment, which a copy of the unit shares
+                    if (entity instanceof Jumpship) {
+                        int pages = new PrintCapitalShip((Jumpship) entity, firstPage, options).getPageCount();
+                        sheets.add(plan(firstPage, pages, options, copyUnits,
+                              printable -> new PrintCapitalShip((Jumpship) printable.apply(entity), firstPage,
+                                    options)));
+                        pageCount += pages;
+                    } else if (entity instanceof Dropship) {
+                        int pages = new PrintDropship((Aero) entity, firstPage, options).getPageCount();
+                        sheets.add(plan(firstPage, pages, options, copyUnits,
+                              printable -> new PrintDropship((Aero) printable.apply(entity), firstPage, options)));
+                        pageCount += pages;
                     } else {
-                        sheets.add(new PrintAero((Aero) unit, pageCount++, options));
+                        sheets.add(plan(firstPage, 1, options, copyUnits,
+                              printable -> new PrintAero((Aero) printable.apply(entity), firstPage, options)));
+                        pageCount++;
                     }
-                } else if (unit instanceof BattleArmor) {
-                    baList.add((BattleArmor) unit);
+                } else if (entity instanceof BattleArmor) {
+                    baList.add((BattleArmor) entity);
                     if (singlePrint || PrintSmallUnitSheet.fillsSheet(baList, options)) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(baList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(baList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         baList = new ArrayList<>();
                     }
-                } else if (unit instanceof Infantry) {
-                    infList.add((Infantry) unit);
+                } else if (entity instanceof Infantry) {
+                    infList.add((Infantry) entity);
                     if (singlePrint || PrintSmallUnitSheet.fillsSheet(infList, options)) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(infList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(infList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         infList = new ArrayList<>();
                     }
-                } else if (unit instanceof ProtoMek) {
-                    protoList.add((ProtoMek) unit);
+                } else if (entity instanceof ProtoMek) {
+                    protoList.add((ProtoMek) entity);
                     if (singlePrint || PrintSmallUnitSheet.fillsSheet(protoList, options)) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(protoList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(protoList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         protoList = new ArrayList<>();
                     }
-                } else if (unit instanceof HandheldWeapon) {
+                } else if (entity instanceof HandheldWeapon) {
                     if (!singlePrint) {
-                        final PrintHandheldWeapon phw = new PrintHandheldWeapon((HandheldWeapon) unit,
+                        final PrintHandheldWeapon phw = new PrintHandheldWeapon((HandheldWeapon) entity,
                               pageCount,
                               options);
                         final int reservedSpace = phw.isLargeLayout() ? 1 : 0;
                         if (reservedSpace > 0 && PrintSmallUnitSheet.fillsSheet(hhwList, options, reservedSpace)) {
-                            PrintRecordSheet prs = new PrintSmallUnitSheet(hhwList, pageCount, options);
-                            pageCount += prs.getPageCount();
-                            sheets.add(prs);
+                            PlannedSheet sheet = planSmallUnitSheet(hhwList, pageCount, options, copyUnits);
+                            pageCount += sheet.getPageCount();
+                            sheets.add(sheet);
                             hhwList = new ArrayList<>();
                         }
                     }
-                    hhwList.add((HandheldWeapon) unit);
+                    hhwList.add((HandheldWeapon) entity);
                     if (singlePrint || PrintSmallUnitSheet.fillsSheet(hhwList, options)) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(hhwList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(hhwList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         hhwList = new ArrayList<>();
                     }
                 } else {
-                    unprintable.add(unit);
+                    unprintable.add(entity);
                 }
             } else if (object instanceof PageBreak) {
                 if (!singlePrint) {
                     if (!baList.isEmpty()) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(baList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(baList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         baList = new ArrayList<>();
                     }
                     if (!infList.isEmpty()) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(infList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(infList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         infList = new ArrayList<>();
                     }
                     if (!protoList.isEmpty()) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(protoList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(protoList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         protoList = new ArrayList<>();
                     }
                     if (!hhwList.isEmpty()) {
-                        PrintRecordSheet prs = new PrintSmallUnitSheet(hhwList, pageCount, options);
-                        pageCount += prs.getPageCount();
-                        sheets.add(prs);
+                        PlannedSheet sheet = planSmallUnitSheet(hhwList, pageCount, options, copyUnits);
+                        pageCount += sheet.getPageCount();
+                        sheets.add(sheet);
                         hhwList = new ArrayList<>();
                     }
                     if (null != tank1) {
-                        sheets.add(new PrintCompositeTankSheet(tank1, null, pageCount++, options));
+                        sheets.add(planCompositeTankSheet(tank1, null, pageCount++, options, copyUnits));
                         tank1 = null;
                     }
                 }
@@ -302,39 +356,134 @@ public class UnitPrintManager {
         }
 
         if (null != tank1) {
-            sheets.add(new PrintCompositeTankSheet(tank1, null, pageCount++, options));
+            sheets.add(planCompositeTankSheet(tank1, null, pageCount++, options, copyUnits));
         }
 
         if (!baList.isEmpty()) {
-            sheets.add(new PrintSmallUnitSheet(baList, pageCount++, options));
+            sheets.add(planSmallUnitSheet(baList, pageCount++, options, copyUnits));
         }
 
         if (!infList.isEmpty()) {
-            sheets.add(new PrintSmallUnitSheet(infList, pageCount++, options));
+            sheets.add(planSmallUnitSheet(infList, pageCount++, options, copyUnits));
         }
 
         if (!protoList.isEmpty()) {
-            sheets.add(new PrintSmallUnitSheet(protoList, pageCount++, options));
+            sheets.add(planSmallUnitSheet(protoList, pageCount++, options, copyUnits));
         }
         if (!hhwList.isEmpty()) {
-            sheets.add(new PrintSmallUnitSheet(hhwList, pageCount++, options));
+            sheets.add(planSmallUnitSheet(hhwList, pageCount++, options, copyUnits));
         }
         return sheets;
     }
 
+    private static PlannedSheet planCompositeTankSheet(Tank tank1, @Nullable Tank tank2, int firstPage,
+          RecordSheetOptions options, boolean copyUnits) {
+        return plan(firstPage, 1, options, copyUnits,
+              printable -> new PrintCompositeTankSheet((Tank) printable.apply(tank1),
+                    (tank2 == null) ? null : (Tank) printable.apply(tank2), firstPage, options));
+    }
+
+    private static PlannedSheet planSmallUnitSheet(List<? extends Entity> units, int firstPage,
+          RecordSheetOptions options, boolean copyUnits) {
+        int pages = new PrintSmallUnitSheet(units, firstPage, options).getPageCount();
+        return plan(firstPage, pages, options, copyUnits, printable -> new PrintSmallUnitSheet(
+              units.stream().map(printable).toList(), firstPage, options));
+    }
+
+    /**
+     * Plans a sheet whose builder gets the units to print through a function that hides their damage if needed.
+     */
+    private static PlannedSheet plan(int firstPage, int pageCount, RecordSheetOptions options, boolean copyUnits,
+          Function<UnaryOperator<Entity>, PrintRecordSheet> builder) {
+        final List<DamageSnapshot> snapshots = new ArrayList<>();
+        return new PlannedSheet(firstPage, pageCount,
+              () -> builder.apply(entity -> printableUnit(entity, options, copyUnits, snapshots)),
+              () -> restoreDamage(snapshots));
+    }
+
+    /**
+     * Returns the unit to print. If the unit is damaged and damage should not be shown, its damage is cleared until
+     * the sheet is released, or an undamaged copy is returned if the unit has to be copied or its damage is already
+     * cleared for another sheet.
+     */
+    private static Entity printableUnit(Entity entity, RecordSheetOptions options, boolean copyUnits,
+          List<DamageSnapshot> snapshots) {
+        if (options.showDamage()) {
+            return entity;
+        }
+        synchronized (RESET_UNITS) {
+            if (RESET_UNITS.contains(entity)) {
+                // The damage is put back when the other sheet is released, so the copy has to be taken before that
+                return undamagedCopy(entity);
+            } else if (!UnitUtil.isDamaged(entity, options.showPilotData())) {
+                return entity;
+            } else if (!copyUnits) {
+                RESET_UNITS.add(entity);
+                snapshots.add(DamageSnapshot.resetUnit(entity));
+                return entity;
+            }
+        }
+        // Only a job that owns a unit changes it, so a unit that is not owned can be copied without holding the lock
+        return undamagedCopy(entity);
+    }
+
+    private static Entity undamagedCopy(Entity entity) {
+        Entity unit = UnitUtil.cloneUnit(entity);
+        if (unit == null) {
+            return entity;
+        }
+        UnitUtil.resetUnit(unit);
+        return unit;
+    }
+
+    private static void restoreDamage(List<DamageSnapshot> snapshots) {
+        synchronized (RESET_UNITS) {
+            for (DamageSnapshot snapshot : snapshots) {
+                snapshot.restore();
+                RESET_UNITS.remove(snapshot.getEntity());
+            }
+            snapshots.clear();
+        }
+    }
+
     public static void exportUnits(List<? extends BTObject> units, File exportFile, boolean singlePrint) {
         exportUnits(units, exportFile, singlePrint, new RecordSheetOptions());
     }
 
     public static void exportUnits(List<? extends BTObject> units, File exportFile, boolean singlePrint,
           RecordSheetOptions options) {
-        List<PrintRecordSheet> sheets = createSheets(units, singlePrint, options);
+        exportUnits(units, exportFile, singlePrint, options, false);
+    }
+
+    /**
+     * Exports the record sheets of the units to a PDF file.
+     *
+     * @param ownsUnits Whether nothing but this job uses the units, such as units loaded from a file for it, so their
+     *                  damage can be cleared in place; see
+     *                  {@link #planSheets(List, boolean, RecordSheetOptions, boolean, boolean)}
+     */
+    public static void exportUnits(List<? extends BTObject> units, File exportFile, boolean singlePrint,
+          RecordSheetOptions options, boolean ownsUnits) {
+        List<PlannedSheet> sheets = planSheets(units, singlePrint, options, false, ownsUnits);
         PageFormat pageFormat = new PageFormat();
         pageFormat.setPaper(options.getPaperSize().createPaper());
-        RecordSheetTask task = RecordSheetTask.createExportTask(sheets, pageFormat, exportFile.getAbsolutePath());
+        // Sheets are built in parallel, which must not happen for two sheets of the same unit
+        int threads = listsUnitTwice(units) ? 1 : CConfig.exportThreads();
+        RecordSheetTask task = RecordSheetTask.createExportTask(sheets, pageFormat, exportFile.getAbsolutePath(),
+              threads);
         task.execute(CConfig.getBooleanParam(CConfig.RS_PROGRESS_BAR));
     }
 
+    private static boolean listsUnitTwice(List<? extends BTObject> units) {
+        Set<BTObject> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BTObject unit : units) {
+            if ((unit instanceof Entity) && !seen.add(unit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates and runs a print job using the default record sheet options
      *
@@ -354,6 +503,21 @@ public class UnitPrintManager {
      */
     public static boolean printAllUnits(List<? extends BTObject> loadedUnits, boolean singlePrint,
           RecordSheetOptions options) {
+        return printAllUnits(loadedUnits, singlePrint, options, false);
+    }
+
+    /**
+     * Creates and runs a print job using the provided record sheet options
+     *
+     * @param loadedUnits The units to print
+     * @param singlePrint Whether to limit each record sheet to a single unit
+     * @param options     The options to use for this print job
+     * @param ownsUnits   Whether nothing but this job uses the units, such as units loaded from a file for it, so their
+     *                    damage can be cleared in place; see
+     *                    {@link #planSheets(List, boolean, RecordSheetOptions, boolean, boolean)}
+     */
+    public static boolean printAllUnits(List<? extends BTObject> loadedUnits, boolean singlePrint,
+          RecordSheetOptions options, boolean ownsUnits) {
         HashPrintRequestAttributeSet hashPrintRequestAttributeSet = new HashPrintRequestAttributeSet();
         hashPrintRequestAttributeSet.add(options.getPaperSize().sizeName);
         hashPrintRequestAttributeSet.add(options.getPaperSize().printableArea);
@@ -368,7 +532,7 @@ public class UnitPrintManager {
         // closest to the aspect
         // ratio of the paper size.
         options.setPaperSize(PaperSize.closestToAspect(pageFormat.getWidth(), pageFormat.getHeight()));
-        List<PrintRecordSheet> sheets = createSheets(loadedUnits, singlePrint, options);
+        List<PlannedSheet> sheets = planSheets(loadedUnits, singlePrint, options, false, ownsUnits);
 
         if (loadedUnits.size() > 1) {
             String name;
@@ -443,13 +607,14 @@ public class UnitPrintManager {
                 Entity tempEntity = new MekFileParser(entityFile).getEntity();
                 unitList.add(tempEntity);
             }
+            // The units were loaded for this job only
             if (pdf) {
                 File exportFile = getExportFile(parent);
                 if (exportFile != null) {
-                    exportUnits(unitList, exportFile, singleUnit);
+                    exportUnits(unitList, exportFile, singleUnit, new RecordSheetOptions(), true);
                 }
             } else {
-                printAllUnits(unitList, singleUnit);
+                printAllUnits(unitList, singleUnit, new RecordSheetOptions(), true);
             }
         } catch (Exception ex) {
             LOGGER.error("", ex);
@@ -100,17 +100,7 @@ public class UnitUtil {
 
     private static Font rsFont = null;
     private static Font rsBoldFont = null;
-    private static final Client dummyClient = new Client("", "", 0);
-    private static final Player dummyPlayer = new Player(1, "");
-
-    static {
-        final Game game = dummyClient.getGame();
-        game.getOptions().getOption(OptionsConstants.ADVANCED_STRATOPS_QUIRKS).setValue(true);
-        game.getOptions().getOption(OptionsConstants.RPG_PILOT_ADVANTAGES).setValue(true);
-        game.getOptions().getOption(OptionsConstants.RPG_MANEI_DOMINI).setValue(true);
-        game.addPlayer(1, dummyPlayer);
-        dummyClient.setLocalPlayerNumber(1);
-    }
+    private static final Client dummyClient = createDummyClient();
 
     /**
      * Returns a Client object that is used for internal calculations of the units.
@@ -121,6 +111,24 @@ public class UnitUtil {
         return dummyClient;
     }
 
+    /**
+     * Creates a new Client object set up for internal calculations of the units, like the one returned by
+     * {@link #getDummyClient()}. Units loaded on different threads at the same time should each use their own, as the
+     * game of the client is not thread-safe.
+     *
+     * @return A new Client object
+     */
+    public static Client createDummyClient() {
+        final Client client = new Client("", "", 0);
+        final Game game = client.getGame();
+        game.getOptions().getOption(OptionsConstants.ADVANCED_STRATOPS_QUIRKS).setValue(true);
+        game.getOptions().getOption(OptionsConstants.RPG_PILOT_ADVANTAGES).setValue(true);
+        game.getOptions().getOption(OptionsConstants.RPG_MANEI_DOMINI).setValue(true);
+        game.addPlayer(1, new Player(1, ""));
+        client.setLocalPlayerNumber(1);
+        return client;
+    }
+
     /**
      * Tells us if the passed in {@link EquipmentType} is equipment that uses critical slots/mounted and is spread
      * across multiple locations
@@ -1417,10 +1425,31 @@ public class UnitUtil {
         return UnitUtil.isArmor(eq) || UnitUtil.isStructure(eq);
     }
 
+    /**
+     * Builds the shared tables that unit files are parsed with, so that units can afterward be loaded on several
+     * threads at once. The equipment tables are built by {@link EquipmentType#initializeTypes()}, which must have been
+     * called first. The list of canon unit names would otherwise be read by whichever thread parses the first unit,
+     * while other threads read it.
+     */
+    public static void prepareParallelLoading() {
+        MekFileParser.initCanonUnitNames();
+    }
+
     public static void updateLoadedUnit(Entity unit) {
+        updateLoadedUnit(unit, getDummyClient());
+    }
+
+    /**
+     * Same as {@link #updateLoadedUnit(Entity)}, but adds the unit to the game of the given client instead of the
+     * shared dummy client.
+     *
+     * @param unit   The unit to update
+     * @param client A client from {@link #createDummyClient()}
+     */
+    public static void updateLoadedUnit(Entity unit, Client client) {
         // Add Entity to a dummy game
-        unit.setGame(getDummyClient().getGame());
-        unit.setOwner(getDummyClient().getLocalPlayer());
+        unit.setGame(client.getGame());
+        unit.setOwner(client.getLocalPlayer());
 
         // Check for illegal armor tech levels and set to the tech level of the unit.
         for (int loc = 0; loc < unit.locations(); loc++) {
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+class SVGDocumentPatcherTest {
+    private static final String SVG_NS = "xmlns=\"http://www.w3.org/2000/svg\"";
+    private static final String XLINK_NS = "http://www.w3.org/1999/xlink";
+
+    @Test
+    void sameDocumentHasNoChanges() throws Exception {
+        String svg = "<svg " + SVG_NS + "><g id=\"a\"><rect width=\"1\"/></g><text>x</text></svg>";
+        assertEquals(0, SVGDocumentPatcher.patch(parse(svg), parse(svg)));
+    }
+
+    @Test
+    void differentRootIsNotPatched() throws Exception {
+        Document target = parse("<svg " + SVG_NS + "/>");
+        assertEquals(-1, SVGDocumentPatcher.patch(target, parse("<g " + SVG_NS + "/>")));
+        assertEquals("svg", target.getDocumentElement().getNodeName());
+    }
+
+    @Test
+    void childrenWithIdKeepTheirNodes() throws Exception {
+        Document target = parse("<svg " + SVG_NS + "><rect id=\"a\"/><rect id=\"b\" x=\"1\"/></svg>");
+        Node first = target.getDocumentElement().getFirstChild();
+        Node second = first.getNextSibling();
+        Document source = parse("<svg " + SVG_NS + "><rect id=\"new\"/><rect id=\"a\"/><rect id=\"b\" x=\"2\"/></svg>");
+
+        // The inserted child and the changed attribute
+        assertEquals(2, SVGDocumentPatcher.patch(target, source));
+        assertEquals(serialize(source), serialize(target));
+        Node root = target.getDocumentElement();
+        assertSame(first, root.getChildNodes().item(1));
+        assertSame(second, root.getChildNodes().item(2));
+    }
+
+    @Test
+    void duplicateIdsAreMatchedByPosition() throws Exception {
+        Document target = parse("<svg " + SVG_NS + "><text id=\"x\">1</text><text id=\"x\">2</text></svg>");
+        Node first = target.getDocumentElement().getFirstChild();
+        Node second = first.getNextSibling();
+        Document source = parse("<svg " + SVG_NS + "><text id=\"x\">1</text><text id=\"x\">3</text></svg>");
+
+        assertEquals(1, SVGDocumentPatcher.patch(target, source));
+        assertEquals(serialize(source), serialize(target));
+        assertSame(first, target.getDocumentElement().getFirstChild());
+        assertSame(second, target.getDocumentElement().getLastChild());
+    }
+
+    @Test
+    void childrenWithoutIdAreMatchedByNameAndPosition() throws Exception {
+        Document target = parse("<svg " + SVG_NS + "><g/><rect/><g/></svg>");
+        Node rect = target.getDocumentElement().getChildNodes().item(1);
+        Node lastGroup = target.getDocumentElement().getLastChild();
+        Document source = parse("<svg " + SVG_NS + "><circle/><g/><rect/><g/></svg>");
+
+        assertEquals(1, SVGDocumentPatcher.patch(target, source));
+        assertEquals(serialize(source), serialize(target));
+        assertSame(rect, target.getDocumentElement().getChildNodes().item(2));
+        assertSame(lastGroup, target.getDocumentElement().getLastChild());
+    }
+
+    @Test
+    void childrenAreRemovedMovedAndInsertedInOrder() throws Exception {
+        Document target = parse("<svg " + SVG_NS + "><g id=\"a\"/><g id=\"b\"/><g id=\"c\"/><g id=\"d\"/></svg>");
+        Node a = target.getDocumentElement().getFirstChild();
+        Node d = target.getDocumentElement().getLastChild();
+        Document source = parse("<svg " + SVG_NS + "><g id=\"d\"/><g id=\"e\"/><g id=\"a\"/><g id=\"c\"/></svg>");
+
+        // Removing b, inserting e and moving one of the others
+        assertEquals(3, SVGDocumentPatcher.patch(target, source));
+        assertEquals(serialize(source), serialize(target));
+        assertSame(d, target.getDocumentElement().getFirstChild());
+        assertSame(a, target.getDocumentElement().getChildNodes().item(2));
+    }
+
+    @Test
+    void namespacedAttributesAreChangedAndRemoved() throws Exception {
+        String start = "<svg " + SVG_NS + " xmlns:xlink=\"" + XLINK_NS + "\">";
+        Document target = parse(start + "<use xlink:href=\"#a\" x=\"1\" fill=\"red\"/></svg>");
+        Document source = parse(start + "<use xlink:href=\"#b\" fill=\"red\"/></svg>");
+
+        assertEquals(2, SVGDocumentPatcher.patch(target, source));
+        Element use = (Element) target.getDocumentElement().getFirstChild();
+        assertEquals("#b", use.getAttributeNS(XLINK_NS, "href"));
+        assertEquals("xlink:href", use.getAttributeNodeNS(XLINK_NS, "href").getName());
+        assertFalse(use.hasAttribute("x"));
+        assertEquals(serialize(source), serialize(target));
+    }
+
+    @Test
+    void textIsChangedInPlace() throws Exception {
+        Document target = parse("<svg " + SVG_NS + "><text id=\"t\">old</text></svg>");
+        Node text = target.getElementById("t").getFirstChild();
+        Document source = parse("<svg " + SVG_NS + "><text id=\"t\">new</text></svg>");
+
+        assertEquals(1, SVGDocumentPatcher.patch(target, source));
+        assertSame(text, target.getElementById("t").getFirstChild());
+        assertEquals("new", text.getNodeValue());
+    }
+
+    @Test
+    void sourceIsNotChanged() throws Exception {
+        Document source = parse("<svg " + SVG_NS + "><g id=\"a\"><text>1</text></g></svg>");
+        String before = serialize(source);
+        SVGDocumentPatcher.patch(parse("<svg " + SVG_NS + "><rect/></svg>"), source);
+        assertEquals(before, serialize(source));
+    }
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder()
+              .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        // Lets getElementById find the elements, as an SVG document would
+        markIds(document.getDocumentElement());
+        return document;
+    }
+
+    private static void markIds(Element element) {
+        if (element.hasAttribute("id")) {
+            element.setIdAttribute("id", true);
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                markIds(childElement);
+            }
+        }
+    }
+
+    private static String serialize(Document document) throws Exception {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        StringWriter writer = new StringWriter();
+        transformer.transform(new DOMSource(document), new StreamResult(writer));
+        return writer.toString();
+    }
+}
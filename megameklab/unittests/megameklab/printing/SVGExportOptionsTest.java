@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SVGExportOptionsTest {
+
+    @Test
+    void defaults() {
+        SVGExportOptions options = SVGExportOptions.parse();
+        assertEquals(SVGExportOptions.DEFAULT_OUTPUT, options.getOutputFolder());
+        assertEquals(SVGExportOptions.DEFAULT_TYPEFACE, options.getTypeface());
+        assertEquals(PaperSize.US_LETTER, options.getPaperSize());
+        assertEquals(SVGExportOptions.OutputFormat.FILES, options.getFormat());
+        assertEquals(Runtime.getRuntime().availableProcessors(), options.getThreads());
+        assertFalse(options.isIncremental());
+        assertFalse(options.isShareFragments());
+        assertFalse(options.isFiltered());
+        assertFalse(options.isHelp());
+    }
+
+    @Test
+    void valuesAndSwitches() {
+        SVGExportOptions options = SVGExportOptions.parse("--output", "out", "--typeface", "Eurostile",
+              "--paper", "iso_a4", "--format", "packed", "--threads", "3", SVGExportOptions.INCREMENTAL_ARG,
+              SVGExportOptions.SHARE_FRAGMENTS_ARG, "--skip-svg", "--skip-equipment", "-h");
+        assertEquals("out", options.getOutputFolder());
+        assertEquals("Eurostile", options.getTypeface());
+        assertEquals(PaperSize.ISO_A4, options.getPaperSize());
+        assertEquals(SVGExportOptions.OutputFormat.PACKED, options.getFormat());
+        assertEquals(3, options.getThreads());
+        assertTrue(options.isIncremental());
+        assertTrue(options.isShareFragments());
+        assertTrue(options.isSkipSvg());
+        assertTrue(options.isSkipEquipment());
+        assertTrue(options.isHelp());
+        assertFalse(options.isFiltered());
+    }
+
+    @Test
+    void oldPackedSwitch() {
+        assertEquals(SVGExportOptions.OutputFormat.PACKED, SVGExportOptions.parse("--packed").getFormat());
+    }
+
+    @Test
+    void filtersMakeExportFiltered() {
+        assertTrue(SVGExportOptions.parse("--types", "Mek,Tank").isFiltered());
+        assertTrue(SVGExportOptions.parse("--years", "3050-").isFiltered());
+        assertTrue(SVGExportOptions.parse("--years", "-3025").isFiltered());
+        assertTrue(SVGExportOptions.parse("--years", "3067").isFiltered());
+        assertTrue(SVGExportOptions.parse("--mul-ids", "1, 2,,3").isFiltered());
+        assertTrue(SVGExportOptions.parse("--shard", "1/4").isFiltered());
+        assertFalse(SVGExportOptions.parse("--shard", "0/1").isFiltered());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--unknown"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--output"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--threads", "0"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--threads", "many"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--paper", "napkin"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--format", "zip"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--years", "early-late"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--mul-ids", "1,x"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--shard", "4/4"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--shard", "-1/4"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--shard", "1"));
+        assertThrows(IllegalArgumentException.class, () -> SVGExportOptions.parse("--shard", "0/0"));
+    }
+
+    @Test
+    void indexFileNameOfWholeCatalog() {
+        assertEquals("units.json", SVGExportOptions.parse().indexFileName("units.json"));
+        assertEquals("sheets", SVGExportOptions.parse("--incremental").indexFileName("sheets"));
+    }
+
+    @Test
+    void indexFileNameOfShard() {
+        SVGExportOptions options = SVGExportOptions.parse("--shard", "2/4");
+        assertEquals("units.shard-2-of-4.json", options.indexFileName("units.json"));
+        assertEquals("sheets.shard-2-of-4", options.indexFileName("sheets"));
+    }
+
+    @Test
+    void indexFileNameOfFilteredExport() {
+        String name = SVGExportOptions.parse("--types", "Mek,Tank", "--years", "3050-3060")
+              .indexFileName("units.json");
+        assertTrue(name.matches("units\\.filtered-[0-9a-f]{8}\\.json"), name);
+        // The order and case of the filter values do not matter, but the values do
+        assertEquals(name, SVGExportOptions.parse("--years", "3050-3060", "--types", "tank,MEK")
+              .indexFileName("units.json"));
+        assertNotEquals(name, SVGExportOptions.parse("--types", "Mek,Tank", "--years", "3050-3061")
+              .indexFileName("units.json"));
+    }
+}
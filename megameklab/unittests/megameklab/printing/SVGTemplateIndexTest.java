@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+class SVGTemplateIndexTest {
+    private static final String TEMPLATE = """
+          <svg xmlns="http://www.w3.org/2000/svg">
+            <g id="armor" class="armor  pips">
+              <text id="armorLabel" class="label" font-family="Eurostile">Armor</text>
+              <rect class="pips"/>
+            </g>
+            <g id="internal" class="pips">
+              <text id="internalLabel" class="label" style="fill:#000;font-family:Eurostile">Internal</text>
+            </g>
+            <text id="title" class=" ">Title</text>
+          </svg>
+          """;
+
+    @Test
+    void idsByClassInDocumentOrder() throws Exception {
+        SVGTemplateIndex index = SVGTemplateIndex.build(parse(TEMPLATE));
+        assertEquals(List.of("armor", "internal"), index.getIdsByClass("pips"));
+        assertEquals(List.of("armorLabel", "internalLabel"), index.getIdsByClass("label"));
+        assertEquals(List.of("armor"), index.getIdsByClass("armor"));
+    }
+
+    @Test
+    void unknownClassHasNoIds() throws Exception {
+        SVGTemplateIndex index = SVGTemplateIndex.build(parse(TEMPLATE));
+        assertTrue(index.getIdsByClass("missing").isEmpty());
+        assertTrue(index.getIdsByClass("").isEmpty());
+    }
+
+    @Test
+    void fontElementsAreFromIndexedDocument() throws Exception {
+        Document doc = parse(TEMPLATE);
+        SVGTemplateIndex index = SVGTemplateIndex.build(doc);
+        assertEquals(2, index.getFontElements().size());
+        assertSame(doc.getElementsByTagName("text").item(0), index.getFontElements().get(0));
+        assertSame(doc.getElementsByTagName("text").item(1), index.getFontElements().get(1));
+    }
+
+    @Test
+    void emptyDocument() throws Exception {
+        SVGTemplateIndex index = SVGTemplateIndex.build(
+              DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument());
+        assertTrue(index.getIdsByClass("pips").isEmpty());
+        assertTrue(index.getFontElements().isEmpty());
+    }
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SheetPackWriterTest {
+    private static final byte[] FIRST = sheet("first");
+    private static final byte[] SECOND = sheet("second");
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void sheetsAreAppendedToOnePack() throws IOException {
+        SheetPackWriter.Location first;
+        SheetPackWriter.Location second;
+        try (SheetPackWriter writer = new SheetPackWriter(tempDir.toFile(), "sheets")) {
+            first = writer.write(FIRST);
+            second = writer.write(SECOND);
+            assertEquals(1, writer.getPackCount());
+        }
+        assertEquals("sheets_000.pack", first.pack());
+        assertEquals(first.pack(), second.pack());
+        assertEquals(0, first.offset());
+        assertEquals(first.length(), second.offset());
+        assertEquals(second.offset() + second.length(), Files.size(tempDir.resolve(first.pack())));
+        assertArrayEquals(FIRST, read(first));
+        assertArrayEquals(SECOND, read(second));
+    }
+
+    @Test
+    void packsAreNamedAfterBaseName() throws IOException {
+        SheetPackWriter.Location location;
+        try (SheetPackWriter writer = new SheetPackWriter(tempDir.toFile(), "sheets.shard-1-of-2")) {
+            location = writer.write(FIRST);
+        }
+        assertEquals("sheets.shard-1-of-2_000.pack", location.pack());
+        assertArrayEquals(FIRST, read(location));
+    }
+
+    @Test
+    void threadsWriteToTheirOwnPacks() throws Exception {
+        SheetPackWriter.Location first;
+        SheetPackWriter.Location second;
+        try (SheetPackWriter writer = new SheetPackWriter(tempDir.toFile(), "sheets")) {
+            first = writeFromNewThread(writer, FIRST);
+            second = writeFromNewThread(writer, SECOND);
+            assertEquals(2, writer.getPackCount());
+        }
+        assertNotEquals(first.pack(), second.pack());
+        assertEquals(0, second.offset());
+        assertArrayEquals(FIRST, read(first));
+        assertArrayEquals(SECOND, read(second));
+    }
+
+    private static SheetPackWriter.Location writeFromNewThread(SheetPackWriter writer, byte[] svg) throws Exception {
+        SheetPackWriter.Location[] location = new SheetPackWriter.Location[1];
+        IOException[] failure = new IOException[1];
+        Thread thread = new Thread(() -> {
+            try {
+                location[0] = writer.write(svg);
+            } catch (IOException ex) {
+                failure[0] = ex;
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return location[0];
+    }
+
+    /**
+     * Reads a sheet back from its location, the way a client fetching a byte range of the pack would.
+     */
+    private byte[] read(SheetPackWriter.Location location) throws IOException {
+        byte[] compressed = new byte[location.length()];
+        try (RandomAccessFile pack = new RandomAccessFile(tempDir.resolve(location.pack()).toFile(), "r")) {
+            pack.seek(location.offset());
+            pack.readFully(compressed);
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] sheet(String name) {
+        return ("<svg xmlns=\"http://www.w3.org/2000/svg\"><text>" + name.repeat(100) + "</text></svg>")
+              .getBytes(StandardCharsets.UTF_8);
+    }
+}
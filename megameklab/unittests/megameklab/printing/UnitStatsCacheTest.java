@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.printing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UnitStatsCacheTest {
+    private static final String KEY = "stats-key";
+    private static final UnitStatsCache.Stats MEK_STATS = new UnitStatsCache.Stats(1234, 5_678_901L, 17.5,
+          Map.of("PV", 32, "TP", "BM"), List.of("Easy to Maintain", "Rugged"), Map.of("manufacturer", "Kali Yama"));
+    private static final UnitStatsCache.Stats TANK_STATS = new UnitStatsCache.Stats(456, 789_000L, 6.25, null,
+          List.of(), Map.of());
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void savedStatsAreLoaded() throws IOException {
+        File file = saveTwoUnits();
+
+        UnitStatsCache cache = UnitStatsCache.load(file, KEY, mapper);
+        assertEquals(MEK_STATS, cache.get("mek", "hash-1"));
+        assertEquals(TANK_STATS, cache.get("tank", "hash-2"));
+    }
+
+    @Test
+    void changedUnitIsNotReused() throws IOException {
+        UnitStatsCache cache = UnitStatsCache.load(saveTwoUnits(), KEY, mapper);
+        assertNull(cache.get("mek", "hash-changed"));
+        assertNull(cache.get("unknown", "hash-1"));
+    }
+
+    @Test
+    void unhashedUnitIsNotCached() throws IOException {
+        UnitStatsCache cache = UnitStatsCache.empty(KEY, mapper);
+        cache.put("mek", "", MEK_STATS);
+        assertNull(cache.get("mek", ""));
+    }
+
+    @Test
+    void missingFileGivesEmptyCache() {
+        UnitStatsCache cache = UnitStatsCache.load(tempDir.resolve("missing.bin").toFile(), KEY, mapper);
+        assertNull(cache.get("mek", "hash-1"));
+    }
+
+    @Test
+    void otherStatsKeyIsRejected() throws IOException {
+        UnitStatsCache cache = UnitStatsCache.load(saveTwoUnits(), "other-key", mapper);
+        assertNull(cache.get("mek", "hash-1"));
+    }
+
+    @Test
+    void otherMagicIsRejected() throws IOException {
+        File file = saveTwoUnits();
+        changeByte(file, 0);
+        assertNull(UnitStatsCache.load(file, KEY, mapper).get("mek", "hash-1"));
+    }
+
+    @Test
+    void otherFormatVersionIsRejected() throws IOException {
+        File file = saveTwoUnits();
+        // The version follows the four bytes of the magic number
+        changeByte(file, 7);
+        assertNull(UnitStatsCache.load(file, KEY, mapper).get("mek", "hash-1"));
+    }
+
+    @Test
+    void corruptFileIsRejected() throws IOException {
+        File file = tempDir.resolve(UnitStatsCache.CACHE_FILE).toFile();
+        Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+        assertNull(UnitStatsCache.load(file, KEY, mapper).get("mek", "hash-1"));
+    }
+
+    @Test
+    void unusedEntriesAreKeptOnlyOnRequest() throws IOException {
+        File file = saveTwoUnits();
+        UnitStatsCache cache = UnitStatsCache.load(file, KEY, mapper);
+        assertEquals(MEK_STATS, cache.get("mek", "hash-1"));
+        cache.save(file, true);
+
+        UnitStatsCache kept = UnitStatsCache.load(file, KEY, mapper);
+        assertEquals(TANK_STATS, kept.get("tank", "hash-2"));
+        assertEquals(MEK_STATS, kept.get("mek", "hash-1"));
+
+        cache.save(file, false);
+        UnitStatsCache dropped = UnitStatsCache.load(file, KEY, mapper);
+        assertNull(dropped.get("tank", "hash-2"));
+        assertEquals(MEK_STATS, dropped.get("mek", "hash-1"));
+    }
+
+    private File saveTwoUnits() throws IOException {
+        File file = tempDir.resolve(UnitStatsCache.CACHE_FILE).toFile();
+        UnitStatsCache cache = UnitStatsCache.empty(KEY, mapper);
+        cache.put("mek", "hash-1", MEK_STATS);
+        cache.put("tank", "hash-2", TANK_STATS);
+        cache.save(file, false);
+        return file;
+    }
+
+    /**
+     * Changes one byte of the uncompressed content of the cache file.
+     */
+    private static void changeByte(File file, int position) throws IOException {
+        byte[] content;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            content = in.readAllBytes();
+        }
+        content[position]++;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            new ByteArrayInputStream(content).transferTo(out);
+        }
+        Files.write(file.toPath(), compressed.toByteArray());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 The MegaMek Team. All Rights Reserved.
+ *
+ * This file is part of MegaMekLab.
+ *
+ * MegaMekLab is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL),
+ * version 3 or (at your option) any later version,
+ * as published by the Free Software Foundation.
+ *
+ * MegaMekLab is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * A copy of the GPL should have been included with this project;
+ * if not, see <https://www.gnu.org/licenses/>.
+ *
+ * NOTICE: The MegaMek organization is a non-profit group of volunteers
+ * creating free software for the BattleTech community.
+ *
+ * MechWarrior, BattleMech, `Mech and AeroTech are registered trademarks
+ * of The Topps Company, Inc. All Rights Reserved.
+ *
+ * Catalyst Game Labs and the Catalyst Game Labs logo are trademarks of
+ * InMediaRes Productions, LLC.
+ *
+ * MechWarrior Copyright Microsoft Corporation. MegaMek was created under
+ * Microsoft's "Game Content Usage Rules"
+ * <https://www.xbox.com/en-US/developers/rules> and it is not endorsed by or
+ * affiliated with Microsoft.
+ */
+package megameklab.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.batik.anim.dom.SVGDOMImplementation;
+import org.apache.batik.dom.util.SAXDocumentFactory;
+import org.apache.batik.util.XMLResourceDescriptor;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.svg.SVGDocument;
+
+class SVGOptimizerTest {
+    private static final Path TEMPLATE = Paths.get(
+          "testresources/data/images/recordsheets/templates_us/dropship_aerodyne_default.svg");
+    private static final int THREADS = 8;
+    private static final int RUNS = 48;
+
+    @Test
+    void formatDecimalTrimsZeros() {
+        assertEquals("0", SVGOptimizer.formatDecimal(0.0, 3));
+        assertEquals("0", SVGOptimizer.formatDecimal(-0.0001, 3));
+        assertEquals(".5", SVGOptimizer.formatDecimal(0.5, 3));
+        assertEquals("-.5", SVGOptimizer.formatDecimal(-0.5, 3));
+        assertEquals(".005", SVGOptimizer.formatDecimal(0.00499, 3));
+        assertEquals("12", SVGOptimizer.formatDecimal(12.0001, 3));
+        assertEquals("12.0001", SVGOptimizer.formatDecimal(12.0001, 4));
+        assertEquals("-3.14", SVGOptimizer.formatDecimal(-3.1400001, 4));
+        assertEquals("1234567.125", SVGOptimizer.formatDecimal(1234567.125, 3));
+    }
+
+    @Test
+    void formatDecimalRoundsTiesLikeDecimalFormat() {
+        assertEquals("2.062", SVGOptimizer.formatDecimal(2.0625, 3));
+        assertEquals("2.188", SVGOptimizer.formatDecimal(2.1875, 3));
+        assertEquals("-2.057", SVGOptimizer.formatDecimal(-2.0565, 3));
+    }
+
+    @Test
+    void concurrentOptimizationMatchesSingleThreaded() throws Exception {
+        final byte[] expected = optimizeTemplate();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < RUNS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return optimizeTemplate();
+                }));
+            }
+            start.countDown();
+            for (Future<byte[]> result : results) {
+                assertArrayEquals(expected, result.get(2, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] optimizeTemplate() throws Exception {
+        SVGDocument document;
+        try (InputStream is = Files.newInputStream(TEMPLATE)) {
+            SAXDocumentFactory df = new SAXDocumentFactory(SVGDOMImplementation.getDOMImplementation(),
+                  XMLResourceDescriptor.getXMLParserClassName());
+            document = (SVGDocument) df.createDocument(TEMPLATE.toUri().toASCIIString(), is);
+        }
+        SVGOptimizer.optimize(document);
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        transformer.transform(new DOMSource(document), new StreamResult(output));
+        return output.toByteArray();
+    }
+}